@@ -1,17 +1,27 @@
 package com.example.backend.chat.controller;
 
+import com.example.backend.chat.dto.ChatHistoryResDto;
 import com.example.backend.chat.dto.ChatMessageDto;
+import com.example.backend.chat.dto.ChatResyncResDto;
 import com.example.backend.chat.service.ChatService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/chat")
 public class ChatController {
+    private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
+
+    // Redis Streams 항목 id 형식 : {밀리초}-{순번}
+    private static final Pattern STREAM_ID = Pattern.compile("\\d{1,18}-\\d{1,18}");
+
     private final ChatService chatService;
 
     public ChatController(ChatService chatService) {
@@ -25,18 +35,18 @@ public class ChatController {
         return ResponseEntity.ok().build();
     }
 
-//    그룹채팅목록조회
+//    그룹채팅목록조회 : sort=activity(최근 활동 순, 기본) | size(참여자 많은 순)
     @GetMapping("/room/group/list")
     public ResponseEntity<?> getGroupChatRooms(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String keyword) {
-        System.out.println("=== ChatController: 그룹 채팅방 목록 요청 ===");
-        System.out.println("요청 파라미터 - page: " + page + ", size: " + size + ", keyword: '" + keyword + "'");
-        
-        Map<String, Object> result = chatService.getGroupchatRooms(page, size, keyword);
-        System.out.println("응답 결과 - 채팅방 수: " + ((List<?>)result.get("rooms")).size());
-        
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "activity") String sort) {
+        logger.debug("그룹 채팅방 목록 요청 - page: {}, size: {}, keyword: '{}', sort: {}", page, size, keyword, sort);
+
+        Map<String, Object> result = chatService.getGroupchatRooms(page, size, keyword, sort);
+        logger.debug("그룹 채팅방 목록 응답 - 채팅방 수: {}", ((List<?>) result.get("rooms")).size());
+
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
 
@@ -54,31 +64,81 @@ public class ChatController {
         return new ResponseEntity<>(chatMessageDtos, HttpStatus.OK);
     }
 
-//    채팅메시지 읽음처리
+//    이전 메시지 커서 조회 : /history/{roomId}?limit=30 으로 최신 메시지부터, 응답의 nextCursor를 before로 넘겨 이전 메시지 조회
+    @GetMapping(value = "/history/{roomId}", params = "limit")
+    public ResponseEntity<?> getChatHistoryPage(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long before,
+            @RequestParam int limit){
+        ChatHistoryResDto chatHistory = chatService.getChatHistoryPage(roomId, before, limit);
+        return new ResponseEntity<>(chatHistory, HttpStatus.OK);
+    }
+
+//    재연결 시 끊긴 구간 재전송 : 마지막으로 받은 메시지의 streamId를 after로 넘긴다
+//    after 형식이 틀리면 400, chat.transport=pubsub 이면 409 (클라이언트는 /room/{roomId}/since/{seq} 로 재동기화)
+    @GetMapping("/history/{roomId}/replay")
+    public ResponseEntity<?> replayMessages(
+            @PathVariable Long roomId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "100") int limit){
+        if(!STREAM_ID.matcher(after).matches()){
+            return new ResponseEntity<>(Map.of("message", "after는 스트림 id 형식({밀리초}-{순번})이어야 합니다."), HttpStatus.BAD_REQUEST);
+        }
+        return chatService.replayMessages(roomId, after, limit)
+                .<ResponseEntity<?>>map(replay -> new ResponseEntity<>(replay, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(
+                        Map.of("message", "현재 전송 방식은 메시지 재전송을 지원하지 않습니다. /chat/room/{roomId}/since/{seq} 로 재동기화하세요."),
+                        HttpStatus.CONFLICT));
+    }
+
+//    빠진 메시지 재조회 : 마지막으로 받은 메시지의 seq 이후 메시지를 순번 순으로 돌려준다 (응답의 lastSeq로 이어서 조회)
+    @GetMapping("/room/{roomId}/since/{seq}")
+    public ResponseEntity<?> getMessagesSince(
+            @PathVariable Long roomId,
+            @PathVariable Long seq,
+            @RequestParam(defaultValue = "100") int limit){
+        ChatResyncResDto resync = chatService.getMessagesSince(roomId, seq, limit);
+        return new ResponseEntity<>(resync, HttpStatus.OK);
+    }
+
+//    채팅메시지 읽음처리 : 갱신된 행 수를 돌려준다 (이미 모두 읽은 상태면 0)
     @PostMapping("/room/{roomId}/read")
     public ResponseEntity<?> messageRead(@PathVariable Long roomId){
-        chatService.messageRead(roomId);
-        return ResponseEntity.ok().build();
+        int updated = chatService.messageRead(roomId);
+        return new ResponseEntity<>(updated, HttpStatus.OK);
+    }
+
+//    채팅방을 보고 있는 참여자 수와 id (모든 노드 기준)
+    @GetMapping("/room/{roomId}/online")
+    public ResponseEntity<?> getRoomOnlineMembers(@PathVariable Long roomId){
+        return new ResponseEntity<>(chatService.getRoomOnlineMembers(roomId), HttpStatus.OK);
+    }
+
+//    접속 중인 사용자 조회 : /online?userIds=1,2,3 → 그중 접속 중인 사용자 id
+    @GetMapping("/online")
+    public ResponseEntity<?> getOnlineUsers(@RequestParam List<Long> userIds){
+        return new ResponseEntity<>(chatService.getOnlineUsers(userIds), HttpStatus.OK);
     }
 
-//    내채팅방목록조회 : roomId, roomName, 그룹채팅여부, 메시지읽음개수
+//    내채팅방목록조회 : roomId, roomName, 그룹채팅여부, 메시지읽음개수, 마지막 메시지 시각 (최근 활동 순)
+//    page로 조회하거나, 응답의 pageInfo.nextCursor를 cursor로 넘겨 이어서 조회
     @GetMapping("/my/rooms")
     public ResponseEntity<?> getMyChatRooms(
             @RequestParam(required = false) String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        System.out.println("=== ChatController: 내 채팅방 목록 요청 ===");
-        System.out.println("요청 파라미터 - 검색어: '" + keyword + "', 페이지: " + page + ", 크기: " + size);
-        
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        logger.debug("내 채팅방 목록 요청 - keyword: '{}', page: {}, size: {}, cursor: {}", keyword, page, size, cursor);
+
         // 페이지 크기 제한
         if (size > 50) {
             size = 50;
         }
-        
+
         // 페이지네이션 버전 호출
-        Map<String, Object> result = chatService.searchMyChatRoomsWithPaging(keyword, page, size);
-        System.out.println("응답 결과 - 채팅방 수: " + ((List<?>)result.get("rooms")).size());
-        
+        Map<String, Object> result = chatService.searchMyChatRoomsWithPaging(keyword, page, size, cursor);
+        logger.debug("내 채팅방 목록 응답 - 채팅방 수: {}", ((List<?>) result.get("rooms")).size());
+
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
 
@@ -1,26 +1,48 @@
 package com.example.backend.chat.controller;
 
 import com.example.backend.chat.dto.ChatMessageDto;
+import com.example.backend.chat.dto.ChatSendAckDto;
+import com.example.backend.chat.dto.ChatSendRejectedDto;
+import com.example.backend.chat.service.ChatHistoryCacheService;
+import com.example.backend.chat.service.ChatMessageRouter;
+import com.example.backend.chat.service.ChatSendDeduplicator;
 import com.example.backend.chat.service.ChatService;
-import com.example.backend.chat.service.RedisPubSubService;
+import com.example.backend.common.config.websocket.ChatSessionPrincipal;
+import com.example.backend.common.exception.ChatBackpressureException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Controller;
 
-import java.nio.charset.StandardCharsets;
 
 @Controller
 public class StompController {
 
+    private static final Logger logger = LoggerFactory.getLogger(StompController.class);
+    private static final String ERROR_QUEUE = "/queue/errors";
+    private static final String PERSISTENCE_BUSY = "PERSISTENCE_BUSY";
+    // 저장 대기열이 가득 찼을 때 다시 보내도록 안내하는 시간 (배치 저장 몇 번이면 비워지는 정도)
+    private static final long BACKPRESSURE_RETRY_AFTER_MS = 1000;
+
     private final ChatService chatService;
-    private final RedisPubSubService pubSubService;
+    private final ChatMessageRouter messageRouter;
+    private final ChatHistoryCacheService historyCacheService;
+    private final ChatSendDeduplicator sendDeduplicator;
+    private final SimpMessageSendingOperations messageTemplate;
     private final ObjectMapper objectMapper;
 
-    public StompController(ChatService chatService, RedisPubSubService pubSubService, ObjectMapper objectMapper) {
+    public StompController(ChatService chatService, ChatMessageRouter messageRouter,
+                           ChatHistoryCacheService historyCacheService, ChatSendDeduplicator sendDeduplicator,
+                           SimpMessageSendingOperations messageTemplate, ObjectMapper objectMapper) {
         this.chatService = chatService;
-        this.pubSubService = pubSubService;
+        this.messageRouter = messageRouter;
+        this.historyCacheService = historyCacheService;
+        this.sendDeduplicator = sendDeduplicator;
+        this.messageTemplate = messageTemplate;
         this.objectMapper = objectMapper;
     }
 ////    방법1.MessageMapping(수신)과 SenTo(topic에 메시지전달)한꺼번에 처리
@@ -44,52 +66,80 @@ public class StompController {
 //         pubSubService.publish("chat", message);
 //     }
 
+    /**
+     * 발신자는 클라이언트가 보낸 senderEmail이 아니라 CONNECT 때 인증된 세션 principal로 정한다.
+     * clientMessageId가 있으면 DB 작업 전에 중복 전송을 걸러내고, 처리 결과를 /user/queue/ack로 보낸다.
+     * (중복 전송은 저장/전달 없이 처음 처리한 결과로만 응답)
+     * write-behind 저장 대기열이 가득 차서 거절되면 /user/queue/errors 로 PERSISTENCE_BUSY를 보내 다시 보내게 한다.
+     */
     @MessageMapping("/{roomId}")
-    public void sendMessage(@DestinationVariable Long roomId, ChatMessageDto chatMessageReqDto) throws JsonProcessingException {
+    public void sendMessage(@DestinationVariable Long roomId, ChatMessageDto chatMessageReqDto, ChatSessionPrincipal principal) throws JsonProcessingException {
         try {
-            System.out.println("📩 메시지 수신: " + chatMessageReqDto);
-            
-            // 메시지 내용을 UTF-8로 명시적 변환하여 인코딩 문제 확인
-            String originalMessage = chatMessageReqDto.getMessage();
-            byte[] messageBytes = originalMessage != null ? originalMessage.getBytes(StandardCharsets.UTF_8) : new byte[0];
-            String utf8Message = new String(messageBytes, StandardCharsets.UTF_8);
-            System.out.println("🔤 원본 메시지: " + originalMessage);
-            System.out.println("🔤 UTF-8 인코딩 메시지: " + utf8Message);
-            
-            // UTF-8로 인코딩된 메시지로 교체
-            chatMessageReqDto.setMessage(utf8Message);
-
             if (roomId == null) {
                 throw new IllegalArgumentException("🚨 roomId가 null입니다!");
             }
             if (chatMessageReqDto == null || chatMessageReqDto.getMessage() == null) {
                 throw new IllegalArgumentException("🚨 메시지가 null입니다!");
             }
-
-            // 이메일 형식이 올바른지 확인하고 필요한 경우 수정
-            String email = chatMessageReqDto.getSenderEmail();
-            if (email != null) {
-                // oauth.user 접미사가 있는 경우 제거
-                if (email.contains("@oauth.user")) {
-                    email = email.replace("@oauth.user", "");
-                    chatMessageReqDto.setSenderEmail(email);
-                }
-                
-                System.out.println("🔄 메시지 발신자 이메일 확인: " + email);
+            if (principal == null) {
+                throw new IllegalStateException("🚨 인증되지 않은 STOMP 세션입니다!");
             }
 
-            chatService.saveMessage(roomId, chatMessageReqDto);
+            chatMessageReqDto.setSenderEmail(principal.email());
+            String clientMessageId = chatMessageReqDto.getClientMessageId();
+            ChatSendDeduplicator.Claim claim = sendDeduplicator.claim(principal.userId(), clientMessageId);
+            if (claim.duplicate()) {
+                sendAck(principal, roomId, clientMessageId, claim.messageId(), claim.seq(), true);
+                return;
+            }
+            try {
+                chatService.saveMessage(roomId, principal.userId(), chatMessageReqDto);
+            } catch (ChatBackpressureException e) {
+                sendDeduplicator.release(principal.userId(), clientMessageId);
+                sendBusy(principal, roomId, clientMessageId);
+                return;
+            } catch (RuntimeException e) {
+//                저장하지 못했으면 같은 id로 다시 보낼 수 있게 풀어준다
+                sendDeduplicator.release(principal.userId(), clientMessageId);
+                throw e;
+            }
+            sendDeduplicator.complete(principal.userId(), clientMessageId, chatMessageReqDto.getMessageId(), chatMessageReqDto.getSeq());
             chatMessageReqDto.setRoomId(roomId);
 
-            // ObjectMapper에 UTF-8 설정 적용하여 인코딩 문제 해결
-            objectMapper.getFactory().setCharacterEscapes(null);
-            String message = objectMapper.writeValueAsString(chatMessageReqDto);
-            System.out.println("📤 발송할 JSON 메시지: " + message);
-            pubSubService.publish("chat", message);
+            // 여기서 한 번만 UTF-8 JSON 바이트로 직렬화하고, 모든 노드가 이 바이트를 그대로 STOMP 본문으로 보낸다
+            byte[] message = objectMapper.writeValueAsBytes(chatMessageReqDto);
+            messageRouter.route(roomId, message);
+            historyCacheService.append(roomId, message);
+            if (clientMessageId != null) {
+                sendAck(principal, roomId, clientMessageId, chatMessageReqDto.getMessageId(), chatMessageReqDto.getSeq(), false);
+            }
         } catch (Exception e) {
-            System.out.println("🔥 STOMP 메시지 처리 중 오류 발생: " + e.getMessage());
-            e.printStackTrace(); // 자세한 오류 스택 추적 출력
+            logger.error("STOMP 메시지 처리 중 오류 발생 (roomId={})", roomId, e);
         }
     }
 
+//    저장 대기열이 가득 차서 버린 메시지를 보낸 사용자에게 알린다 (/user/queue/errors 구독)
+    private void sendBusy(ChatSessionPrincipal principal, Long roomId, String clientMessageId) {
+        logger.warn("저장 대기열이 가득 차서 메시지를 거절했습니다 (roomId={}, userId={})", roomId, principal.userId());
+        ChatSendRejectedDto rejected = ChatSendRejectedDto.builder()
+                .code(PERSISTENCE_BUSY)
+                .roomId(roomId)
+                .retryAfterMs(BACKPRESSURE_RETRY_AFTER_MS)
+                .clientMessageId(clientMessageId)
+                .build();
+        messageTemplate.convertAndSendToUser(principal.getName(), ERROR_QUEUE, rejected);
+    }
+
+//    보낸 세션의 사용자에게만 전송 확인 응답 (/user/queue/ack 구독)
+    private void sendAck(ChatSessionPrincipal principal, Long roomId, String clientMessageId,
+                         Long messageId, Long seq, boolean duplicate) {
+        ChatSendAckDto ack = ChatSendAckDto.builder()
+                .clientMessageId(clientMessageId)
+                .roomId(roomId)
+                .messageId(messageId)
+                .seq(seq)
+                .duplicate(duplicate)
+                .build();
+        messageTemplate.convertAndSendToUser(principal.getName(), "/queue/ack", ack);
+    }
 }
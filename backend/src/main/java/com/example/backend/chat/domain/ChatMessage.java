@@ -7,18 +7,22 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// 채팅방별 이전 메시지 조회(seq < ? ORDER BY seq DESC), 순번 재조회(seq > ? ORDER BY seq), 안 읽은 수 계산(seq > ?)은
+// 모두 (chat_room_id, seq) unique 인덱스 하나로 처리한다. (chat_room_id 외래 키 인덱스도 겸함)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_chat_message_room_seq", columnNames = {"chat_room_id", "seq"}))
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Getter
-public class ChatMessage extends BaseTimeEntity {
+public class ChatMessage extends BaseTimeEntity implements Persistable<Long> {
+    // ChatMessageIdAllocator가 발급 (저장 모드와 관계없이 모든 노드가 같은 id 공간을 쓴다)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,7 +36,16 @@ public class ChatMessage extends BaseTimeEntity {
     @Column(nullable = false, length = 500)
     private String content;
 
+    // 채팅방 안 메시지 순번 (ChatRoomSequenceService가 발급, 기존 메시지는 마이그레이션으로 채움)
+    private Long seq;
+
     @OneToMany(mappedBy = "chatMessage", cascade = CascadeType.REMOVE, orphanRemoval = true)
     @Builder.Default
     private List<ReadStatus> readStatuses = new ArrayList<>();
+
+    // id를 직접 정하므로 save()가 merge(SELECT)로 가지 않도록 아직 저장되지 않은 엔티티는 새 엔티티로 본다
+    @Override
+    public boolean isNew() {
+        return getCreatedTime() == null;
+    }
 }
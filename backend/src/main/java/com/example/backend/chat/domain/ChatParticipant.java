@@ -27,5 +27,10 @@ public class ChatParticipant  extends BaseTimeEntity {
     @JoinColumn(name = "member_id", nullable = false)
     private UserEntity member;
 
+    // 이전 읽음 커서 (메시지 id 기준) - lastReadSeq 마이그레이션 원본으로만 남겨둔다
+    private Long lastReadMessageId;
 
+    // 읽음 커서 : 이 순번(seq) 이하의 메시지는 모두 읽은 것으로 본다 (null이면 아직 마이그레이션되지 않은 참여자)
+    // 메시지 id는 노드별 블록으로 발급되어 시간 순서가 아니므로 채팅방 순번을 기준으로 한다
+    private Long lastReadSeq;
 }
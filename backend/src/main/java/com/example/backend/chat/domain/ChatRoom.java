@@ -6,7 +6,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +17,11 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Getter
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_chat_room_private_pair", columnNames = "private_pair_key"),
+        indexes = {
+                @Index(name = "idx_chat_room_group_activity", columnList = "is_group_chat, last_activity_at"),
+                @Index(name = "idx_chat_room_group_size", columnList = "is_group_chat, participant_count")
+        })
 public class ChatRoom  extends BaseTimeEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +30,16 @@ public class ChatRoom  extends BaseTimeEntity {
     private String name;
     @Builder.Default
     private String isGroupChat="N";
+    // 1:1 채팅방의 두 사용자 키 "작은id:큰id" (그룹 채팅방은 null), 같은 두 사람의 1:1 채팅방이 두 개 생기지 않도록 unique
+    @Column(name = "private_pair_key", length = 41)
+    private String privatePairKey;
+    // 참여자 수 (참여/나가기 때 UPDATE 한 번으로 증감, 목록 정렬과 빈 방 확인에 사용)
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private int participantCount = 0;
+    // 마지막 활동 시각 (메시지 전송 시 갱신, 목록 정렬에 사용)
+    private LocalDateTime lastActivityAt;
 
     @OneToMany(mappedBy = "chatRoom", cascade = CascadeType.REMOVE)
     @Builder.Default
@@ -31,4 +48,8 @@ public class ChatRoom  extends BaseTimeEntity {
     @OneToMany(mappedBy = "chatRoom", cascade = CascadeType.REMOVE, orphanRemoval = true)
     @Builder.Default
     private List<ChatMessage> chatMessages = new ArrayList<>();
+
+    public static String privatePairKey(Long userId, Long otherUserId) {
+        return Math.min(userId, otherUserId) + ":" + Math.max(userId, otherUserId);
+    }
 }
@@ -8,6 +8,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+// 메시지별 읽음 여부 (레거시)
+// 새 메시지는 ChatParticipant.lastReadSeq 읽음 커서로 관리하고, 이 테이블은 기존 데이터 이관용으로만 남겨둔다.
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,18 @@
+package com.example.backend.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChatHistoryResDto {
+    private List<ChatMessageDto> messages; // 오래된 순으로 정렬된 메시지
+    private Long nextCursor; // 더 이전 메시지를 조회할 때 before로 넘길 값 (없으면 null)
+    private boolean hasNext; // 더 이전 메시지 존재 여부
+}
@@ -21,10 +21,14 @@ public class ChatMessageDto {
     }
 
     private MessageType type; // 메시지 타입
+    private Long messageId; // 메시지 id (이전 메시지 조회 커서로 사용)
+    private Long seq; // 채팅방 안 메시지 순번 (건너뛴 값이 보이면 /chat/room/{roomId}/since/{seq}로 빠진 구간을 조회)
     private Long roomId; // 방 번호
+    private String clientMessageId; // 클라이언트가 붙인 전송 id (같은 id의 재전송은 한 번만 처리, /user/queue/ack로 확인 응답)
     private String senderEmail; // 메시지 보낸사람 이메일
     private String message; // 메시지
     private String updateTime; // 메시지 발송 시간
+    private String streamId; // 재전송 응답의 스트림 id (실시간 메시지는 stream-id 헤더로 전달)
 
     /* 파일 업로드 관련 변수 */
     private String s3DataUrl; // 파일 링크
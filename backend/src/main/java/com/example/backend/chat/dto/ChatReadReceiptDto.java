@@ -0,0 +1,16 @@
+package com.example.backend.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChatReadReceiptDto {
+    private Long roomId; // 방 번호
+    private Long userId; // 읽은 사용자 id
+    private Long lastReadSeq; // 이 순번(seq)의 메시지까지 읽음
+}
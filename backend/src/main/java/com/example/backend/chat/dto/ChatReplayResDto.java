@@ -0,0 +1,19 @@
+package com.example.backend.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChatReplayResDto {
+    private List<ChatMessageDto> messages; // after 이후 메시지 (스트림 순서, 각 메시지의 streamId 포함)
+    private String lastStreamId; // 다음 재전송 요청 시 after로 넘길 값 (메시지가 없으면 요청한 after 그대로)
+    private boolean hasMore; // limit 때문에 잘린 경우 true
+    private boolean truncated; // after 이후 일부가 이미 스트림에서 잘려나간 경우 true → 이전 메시지 조회 API로 보완해야 함
+}
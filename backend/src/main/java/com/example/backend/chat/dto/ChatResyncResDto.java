@@ -0,0 +1,18 @@
+package com.example.backend.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChatResyncResDto {
+    private List<ChatMessageDto> messages; // 요청한 seq 이후 메시지 (순번 순)
+    private Long lastSeq; // 다음 요청 시 넘길 값 (메시지가 없으면 요청한 seq 그대로)
+    private boolean hasMore; // limit 때문에 잘린 경우 true
+}
@@ -13,4 +13,6 @@ import lombok.NoArgsConstructor;
 public class ChatRoomListResDto {
     private Long roomId;
     private String roomName;
+    private int participantCount; // 참여자 수
+    private String lastActivityAt; // 마지막 활동 시각
 }
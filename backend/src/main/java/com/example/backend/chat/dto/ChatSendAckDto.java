@@ -0,0 +1,18 @@
+package com.example.backend.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChatSendAckDto {
+    private String clientMessageId; // 클라이언트가 전송 시 붙인 id
+    private Long roomId; // 방 번호
+    private Long messageId; // 저장된 메시지 id (중복 전송이 아직 처리 중이면 null)
+    private Long seq; // 채팅방 안 메시지 순번 (중복 전송이 아직 처리 중이면 null)
+    private boolean duplicate; // 이미 처리한 전송이라 저장/전달하지 않은 경우 true
+}
@@ -0,0 +1,19 @@
+package com.example.backend.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChatSendRejectedDto {
+    private String code; // 거부 사유 (RATE_LIMITED | PERSISTENCE_BUSY)
+    private String scope; // 초과한 제한 (user | room, PERSISTENCE_BUSY는 null)
+    private Long roomId; // 방 번호
+    private long retryAfterMs; // 다시 보낼 수 있을 때까지 남은 시간
+    private String receiptId; // SEND 프레임의 receipt 헤더 (없으면 null)
+    private String clientMessageId; // 거부된 메시지의 clientMessageId (없으면 null)
+}
@@ -14,4 +14,5 @@ public class MyChatListResDto {
     private String roomName;
     private String isGroupChat;
     private Long unReadCount;
+    private String lastMessageTime; // 마지막 메시지 시각 (메시지가 없으면 채팅방 생성 시각)
 }
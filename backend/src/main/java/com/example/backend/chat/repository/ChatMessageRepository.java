@@ -2,12 +2,42 @@ package com.example.backend.chat.repository;
 
 import com.example.backend.chat.domain.ChatMessage;
 import com.example.backend.chat.domain.ChatRoom;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-    List<ChatMessage> findByChatRoomOrderByCreatedTimeAsc(ChatRoom chatRoom);
+    List<ChatMessage> findByChatRoomOrderBySeqAsc(ChatRoom chatRoom);
+
+    // 순번 before 이전 메시지를 최신순으로 조회 (보낸사람 fetch join, (chat_room_id, seq) unique 인덱스 seek)
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.member WHERE m.chatRoom.id = :roomId AND m.seq < :before ORDER BY m.seq DESC")
+    List<ChatMessage> findPageBefore(@Param("roomId") Long roomId, @Param("before") Long before, Pageable pageable);
+
+    @Query("SELECT MAX(m.id) FROM ChatMessage m")
+    Long findMaxId();
+
+    // seq 이후 메시지를 순번 순으로 조회 (보낸사람 fetch join, (chat_room_id, seq) unique 인덱스 seek)
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.member WHERE m.chatRoom.id = :roomId AND m.seq > :seq ORDER BY m.seq ASC")
+    List<ChatMessage> findPageAfterSeq(@Param("roomId") Long roomId, @Param("seq") Long seq, Pageable pageable);
+
+    // 순번 발급 시작점 : 저장된 최대 순번 + 아직 순번이 없는 기존 메시지 수 (마이그레이션이 1부터 채울 자리를 남긴다)
+    @Query("SELECT COALESCE(MAX(m.seq), 0) + COALESCE(SUM(CASE WHEN m.seq IS NULL THEN 1 ELSE 0 END), 0) FROM ChatMessage m WHERE m.chatRoom.id = :roomId")
+    long findSequenceFloor(@Param("roomId") Long roomId);
+
+    // 순번이 없는 기존 메시지에 채팅방별로 id 순서대로 1부터 순번을 채운다 (MySQL 8 window 함수)
+    @Modifying
+    @Query(value = "UPDATE chat_message m JOIN (" +
+            "SELECT id, ROW_NUMBER() OVER (PARTITION BY chat_room_id ORDER BY id) AS rn FROM chat_message WHERE seq IS NULL" +
+            ") r ON m.id = r.id SET m.seq = r.rn", nativeQuery = true)
+    int backfillSequences();
+
+    // 채팅방의 저장된 마지막 메시지 순번 (메시지가 없으면 null)
+    @Query("SELECT MAX(m.seq) FROM ChatMessage m WHERE m.chatRoom.id = :roomId")
+    Long findLatestSeq(@Param("roomId") Long roomId);
 }
@@ -3,20 +3,122 @@ package com.example.backend.chat.repository;
 import com.example.backend.chat.domain.ChatParticipant;
 import com.example.backend.chat.domain.ChatRoom;
 import com.example.backend.security.entity.UserEntity;
-import io.lettuce.core.dynamic.annotation.Param;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ChatParticipantRepository extends JpaRepository<ChatParticipant, Long> {
+
+    /**
+     * 내 채팅방 목록 한 줄 (채팅방 + 내 읽음 커서 + 마지막 활동 시각)
+     */
+    interface MyChatRoomRow {
+        Long getRoomId();
+        String getRoomName();
+        String getIsGroupChat();
+        LocalDateTime getLastActivityAt(); // 마지막 메시지 시각 (메시지가 없으면 채팅방 생성 시각)
+        Long getLastReadSeq();
+        Long getTotalCount(); // 페이지를 나누기 전 전체 줄 수 (COUNT(*) OVER())
+    }
+
     List<ChatParticipant> findByChatRoom(ChatRoom chatRoom);
     Optional<ChatParticipant> findByChatRoomAndMember(ChatRoom chatRoom, UserEntity member);
     List<ChatParticipant> findAllByMember(UserEntity member);
+    boolean existsByChatRoom_IdAndMember_Id(Long roomId, Long memberId);
+
+    @Query("SELECT cp.member.id FROM ChatParticipant cp WHERE cp.chatRoom.id = :roomId")
+    List<Long> findMemberIdsByChatRoomId(@Param("roomId") Long roomId);
+
+    /**
+     * 안 읽은 메시지 수 재계산용 : 참여자 id 순으로 [참여자 id, 사용자 id, 채팅방 id] 조회
+     */
+    @Query("SELECT cp.id, cp.member.id, cp.chatRoom.id FROM ChatParticipant cp WHERE cp.id > :afterId ORDER BY cp.id")
+    List<Object[]> findParticipantKeysAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 안 읽은 메시지 수 재계산용 : 참여자별 [참여자 id, 안 읽은 메시지 수] 조회
+     */
+    @Query("SELECT cp.id, " +
+            "(SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom.id = cp.chatRoom.id AND m.seq > COALESCE(cp.lastReadSeq, 0)) " +
+            "FROM ChatParticipant cp WHERE cp.id IN :ids")
+    List<Object[]> findUnreadCountsByIds(@Param("ids") List<Long> ids);
+
+    // 내 채팅방 목록 조회 공통 FROM 절 (참여자 행에서 시작해서 채팅방과 마지막 메시지 시각을 붙인다)
+    String MY_CHAT_ROOMS_FROM =
+            "FROM (SELECT r.id AS room_id, r.name AS room_name, r.is_group_chat AS is_group_chat, " +
+            "  COALESCE(r.last_activity_at, r.created_time) AS last_activity_at, " +
+            "  cp.last_read_seq AS last_read_seq " +
+            "  FROM chat_participant cp JOIN chat_room r ON r.id = cp.chat_room_id " +
+            "  WHERE cp.member_id = :memberId AND (:namePattern IS NULL OR r.name LIKE :namePattern)) rooms ";
+
+    /**
+     * 내 채팅방 목록을 최근 활동 순으로 한 번에 조회 (이름 검색, 페이지/keyset 커서 모두 SQL에서 처리)
+     * @param namePattern LIKE 패턴 (null이면 전체)
+     * @param cursorAt 이전 페이지 마지막 줄의 마지막 활동 시각 (null이면 처음부터)
+     * @param cursorId 이전 페이지 마지막 줄의 채팅방 id
+     */
+    @Query(value = "SELECT rooms.room_id AS roomId, rooms.room_name AS roomName, rooms.is_group_chat AS isGroupChat, " +
+            "rooms.last_activity_at AS lastActivityAt, rooms.last_read_seq AS lastReadSeq, COUNT(*) OVER() AS totalCount " +
+            MY_CHAT_ROOMS_FROM +
+            "WHERE (:cursorAt IS NULL OR rooms.last_activity_at < :cursorAt " +
+            "  OR (rooms.last_activity_at = :cursorAt AND rooms.room_id < :cursorId)) " +
+            "ORDER BY rooms.last_activity_at DESC, rooms.room_id DESC " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<MyChatRoomRow> findMyChatRooms(@Param("memberId") Long memberId,
+                                        @Param("namePattern") String namePattern,
+                                        @Param("cursorAt") LocalDateTime cursorAt,
+                                        @Param("cursorId") Long cursorId,
+                                        @Param("limit") int limit,
+                                        @Param("offset") int offset);
+
+    /**
+     * 여러 채팅방의 내 읽음 커서 이후 메시지 수를 한 번에 조회 : [채팅방 id, 안 읽은 메시지 수]
+     */
+    @Query("SELECT cp.chatRoom.id, COUNT(m) FROM ChatParticipant cp " +
+            "LEFT JOIN ChatMessage m ON m.chatRoom.id = cp.chatRoom.id AND m.seq > COALESCE(cp.lastReadSeq, 0) " +
+            "WHERE cp.member.id = :memberId AND cp.chatRoom.id IN :roomIds GROUP BY cp.chatRoom.id")
+    List<Object[]> countUnreadByRooms(@Param("memberId") Long memberId, @Param("roomIds") List<Long> roomIds);
+
+    /**
+     * 읽음 커서를 앞으로만 이동시킨다 (동시에 들어온 요청이 커서를 되돌리지 않도록 조건부 UPDATE)
+     */
+    @Modifying
+    @Query("UPDATE ChatParticipant cp SET cp.lastReadSeq = :seq " +
+            "WHERE cp.chatRoom.id = :roomId AND cp.member.id = :memberId " +
+            "AND (cp.lastReadSeq IS NULL OR cp.lastReadSeq < :seq)")
+    int advanceReadCursor(@Param("roomId") Long roomId, @Param("memberId") Long memberId, @Param("seq") Long seq);
+
+    /**
+     * 기존 ReadStatus 데이터를 읽음 커서로 옮긴다.
+     * - 첫 번째 안 읽은 메시지 직전까지를 읽은 것으로 보고, 안 읽은 메시지가 없으면 방의 마지막 메시지까지 읽은 것으로 본다.
+     * - 커서가 이미 있는 참여자는 건드리지 않으므로 여러 번 실행해도 안전하다.
+     */
+    @Modifying
+    @Query(value = "UPDATE chat_participant cp SET cp.last_read_message_id = COALESCE(" +
+            "(SELECT MIN(rs.chat_message_id) - 1 FROM read_status rs " +
+            "  WHERE rs.chat_room_id = cp.chat_room_id AND rs.member_id = cp.member_id AND rs.is_read = false), " +
+            "(SELECT MAX(m.id) FROM chat_message m WHERE m.chat_room_id = cp.chat_room_id), " +
+            "0) " +
+            "WHERE cp.last_read_message_id IS NULL", nativeQuery = true)
+    int migrateReadStatusToCursors();
 
-    @Query("SELECT cp1.chatRoom FROM ChatParticipant cp1 JOIN ChatParticipant cp2 ON cp1.chatRoom.id = cp2.chatRoom.id WHERE cp1.member.id = :myId AND cp2.member.id = :otherMemberId AND cp1.chatRoom.isGroupChat = 'N'")
-    Optional<ChatRoom> findExistingPrivateRoom(@Param("myId") Long myId, @Param("otherMemberId") Long otherMemberId);
+    /**
+     * 메시지 id 기준 읽음 커서를 순번 기준으로 옮긴다. (메시지 순번을 채운 뒤 실행)
+     * - 기존 메시지 id는 DB가 순서대로 발급했으므로 커서 id 이하 메시지의 최대 순번이 곧 읽은 위치다.
+     * - 순번 커서가 이미 있는 참여자는 건드리지 않는다.
+     */
+    @Modifying
+    @Query(value = "UPDATE chat_participant cp SET cp.last_read_seq = COALESCE(" +
+            "(SELECT MAX(m.seq) FROM chat_message m WHERE m.chat_room_id = cp.chat_room_id AND m.id <= cp.last_read_message_id), " +
+            "0) " +
+            "WHERE cp.last_read_seq IS NULL AND cp.last_read_message_id IS NOT NULL", nativeQuery = true)
+    int migrateCursorsToSequences();
 }
@@ -4,9 +4,14 @@ import com.example.backend.chat.domain.ChatRoom;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
@@ -16,4 +21,50 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     
     // 그룹 채팅방 중 이름으로 검색
     Page<ChatRoom> findByIsGroupChatAndNameContainingIgnoreCase(String isGroupChat, String keyword, Pageable pageable);
+
+    // 참여자 수 증감 (동시에 참여/나가기가 일어나도 잃어버리는 갱신이 없도록 DB에서 더한다)
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.participantCount = r.participantCount + :delta WHERE r.id = :roomId")
+    int addParticipantCount(@Param("roomId") Long roomId, @Param("delta") int delta);
+
+    @Query("SELECT r.participantCount FROM ChatRoom r WHERE r.id = :roomId")
+    Integer findParticipantCount(@Param("roomId") Long roomId);
+
+    // 마지막 활동 시각은 앞으로만 이동
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.lastActivityAt = :at WHERE r.id = :roomId AND (r.lastActivityAt IS NULL OR r.lastActivityAt < :at)")
+    int touchLastActivity(@Param("roomId") Long roomId, @Param("at") LocalDateTime at);
+
+    /**
+     * 기존 채팅방의 참여자 수와 마지막 활동 시각을 채운다. (마지막 활동 시각이 없는 방만 대상이라 여러 번 실행해도 안전하다)
+     */
+    @Modifying
+    @Query(value = "UPDATE chat_room r SET " +
+            "r.participant_count = (SELECT COUNT(*) FROM chat_participant cp WHERE cp.chat_room_id = r.id), " +
+            "r.last_activity_at = COALESCE((SELECT MAX(m.created_time) FROM chat_message m WHERE m.chat_room_id = r.id), r.created_time) " +
+            "WHERE r.last_activity_at IS NULL", nativeQuery = true)
+    int backfillRoomStats();
+
+    // 두 사용자의 1:1 채팅방 id (uk_chat_room_private_pair 인덱스 조회)
+    @Query("SELECT r.id FROM ChatRoom r WHERE r.privatePairKey = :pairKey")
+    Optional<Long> findIdByPrivatePairKey(@Param("pairKey") String pairKey);
+
+    /**
+     * 기존 1:1 채팅방에 사용자 쌍 키를 채운다.
+     * - 참여자가 정확히 두 명인 1:1 채팅방만 대상이며, 같은 쌍의 방이 여러 개면 가장 먼저 만들어진 방에만 키를 준다.
+     * - 이미 키가 있는 쌍과 방은 건드리지 않으므로 여러 번 실행해도 안전하다.
+     */
+    @Modifying
+    @Query(value = "UPDATE chat_room r JOIN (" +
+            "  SELECT MIN(pairs.room_id) AS room_id, pairs.pair_key FROM (" +
+            "    SELECT cp.chat_room_id AS room_id, CONCAT(MIN(cp.member_id), ':', MAX(cp.member_id)) AS pair_key " +
+            "    FROM chat_participant cp GROUP BY cp.chat_room_id HAVING COUNT(*) = 2" +
+            "  ) pairs GROUP BY pairs.pair_key" +
+            ") canonical ON r.id = canonical.room_id " +
+            "SET r.private_pair_key = canonical.pair_key " +
+            "WHERE r.is_group_chat = 'N' AND r.private_pair_key IS NULL " +
+            "AND canonical.pair_key NOT IN (" +
+            "  SELECT existing.private_pair_key FROM (SELECT private_pair_key FROM chat_room WHERE private_pair_key IS NOT NULL) existing" +
+            ")", nativeQuery = true)
+    int backfillPrivatePairKeys();
 }
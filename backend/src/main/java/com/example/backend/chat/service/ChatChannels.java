@@ -0,0 +1,99 @@
+package com.example.backend.chat.service;
+
+/**
+ * 채팅 관련 Redis 채널 / STOMP 목적지 이름 규칙
+ * - Redis 채널 : chat:room:{roomId}, 읽음 알림 chat:room:{roomId}:receipts (둘 다 채팅방 구독자가 있는 노드만 구독)
+ * - STOMP 목적지 : /topic/{roomId} (메시지 한 건씩), /topic/{roomId}/batch (메시지 배열, 묶음 수신을 고른 클라이언트),
+ *   읽음 알림 /topic/{roomId}/receipts
+ */
+public final class ChatChannels {
+
+    public static final String ROOM_CHANNEL_PREFIX = "chat:room:";
+    public static final String TOPIC_PREFIX = "/topic/";
+    public static final String RECEIPT_CHANNEL_SUFFIX = ":receipts";
+
+    private ChatChannels() {
+    }
+
+    public static String roomChannel(Long roomId) {
+        return ROOM_CHANNEL_PREFIX + roomId;
+    }
+
+    public static String roomReceiptChannel(Long roomId) {
+        return ROOM_CHANNEL_PREFIX + roomId + RECEIPT_CHANNEL_SUFFIX;
+    }
+
+    public static String roomTopic(Long roomId) {
+        return TOPIC_PREFIX + roomId;
+    }
+
+    public static String roomBatchTopic(Long roomId) {
+        return TOPIC_PREFIX + roomId + "/batch";
+    }
+
+    public static String roomReceiptTopic(Long roomId) {
+        return TOPIC_PREFIX + roomId + "/receipts";
+    }
+
+    /**
+     * chat:room:{roomId} 채널 이름에서 채팅방 ID 추출 (읽음 알림 채널 등 하위 채널이나 형식이 다르면 null)
+     */
+    public static Long roomIdFromChannel(String channel) {
+        if (channel == null || !channel.startsWith(ROOM_CHANNEL_PREFIX)) {
+            return null;
+        }
+        Long roomId = parseId(channel, ROOM_CHANNEL_PREFIX.length());
+        if (roomId == null || !channel.equals(roomChannel(roomId))) {
+            return null;
+        }
+        return roomId;
+    }
+
+    /**
+     * /topic/{roomId} 또는 /topic/{roomId}/... 목적지에서 채팅방 ID 추출 (형식이 다르면 null)
+     * 채팅방 권한 확인/브로커 레인 선택처럼 하위 경로(읽음 알림 등)도 같은 채팅방으로 볼 때 사용한다.
+     */
+    public static Long roomIdFromDestination(String destination) {
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            return null;
+        }
+        return parseId(destination, TOPIC_PREFIX.length());
+    }
+
+    /**
+     * 채팅 메시지 목적지 /topic/{roomId} 에서만 채팅방 ID 추출 (하위 경로나 형식이 다르면 null)
+     */
+    public static Long roomIdFromRoomTopic(String destination) {
+        Long roomId = roomIdFromDestination(destination);
+        if (roomId == null || !destination.equals(roomTopic(roomId))) {
+            return null;
+        }
+        return roomId;
+    }
+
+    /**
+     * 묶음 메시지 목적지 /topic/{roomId}/batch 에서만 채팅방 ID 추출 (형식이 다르면 null)
+     */
+    public static Long roomIdFromBatchTopic(String destination) {
+        Long roomId = roomIdFromDestination(destination);
+        if (roomId == null || !destination.equals(roomBatchTopic(roomId))) {
+            return null;
+        }
+        return roomId;
+    }
+
+    private static Long parseId(String value, int start) {
+        int end = start;
+        while (end < value.length() && Character.isDigit(value.charAt(end))) {
+            end++;
+        }
+        if (end == start || (end < value.length() && value.charAt(end) != '/' && value.charAt(end) != ':')) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.substring(start, end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
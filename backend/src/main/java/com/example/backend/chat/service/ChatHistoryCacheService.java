@@ -0,0 +1,238 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.dto.ChatMessageDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 채팅방별 최근 메시지(hot tail) Redis 캐시
+ * - 키 chat:room:{roomId}:tail 리스트에 직렬화된 ChatMessageDto를 최신순으로 최대 size개 보관한다.
+ * - 메시지 전송 시 LPUSHX + LTRIM (리스트가 있을 때만 추가, 없으면 다음 조회 때 DB에서 채운다)
+ * - 첫 페이지 조회는 이 리스트에서 응답하고, 더 이전 메시지(before 커서)는 DB에서 조회한다.
+ * - 캐시 채우기는 single-flight : 노드 안에서는 채팅방별로 한 스레드만, 노드 간에는 SET NX 락을 잡은 노드만 DB를 읽는다.
+ * - 채우는 동안 새 메시지가 들어오면(세대 값 변경) 채우기를 포기해서 최신 메시지가 빠진 리스트가 만들어지지 않게 한다.
+ */
+@Service
+public class ChatHistoryCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatHistoryCacheService.class);
+    private static final String KEY_PREFIX = "chat:room:";
+    private static final Duration FILL_LOCK_TTL = Duration.ofSeconds(5);
+    private static final int FILL_WAIT_ATTEMPTS = 5;
+    private static final long FILL_WAIT_MS = 40;
+
+    // 세대 값이 읽은 시점과 같고 리스트가 아직 없을 때만 채운다
+    private static final RedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+            "local gen = redis.call('GET', KEYS[2]) or '' " +
+            "if gen ~= ARGV[1] or redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('RPUSH', KEYS[1], unpack(ARGV, 3)) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int size;
+    private final long ttlSeconds;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    // 노드 안 single-flight : 채팅방별로 진행 중인 채우기
+    private final Map<Long, CompletableFuture<List<ChatMessageDto>>> inflight = new ConcurrentHashMap<>();
+
+    public ChatHistoryCacheService(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${chat.history-cache.enabled:true}") boolean enabled,
+                                   @Value("${chat.history-cache.size:50}") int size,
+                                   @Value("${chat.history-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.size = size;
+        this.ttlSeconds = ttlSeconds;
+        this.hitCounter = Counter.builder("chat.history.cache").tag("result", "hit")
+                .description("첫 페이지 조회가 Redis hot tail에서 응답된 횟수")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("chat.history.cache").tag("result", "miss")
+                .description("첫 페이지 조회가 DB로 간 횟수")
+                .register(meterRegistry);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * limit개짜리 첫 페이지를 캐시로 응답할 수 있는지 (이전 메시지 존재 여부 확인용으로 한 건 더 필요)
+     */
+    public boolean covers(int limit) {
+        return enabled && limit < size;
+    }
+
+    /**
+     * 전송된 메시지를 hot tail에 추가 (실패해도 전송에는 영향 없음, 리스트는 TTL로 다시 채워진다)
+     */
+    public void append(Long roomId, byte[] message) {
+        if (!enabled) {
+            return;
+        }
+        String tailKey = tailKey(roomId);
+        String genKey = genKey(roomId);
+        String value = new String(message, StandardCharsets.UTF_8);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.incr(genKey);
+                redis.expire(genKey, ttlSeconds);
+                redis.lPushX(tailKey, value);
+                redis.lTrim(tailKey, 0, size - 1);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("hot tail 추가 실패 (roomId={}): {}", roomId, e.getMessage());
+        }
+    }
+
+    /**
+     * 최신 메시지부터 최대 count개 조회 - 캐시에 없으면 loader(최신순 최대 size개)로 채운다.
+     * @return 최신순으로 정렬된 메시지
+     */
+    public List<ChatMessageDto> getLatest(Long roomId, int count, Supplier<List<ChatMessageDto>> loader) {
+        List<ChatMessageDto> cached = read(roomId, count);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+
+        CompletableFuture<List<ChatMessageDto>> mine = new CompletableFuture<>();
+        CompletableFuture<List<ChatMessageDto>> running = inflight.putIfAbsent(roomId, mine);
+        if (running != null) {
+            try {
+                return head(running.join(), count);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            List<ChatMessageDto> tail = loadAndFill(roomId, loader);
+            mine.complete(tail);
+            return head(tail, count);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(roomId, mine);
+        }
+    }
+
+    private List<ChatMessageDto> loadAndFill(Long roomId, Supplier<List<ChatMessageDto>> loader) {
+        String lockKey = tailKey(roomId) + ":lock";
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, "1", FILL_LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+//            다른 노드가 채우는 중이면 잠깐 기다렸다가 캐시를 다시 읽고, 그래도 없으면 DB에서 직접 읽는다 (채우지는 않음)
+            for (int i = 0; i < FILL_WAIT_ATTEMPTS; i++) {
+                sleep();
+                List<ChatMessageDto> cached = read(roomId, size);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            return loader.get();
+        }
+        try {
+            String gen = stringRedisTemplate.opsForValue().get(genKey(roomId));
+            List<ChatMessageDto> tail = loader.get();
+            fill(roomId, gen, tail);
+            return tail;
+        } finally {
+            stringRedisTemplate.delete(lockKey);
+        }
+    }
+
+    private void fill(Long roomId, String gen, List<ChatMessageDto> tail) {
+        if (tail.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(tail.size() + 2);
+        args.add(gen != null ? gen : "");
+        args.add(String.valueOf(ttlSeconds));
+        try {
+            for (ChatMessageDto message : tail) {
+                args.add(objectMapper.writeValueAsString(message));
+            }
+            stringRedisTemplate.execute(FILL_SCRIPT, List.of(tailKey(roomId), genKey(roomId)), args.toArray());
+        } catch (Exception e) {
+            logger.warn("hot tail 채우기 실패 (roomId={}): {}", roomId, e.getMessage());
+        }
+    }
+
+    // 리스트가 없으면 null (Redis는 빈 리스트를 저장하지 않으므로 빈 결과 = 캐시 없음)
+    private List<ChatMessageDto> read(Long roomId, int count) {
+        List<String> values;
+        try {
+            values = stringRedisTemplate.opsForList().range(tailKey(roomId), 0, count - 1);
+        } catch (Exception e) {
+            logger.warn("hot tail 조회 실패 (roomId={}): {}", roomId, e.getMessage());
+            return null;
+        }
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        List<ChatMessageDto> messages = new ArrayList<>(values.size());
+        try {
+            for (String value : values) {
+                messages.add(objectMapper.readValue(value, ChatMessageDto.class));
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("hot tail 역직렬화 실패 (roomId={}), 캐시를 비웁니다: {}", roomId, e.getMessage());
+            stringRedisTemplate.delete(tailKey(roomId));
+            return null;
+        }
+        return messages;
+    }
+
+    private static List<ChatMessageDto> head(List<ChatMessageDto> messages, int count) {
+        return messages.size() > count ? messages.subList(0, count) : messages;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(FILL_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String tailKey(Long roomId) {
+        return KEY_PREFIX + roomId + ":tail";
+    }
+
+    private static String genKey(Long roomId) {
+        return KEY_PREFIX + roomId + ":tail:gen";
+    }
+}
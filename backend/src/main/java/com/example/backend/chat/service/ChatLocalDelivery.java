@@ -0,0 +1,215 @@
+package com.example.backend.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이 노드의 채팅방 구독자에게 메시지를 전달하는 단일 경로 (Pub/Sub, Streams 전송 방식 공통)
+ * - 입구(StompController)에서 한 번 만든 JSON 바이트를 그대로 STOMP 프레임 본문으로 보낸다.
+ *   역직렬화/재직렬화 없이 application/json content-type만 붙이므로 메시지 변환기를 거치지 않는다.
+ * - 채팅방 ID는 본문이 아니라 Redis 채널 이름이나 스트림 필드로 전달받는다.
+ * - /topic/{roomId} 구독자는 항상 메시지 한 건(JSON 객체)씩 받는다.
+ * - 묶음 수신은 구독할 때 고른다: /topic/{roomId}/batch 구독자는 항상 JSON 배열 프레임을 받는다.
+ *   chat.delivery.batching.enabled=true 이면 바쁜 채팅방의 메시지를 짧은 창 동안 모아 배열 하나로 보내고,
+ *   꺼져 있거나 조용한 채팅방이면 메시지 한 건짜리 배열을 바로 보낸다.
+ *   창 크기는 채팅방의 초당 메시지 수에 비례한다(hot-rate 이상이면 max-window-ms).
+ *   max-messages 만큼 모이면 창이 끝나기 전에 보낸다. 배열 프레임의 stream-id 헤더는 마지막 메시지의 스트림 id이다.
+ * - 구독자가 없는 목적지로는 보내지 않는다. (ChatRoomSubscriptionRegistry)
+ */
+@Component
+public class ChatLocalDelivery implements DisposableBean {
+
+    public static final String STREAM_ID_HEADER = "stream-id";
+
+    private static final long MIN_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_GAP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // 메시지 간격 이동 평균 가중치 (최근 메시지 비중)
+    private static final double GAP_SMOOTHING = 0.2;
+
+    private final SimpMessageSendingOperations messageTemplate;
+    private final ChatRoomSubscriptionRegistry subscriptionRegistry;
+    private final boolean batching;
+    private final long maxWindowNanos;
+    private final double hotRate;
+    private final int maxMessages;
+    private final ScheduledExecutorService flushScheduler;
+    private final Cache<Long, RoomFrameBuffer> buffers = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    private final Counter singleFrames;
+    private final Counter batchFrames;
+    private final DistributionSummary batchSize;
+
+//    구독 현황은 Redis 리스너 → 이 클래스 → 구독 현황 순환 참조를 피하려고 지연 주입
+    public ChatLocalDelivery(SimpMessageSendingOperations messageTemplate,
+                             @Lazy ChatRoomSubscriptionRegistry subscriptionRegistry,
+                             MeterRegistry meterRegistry,
+                             @Value("${chat.delivery.batching.enabled:false}") boolean batching,
+                             @Value("${chat.delivery.batching.max-window-ms:20}") long maxWindowMs,
+                             @Value("${chat.delivery.batching.hot-rate:500}") double hotRate,
+                             @Value("${chat.delivery.batching.max-messages:64}") int maxMessages) {
+        this.messageTemplate = messageTemplate;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.batching = batching && maxWindowMs > 0;
+        this.maxWindowNanos = TimeUnit.MILLISECONDS.toNanos(maxWindowMs);
+        this.hotRate = hotRate;
+        this.maxMessages = Math.max(1, maxMessages);
+        this.flushScheduler = this.batching ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-frame-batcher");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.singleFrames = Counter.builder("chat.delivery.frames").tag("type", "single")
+                .description("메시지 한 건을 담아 보낸 /topic/{roomId} 프레임 수")
+                .register(meterRegistry);
+        this.batchFrames = Counter.builder("chat.delivery.frames").tag("type", "batch")
+                .description("메시지를 JSON 배열로 묶어 보낸 /topic/{roomId}/batch 프레임 수")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("chat.delivery.batch.size")
+                .description("배열 프레임 하나에 담긴 메시지 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param roomId 채팅방 ID
+     * @param payload 직렬화된 ChatMessageDto (UTF-8 JSON)
+     * @param streamId Redis Streams로 받은 경우 스트림 id - stream-id 헤더로 전달 (클라이언트 재전송 요청에 사용)
+     */
+    public void deliver(Long roomId, byte[] payload, @Nullable String streamId) {
+        if (subscriptionRegistry.hasSingleSubscribers(roomId)) {
+            sendSingle(roomId, payload, streamId);
+        }
+        if (!subscriptionRegistry.hasBatchSubscribers(roomId)) {
+            return;
+        }
+        if (batching) {
+            buffers.get(roomId, RoomFrameBuffer::new).add(payload, streamId);
+        } else {
+            sendBatch(roomId, List.of(payload), streamId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (flushScheduler == null) {
+            return;
+        }
+        flushScheduler.shutdownNow();
+        buffers.asMap().values().forEach(RoomFrameBuffer::flush);
+    }
+
+    private void sendSingle(Long roomId, byte[] payload, @Nullable String streamId) {
+        send(ChatChannels.roomTopic(roomId), payload, streamId);
+        singleFrames.increment();
+    }
+
+    // [payload,payload,...] - 각 payload가 이미 JSON 객체이므로 다시 파싱하지 않고 이어 붙인다
+    private void sendBatch(Long roomId, List<byte[]> payloads, @Nullable String streamId) {
+        int length = payloads.size() + 1;
+        for (byte[] payload : payloads) {
+            length += payload.length;
+        }
+        byte[] frame = new byte[length];
+        int offset = 0;
+        frame[offset++] = '[';
+        for (int i = 0; i < payloads.size(); i++) {
+            if (i > 0) {
+                frame[offset++] = ',';
+            }
+            byte[] payload = payloads.get(i);
+            System.arraycopy(payload, 0, frame, offset, payload.length);
+            offset += payload.length;
+        }
+        frame[offset] = ']';
+        send(ChatChannels.roomBatchTopic(roomId), frame, streamId);
+        batchFrames.increment();
+        batchSize.record(payloads.size());
+    }
+
+    private void send(String destination, byte[] payload, @Nullable String streamId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (streamId != null) {
+            accessor.setNativeHeader(STREAM_ID_HEADER, streamId);
+        }
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+        messageTemplate.send(destination, message);
+    }
+
+    /**
+     * 채팅방별 프레임 묶음 - 대기 중인 메시지가 있으면 새 메시지는 항상 뒤에 붙으므로 채팅방 안 순서가 유지된다.
+     */
+    private final class RoomFrameBuffer {
+
+        private final Long roomId;
+        private final List<byte[]> pending = new ArrayList<>();
+        private String lastStreamId;
+        private long lastArrival;
+        private double averageGapNanos = MAX_GAP_NANOS;
+
+        private RoomFrameBuffer(Long roomId) {
+            this.roomId = roomId;
+        }
+
+        synchronized void add(byte[] payload, @Nullable String streamId) {
+            long now = System.nanoTime();
+            if (lastArrival != 0) {
+                averageGapNanos += (Math.min(now - lastArrival, MAX_GAP_NANOS) - averageGapNanos) * GAP_SMOOTHING;
+            }
+            lastArrival = now;
+
+            if (pending.isEmpty()) {
+                long window = windowNanos();
+                if (window < MIN_WINDOW_NANOS) {
+                    sendBatch(roomId, List.of(payload), streamId);
+                    return;
+                }
+                flushScheduler.schedule(this::flush, window, TimeUnit.NANOSECONDS);
+            }
+            pending.add(payload);
+            lastStreamId = streamId;
+            if (pending.size() >= maxMessages) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                sendBatch(roomId, pending, lastStreamId);
+            } finally {
+                pending.clear();
+            }
+        }
+
+        // 초당 메시지 수에 비례하는 창 (hot-rate 이상이면 max-window)
+        private long windowNanos() {
+            double rate = TimeUnit.SECONDS.toNanos(1) / averageGapNanos;
+            return (long) (maxWindowNanos * Math.min(1.0, rate / hotRate));
+        }
+    }
+}
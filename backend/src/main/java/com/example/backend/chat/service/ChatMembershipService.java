@@ -0,0 +1,138 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.example.backend.security.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * 채팅방 참여 여부 캐시
+ * - (roomId, userId) 키로 참여 여부를 캐시하고, 캐시 미스일 때만 존재 여부 쿼리 한 번으로 확인한다.
+ * - 크기와 TTL이 제한되며, 참여/퇴장 시 Redis Pub/Sub으로 모든 노드의 캐시를 무효화한다.
+ * - 히트/미스 통계는 chat.membership 이름의 캐시 메트릭으로 노출된다.
+ */
+@Service
+public class ChatMembershipService implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMembershipService.class);
+    private static final String INVALIDATION_CHANNEL = "chat:membership:invalidate";
+
+    private final ChatParticipantRepository chatParticipantRepository;
+    private final UserRepository userRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    private final Cache<String, Boolean> memberships;
+    private final Cache<String, Long> userIds;
+
+    public ChatMembershipService(ChatParticipantRepository chatParticipantRepository,
+                                 UserRepository userRepository,
+                                 @Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${chat.membership-cache.maximum-size:100000}") long maximumSize,
+                                 @Value("${chat.membership-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.chatParticipantRepository = chatParticipantRepository;
+        this.userRepository = userRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.meterRegistry = meterRegistry;
+        this.memberships = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        CaffeineCacheMetrics.monitor(meterRegistry, memberships, "chat.membership");
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public boolean isParticipant(Long roomId, Long userId) {
+        if (roomId == null || userId == null) {
+            return false;
+        }
+        return memberships.get(key(roomId, userId),
+                k -> chatParticipantRepository.existsByChatRoom_IdAndMember_Id(roomId, userId));
+    }
+
+    /**
+     * 이메일(STOMP principal)로 참여 여부 확인 - 사용자 id도 캐시해서 캐시 히트 시 DB 조회가 없다.
+     */
+    public boolean isParticipant(String email, Long roomId) {
+        return isParticipant(roomId, findUserId(email));
+    }
+
+    /**
+     * 이메일로 사용자 id 조회 (캐시, 없으면 null)
+     */
+    public Long findUserId(String email) {
+        if (email == null) {
+            return null;
+        }
+        return userIds.get(email, e -> userRepository.findIdByEmail(e).orElse(null));
+    }
+
+    /**
+     * 참여/퇴장 후 호출 - 트랜잭션 커밋 이후 모든 노드에 무효화를 전파한다.
+     */
+    public void evict(Long roomId, Long userId) {
+        String key = key(roomId, userId);
+        memberships.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishInvalidation(key);
+                }
+            });
+        } else {
+            publishInvalidation(key);
+        }
+    }
+
+    private void publishInvalidation(String key) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, key);
+        } catch (Exception e) {
+//            전파에 실패해도 다른 노드는 TTL이 지나면 다시 조회한다
+            logger.warn("참여 캐시 무효화 전파 실패 ({}): {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
+        memberships.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private static String key(Long roomId, Long userId) {
+        return roomId + ":" + userId;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.repository.ChatMessageRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 채팅 메시지 id 발급기 (sync, write-behind 저장 모드 공통)
+ * - DB INSERT 전에 id가 필요하므로 Redis INCRBY로 블록 단위(hi/lo)로 받아와 로컬에서 하나씩 나눠준다.
+ * - 여러 노드가 같은 카운터를 공유하므로 저장 모드가 섞인 클러스터에서도 id가 겹치지 않는다.
+ * - 블록 단위라 노드 간 id는 시간 순서가 아니다. 메시지 순서(이전 메시지 조회, 읽음 커서)는 채팅방 순번(seq)으로 정한다.
+ */
+@Component
+public class ChatMessageIdAllocator {
+
+    private static final String KEY = "chat:message:id";
+
+    // 카운터가 DB의 최대 id보다 작으면 끌어올린다 (Redis 초기화 후 id 충돌 방지)
+    private static final DefaultRedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "if current < tonumber(ARGV[1]) then redis.call('SET', KEYS[1], ARGV[1]) end " +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChatMessageRepository chatMessageRepository;
+    private final int blockSize;
+
+    private long next = 1;
+    private long limit = 0;
+    private boolean seeded;
+
+    public ChatMessageIdAllocator(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                  ChatMessageRepository chatMessageRepository,
+                                  @Value("${chat.message-id.block-size:100}") int blockSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.chatMessageRepository = chatMessageRepository;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Redis 카운터를 DB에 저장된 최대 메시지 id 이상으로 맞춘다.
+     */
+    public void seed() {
+        Long maxId = chatMessageRepository.findMaxId();
+        stringRedisTemplate.execute(SEED_SCRIPT, List.of(KEY), String.valueOf(maxId != null ? maxId : 0L));
+    }
+
+    public synchronized long nextId() {
+        if (next > limit) {
+//            첫 블록을 받기 전에 한 번 카운터를 DB 최대 id 이상으로 맞춘다
+            if (!seeded) {
+                seed();
+                seeded = true;
+            }
+            Long high = stringRedisTemplate.opsForValue().increment(KEY, blockSize);
+            if (high == null) {
+                throw new IllegalStateException("채팅 메시지 id를 발급받지 못했습니다.");
+            }
+            limit = high;
+            next = high - blockSize + 1;
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.common.config.redis.RedisListenerDispatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * 채팅 메시지 전달 경로 선택
+ * - 다른 노드에 구독자가 없는 채팅방(대부분의 1:1 채팅방)은 Redis를 거치지 않고 이 노드의 브로커로 바로 전달한다.
+ *   이때도 Redis 수신 메시지와 같은 채팅방 레인(RedisListenerDispatcher)에서 전달해서, 한 채팅방의 전달은
+ *   경로와 상관없이 한 스레드에서 도착 순서대로 처리되고 보낸 요청(inbound) 스레드가 fan-out을 하지 않는다.
+ *   순번은 여러 inbound 스레드에서 발급되므로 레인 도착 순서가 순번 순서와 다를 수 있고, 클라이언트는 잠깐 기다렸다가 빈 순번을 판단한다.
+ *   레인 큐가 가득 차 넘기지 못하면 버리지 않고 Redis로 중계한다. (보낸 사람에게는 이미 저장 완료를 알렸으므로)
+ * - 그 외에는 ChatMessageTransport(Pub/Sub 또는 Streams)로 중계한다.
+ * - 경로별 메시지 수는 chat.delivery{path=local|relayed}로 노출한다.
+ */
+@Component
+public class ChatMessageRouter {
+
+    private final ChatMessageTransport messageTransport;
+    private final ChatLocalDelivery localDelivery;
+    private final ChatRoomNodeDirectory nodeDirectory;
+    private final RedisListenerDispatcher listenerDispatcher;
+    private final Counter localCounter;
+    private final Counter relayedCounter;
+
+    public ChatMessageRouter(ChatMessageTransport messageTransport,
+                             ChatLocalDelivery localDelivery,
+                             ChatRoomNodeDirectory nodeDirectory,
+                             RedisListenerDispatcher listenerDispatcher,
+                             MeterRegistry meterRegistry) {
+        this.messageTransport = messageTransport;
+        this.localDelivery = localDelivery;
+        this.nodeDirectory = nodeDirectory;
+        this.listenerDispatcher = listenerDispatcher;
+        this.localCounter = Counter.builder("chat.delivery").tag("path", "local")
+                .description("Redis를 거치지 않고 이 노드에서 바로 전달한 채팅 메시지 수")
+                .register(meterRegistry);
+        this.relayedCounter = Counter.builder("chat.delivery").tag("path", "relayed")
+                .description("Redis로 중계한 채팅 메시지 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param message 직렬화된 ChatMessageDto (UTF-8 JSON)
+     */
+    public void route(Long roomId, byte[] message) {
+        if (nodeDirectory.isLocalOnly(roomId)
+                && listenerDispatcher.dispatch(roomId, () -> localDelivery.deliver(roomId, message, null))) {
+            localCounter.increment();
+            return;
+        }
+        messageTransport.publish(roomId, message);
+        relayedCounter.increment();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.dto.ChatReplayResDto;
+
+import java.util.Optional;
+
+/**
+ * 노드 간 채팅 메시지 전달 방식
+ * - pubsub (기본) : Redis Pub/Sub, 발행 시점에 구독 중이 아닌 노드는 메시지를 받지 못한다.
+ * - streams : Redis Streams, 노드별 consumer group으로 재시작 중 쌓인 메시지까지 이어서 받고, 클라이언트 재전송(replay)을 지원한다.
+ * chat.transport 설정으로 선택한다.
+ */
+public interface ChatMessageTransport {
+
+    /**
+     * 채팅방의 모든 노드로 직렬화된 메시지(UTF-8 JSON 바이트) 전달 - 받는 노드는 이 바이트를 그대로 STOMP 본문으로 보낸다
+     */
+    void publish(Long roomId, byte[] message);
+
+    /**
+     * 클라이언트가 마지막으로 받은 스트림 id 이후의 메시지 조회
+     * @param afterStreamId 형식이 검증된 스트림 id ({밀리초}-{순번})
+     * @return 재전송을 지원하지 않는 전송 방식(pubsub)이면 empty
+     */
+    Optional<ChatReplayResDto> replay(Long roomId, String afterStreamId, int limit);
+}
@@ -0,0 +1,297 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.common.exception.ChatBackpressureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 채팅 메시지 write-behind 저장
+ * - chat.persistence.mode=write-behind 일 때 메시지는 id만 발급받고 바로 브로드캐스트되며,
+ *   DB 저장은 제한된 크기의 대기열을 통해 별도 스레드에서 JDBC 배치 INSERT로 처리한다.
+ * - 배치는 batch-size 개가 모이거나 flush-interval-ms 가 지나면 채팅방 순으로 정렬해서 저장한다.
+ * - 대기열이 가득 차면 offer-timeout-ms 만큼 기다린 뒤 ChatBackpressureException으로 거절한다.
+ * - 애플리케이션 종료 시 대기열에 남은 메시지를 모두 저장한 뒤 종료한다.
+ *   enqueue는 읽기 락, 종료는 쓰기 락을 잡으므로 종료가 시작된 뒤에는 대기열에 새 메시지가 들어오지 않는다.
+ *   저장 스레드가 제한 시간 안에 끝나지 않으면 인터럽트하고, 남은 메시지는 종료 스레드에서 직접 저장한다.
+ */
+@Service
+public class ChatMessageWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageWriteBehindService.class);
+
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO chat_message (id, chat_room_id, member_id, seq, content, created_time, updated_time) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String ADVANCE_CURSOR_SQL =
+            "UPDATE chat_participant SET last_read_seq = ? " +
+            "WHERE chat_room_id = ? AND member_id = ? AND (last_read_seq IS NULL OR last_read_seq < ?)";
+
+    /**
+     * 저장 대기 중인 메시지
+     */
+    public record PendingChatMessage(Long id, Long roomId, Long senderId, Long seq, String content, LocalDateTime createdTime) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatMessageIdAllocator idAllocator;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<PendingChatMessage> queue;
+    // roomId -> 아직 DB에 저장되지 않은 메시지 수 (대기열 + 저장 중인 배치)
+    private final ConcurrentHashMap<Long, Integer> pendingByRoom = new ConcurrentHashMap<>();
+
+    private Timer flushTimer;
+    private Counter rejectedCounter;
+    private Counter failedCounter;
+    private Thread writerThread;
+    private volatile boolean running;
+    // enqueue(읽기)와 종료(쓰기) 사이의 경합 방지 - running 확인과 대기열 추가를 한 번에 처리한다
+    private final ReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+
+    public ChatMessageWriteBehindService(JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         ChatMessageIdAllocator idAllocator,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${chat.persistence.mode:sync}") String mode,
+                                         @Value("${chat.persistence.queue-capacity:10000}") int queueCapacity,
+                                         @Value("${chat.persistence.batch-size:200}") int batchSize,
+                                         @Value("${chat.persistence.flush-interval-ms:50}") long flushIntervalMs,
+                                         @Value("${chat.persistence.offer-timeout-ms:100}") long offerTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idAllocator = idAllocator;
+        this.meterRegistry = meterRegistry;
+        this.enabled = "write-behind".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("chat.persistence.queue.depth", queue, Collection::size)
+                .description("DB 저장 대기 중인 채팅 메시지 수")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("chat.persistence.flush")
+                .description("채팅 메시지 배치 저장 소요 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("chat.persistence.rejected")
+                .description("대기열이 가득 차서 거절된 채팅 메시지 수")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("chat.persistence.failed")
+                .description("저장에 실패해 버려진 채팅 메시지 수")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::drainLoop, "chat-write-behind");
+        writerThread.start();
+        logger.info("채팅 메시지 write-behind 저장 시작 (batchSize={}, flushIntervalMs={})", batchSize, flushIntervalMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 채팅방에 아직 DB에 저장되지 않은 메시지가 있는지 (DB 기준 계산이 Redis보다 뒤처져 있는지)
+     */
+    public boolean hasPending(Long roomId) {
+        return pendingByRoom.containsKey(roomId);
+    }
+
+    /**
+     * 메시지 id를 발급하고 저장 대기열에 넣는다.
+     * @return 발급된 메시지
+     */
+    public PendingChatMessage enqueue(Long roomId, Long senderId, Long seq, String content) {
+        lifecycleLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("채팅 메시지 저장이 중지된 상태입니다.");
+            }
+            PendingChatMessage message = new PendingChatMessage(
+                    idAllocator.nextId(), roomId, senderId, seq, content, LocalDateTime.now());
+//            대기열에 들어간 순간부터 저장 대기로 보이도록 먼저 센다
+            pendingByRoom.merge(roomId, 1, Integer::sum);
+            try {
+                if (!queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    releasePending(roomId);
+                    rejectedCounter.increment();
+                    throw new ChatBackpressureException();
+                }
+            } catch (InterruptedException e) {
+                releasePending(roomId);
+                Thread.currentThread().interrupt();
+                throw new ChatBackpressureException("채팅 메시지 저장 대기 중 인터럽트되었습니다.");
+            }
+            return message;
+        } finally {
+            lifecycleLock.readLock().unlock();
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingChatMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingChatMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+//                크기 또는 시간 기준으로 배치를 채운다
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingChatMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flushTimer.record(() -> flush(batch));
+            } catch (InterruptedException e) {
+//                종료 제한 시간이 지나 인터럽트됨 - 모으던 배치만 저장하고 끝낸다 (남은 대기열은 종료 스레드가 저장)
+                if (!batch.isEmpty()) {
+                    flushTimer.record(() -> flush(batch));
+                }
+                return;
+            } catch (Exception e) {
+                logger.error("채팅 메시지 배치 저장 중 오류 발생", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingChatMessage> batch) {
+        List<PendingChatMessage> sorted = new ArrayList<>(batch);
+        sorted.sort(Comparator.comparing(PendingChatMessage::roomId).thenComparing(PendingChatMessage::id));
+        try {
+            persist(sorted);
+        } finally {
+            for (PendingChatMessage message : sorted) {
+                releasePending(message.roomId());
+            }
+        }
+    }
+
+    private void persist(List<PendingChatMessage> sorted) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertMessages(sorted);
+                advanceSenderCursors(sorted);
+            });
+        } catch (Exception e) {
+            logger.warn("배치 저장 실패, 메시지 단위로 재시도합니다: {}", e.getMessage());
+            for (PendingChatMessage message : sorted) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        insertMessages(List.of(message));
+                        advanceSenderCursors(List.of(message));
+                    });
+                } catch (Exception rowError) {
+                    failedCounter.increment();
+                    logger.error("채팅 메시지 저장 실패 (id={}, roomId={}): {}", message.id(), message.roomId(), rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private void releasePending(Long roomId) {
+        pendingByRoom.computeIfPresent(roomId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void insertMessages(List<PendingChatMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE_SQL, messages, messages.size(), (ps, m) -> {
+            Timestamp createdTime = Timestamp.valueOf(m.createdTime());
+            ps.setLong(1, m.id());
+            ps.setLong(2, m.roomId());
+            ps.setLong(3, m.senderId());
+            ps.setLong(4, m.seq());
+            ps.setString(5, m.content());
+            ps.setTimestamp(6, createdTime);
+            ps.setTimestamp(7, createdTime);
+        });
+    }
+
+    // 채팅방/보낸사람별로 가장 마지막 메시지(순번)까지만 커서를 옮긴다
+    private void advanceSenderCursors(List<PendingChatMessage> messages) {
+        Map<String, PendingChatMessage> latestBySender = new LinkedHashMap<>();
+        for (PendingChatMessage m : messages) {
+            latestBySender.merge(m.roomId() + ":" + m.senderId(), m, (a, b) -> a.seq() > b.seq() ? a : b);
+        }
+        List<PendingChatMessage> latest = new ArrayList<>(latestBySender.values());
+        jdbcTemplate.batchUpdate(ADVANCE_CURSOR_SQL, latest, latest.size(), (ps, m) -> {
+            ps.setLong(1, m.seq());
+            ps.setLong(2, m.roomId());
+            ps.setLong(3, m.senderId());
+            ps.setLong(4, m.seq());
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+//        진행 중인 enqueue가 끝난 뒤 running을 내리므로, 이후에는 대기열에 새 메시지가 들어오지 않는다
+        lifecycleLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lifecycleLock.writeLock().unlock();
+        }
+        logger.info("채팅 메시지 write-behind 종료: 남은 {}개 메시지 저장", queue.size());
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+            writerThread.join(TimeUnit.SECONDS.toMillis(1));
+        }
+//        저장 스레드가 끝내지 못한 메시지는 종료 스레드에서 직접 저장 (drainTo로 꺼내므로 저장 스레드와 겹치지 않는다)
+        List<PendingChatMessage> remaining = new ArrayList<>(batchSize);
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            logger.warn("저장 스레드가 종료 시간 내에 끝나지 않아 남은 채팅 메시지 {}개를 직접 저장합니다.", remaining.size());
+            flushTimer.record(() -> flush(remaining));
+            remaining.clear();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.repository.ChatMessageRepository;
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.example.backend.chat.repository.ChatRoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 채팅 데이터 마이그레이션
+ * - 애플리케이션 준비 완료 시점에 한 번 실행된다.
+ * - 메시지 순번 채우기와 순번 커서 옮기기는 설정과 상관없이 항상 실행한다.
+ *   기록 조회/재동기화/안 읽은 수가 모두 순번 기준이라, 순번이 없는 기존 메시지와 커서가 남아 있으면
+ *   기존 기록이 보이지 않고 기존 참여자에게 새 메시지가 전부 안 읽음으로 보인다.
+ * - 나머지 단계는 chat.migration.enabled=true 일 때만 실행한다.
+ * - 각 단계는 이미 옮겨진 데이터를 건드리지 않으므로 여러 번 실행해도 안전하다.
+ */
+@Service
+public class ChatMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMigrationService.class);
+
+    private final ChatParticipantRepository chatParticipantRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final boolean enabled;
+
+    public ChatMigrationService(ChatParticipantRepository chatParticipantRepository,
+                                ChatRoomRepository chatRoomRepository,
+                                ChatMessageRepository chatMessageRepository,
+                                @Value("${chat.migration.enabled:false}") boolean enabled) {
+        this.chatParticipantRepository = chatParticipantRepository;
+        this.chatRoomRepository = chatRoomRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrate() {
+        logger.info("채팅 데이터 마이그레이션 시작");
+        if (enabled) {
+            migrateReadStatusToCursors();
+            backfillPrivatePairKeys();
+            backfillRoomStats();
+        }
+        backfillSequences();
+        migrateCursorsToSequences();
+        logger.info("채팅 데이터 마이그레이션 완료");
+    }
+
+    /**
+     * 메시지별 ReadStatus 행을 참여자별 읽음 커서로 옮긴다.
+     */
+    public void migrateReadStatusToCursors() {
+        int migrated = chatParticipantRepository.migrateReadStatusToCursors();
+        logger.info("ReadStatus → 읽음 커서 마이그레이션: {}명의 참여자 커서 설정", migrated);
+    }
+
+    /**
+     * 기존 1:1 채팅방에 사용자 쌍 키를 채운다. (중복된 쌍은 가장 먼저 만들어진 방만 키를 받는다)
+     */
+    public void backfillPrivatePairKeys() {
+        int updated = chatRoomRepository.backfillPrivatePairKeys();
+        logger.info("1:1 채팅방 사용자 쌍 키 채우기: {}개 채팅방", updated);
+    }
+
+    /**
+     * 기존 채팅방의 참여자 수와 마지막 활동 시각을 채운다.
+     */
+    public void backfillRoomStats() {
+        int updated = chatRoomRepository.backfillRoomStats();
+        logger.info("채팅방 참여자 수/마지막 활동 시각 채우기: {}개 채팅방", updated);
+    }
+
+    /**
+     * 순번이 없는 기존 메시지에 채팅방별 순번을 채운다.
+     * 새 메시지의 순번은 이 자리를 비워 두고 발급되므로(ChatRoomSequenceService) 배포 후에 실행해도 겹치지 않는다.
+     */
+    public void backfillSequences() {
+        int updated = chatMessageRepository.backfillSequences();
+        logger.info("채팅 메시지 순번 채우기: {}개 메시지", updated);
+    }
+
+    /**
+     * 메시지 id 기준 읽음 커서를 순번 기준 커서로 옮긴다. (backfillSequences 이후)
+     */
+    public void migrateCursorsToSequences() {
+        int migrated = chatParticipantRepository.migrateCursorsToSequences();
+        logger.info("읽음 커서 → 순번 커서 마이그레이션: {}명의 참여자 커서 설정", migrated);
+    }
+}
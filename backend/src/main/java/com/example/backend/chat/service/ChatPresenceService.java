@@ -0,0 +1,373 @@
+package com.example.backend.chat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 클러스터 전체 접속 현황 (presence)
+ * - 사용자별 세션 : 해시 chat:presence:user:{userId} (필드 sessionId, 값 만료 시각 ms)
+ * - 접속 중인 사용자 : ZSET chat:presence:online (멤버 userId, 점수 가장 늦은 세션 만료 시각 ms)
+ * - 채팅방별 접속 멤버 : ZSET chat:presence:room:{roomId} (멤버 userId, 점수 만료 시각 ms) - /topic/{roomId} 구독 기준
+ * 연결/구독 이벤트는 메모리 상태만 바꾸고 바뀐 사용자/채팅방만 표시해 두었다가 flush 주기마다 파이프라인 한 번으로 반영한다.
+ * 같은 주기 안의 끊김/재연결은 최종 상태 한 번만 기록되므로 재연결이 몰려도 Redis 쓰기가 그만큼 늘지 않는다.
+ * heartbeat 주기마다 이 노드의 모든 세션 만료 시각을 늘리고, 갱신이 멈춘 노드의 항목은 ttl이 지나면 접속하지 않은 것으로 본다.
+ * 한 사용자가 여러 노드에서 같은 채팅방을 구독하다 한쪽에서 나가면 다음 heartbeat까지 채팅방 목록에서 빠질 수 있다.
+ */
+@Service
+public class ChatPresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatPresenceService.class);
+    private static final String USER_KEY_PREFIX = "chat:presence:user:";
+    private static final String ROOM_KEY_PREFIX = "chat:presence:room:";
+    private static final String ONLINE_KEY = "chat:presence:online";
+
+    // KEYS[1]=사용자 세션 해시, KEYS[2]=접속 사용자 ZSET
+    // ARGV[1]=현재 시각, ARGV[2]=만료 시각, ARGV[3]=ttl(초), ARGV[4]=userId, ARGV[5]=살아있는 세션 수, 이후 살아있는 세션들, 끝난 세션들
+    // 만료된 세션을 지우고 남은 세션 중 가장 늦은 만료 시각으로 접속 상태를 정한다 (다른 노드의 세션도 함께 고려)
+    private static final String SYNC_USER_SCRIPT =
+            "local n = tonumber(ARGV[5]) " +
+            "for i = 6, 5 + n do redis.call('HSET', KEYS[1], ARGV[i], ARGV[2]) end " +
+            "for i = 6 + n, #ARGV do redis.call('HDEL', KEYS[1], ARGV[i]) end " +
+            "local now = tonumber(ARGV[1]) " +
+            "local latest = 0 " +
+            "local fields = redis.call('HGETALL', KEYS[1]) " +
+            "for i = 1, #fields, 2 do " +
+            "  local expiry = tonumber(fields[i + 1]) " +
+            "  if expiry <= now then redis.call('HDEL', KEYS[1], fields[i]) elseif expiry > latest then latest = expiry end " +
+            "end " +
+            "if latest > 0 then " +
+            "  redis.call('ZADD', KEYS[2], latest, ARGV[4]) " +
+            "  redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+            "  return 1 " +
+            "end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('ZREM', KEYS[2], ARGV[4]) " +
+            "return 0";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long ttlSeconds;
+
+    // 이 노드의 상태 (this로 보호)
+    private final Map<String, Long> sessionUsers = new HashMap<>();
+    private final Map<Long, Set<String>> userSessions = new HashMap<>();
+    // sessionId -> (subscriptionId -> roomId)
+    private final Map<String, Map<String, Long>> sessionSubscriptions = new HashMap<>();
+    // roomId -> (userId -> 로컬 구독 수)
+    private final Map<Long, Map<Long, Integer>> roomMembers = new HashMap<>();
+
+    // 다음 flush에 반영할 변경
+    private Set<Long> dirtyUsers = new HashSet<>();
+    private Map<Long, Set<String>> endedSessions = new HashMap<>();
+    private Set<RoomMember> dirtyRoomMembers = new HashSet<>();
+
+    private volatile long clusterOnlineUsers;
+    private final Counter eventCounter;
+    private final Counter writeCounter;
+
+    public ChatPresenceService(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${chat.presence.ttl-seconds:90}") long ttlSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttlSeconds = ttlSeconds;
+        Gauge.builder("chat.presence.local.sessions", this, ChatPresenceService::localSessionCount)
+                .description("이 노드에 연결된 인증 세션 수")
+                .register(meterRegistry);
+        Gauge.builder("chat.presence.local.users", this, ChatPresenceService::localUserCount)
+                .description("이 노드에 연결된 사용자 수")
+                .register(meterRegistry);
+        Gauge.builder("chat.presence.online.users", this, s -> s.clusterOnlineUsers)
+                .description("클러스터 전체 접속 사용자 수 (heartbeat 주기마다 갱신)")
+                .register(meterRegistry);
+        this.eventCounter = Counter.builder("chat.presence.events")
+                .description("연결/구독 변경 이벤트 수")
+                .register(meterRegistry);
+        this.writeCounter = Counter.builder("chat.presence.writes")
+                .description("이벤트를 모아 Redis에 반영한 사용자/채팅방 멤버 수")
+                .register(meterRegistry);
+    }
+
+    public synchronized void connect(String sessionId, Long userId) {
+        if (sessionId == null || userId == null) {
+            return;
+        }
+        sessionUsers.put(sessionId, userId);
+        userSessions.computeIfAbsent(userId, id -> new HashSet<>()).add(sessionId);
+        Set<String> ended = endedSessions.get(userId);
+        if (ended != null) {
+            ended.remove(sessionId);
+        }
+        dirtyUsers.add(userId);
+        eventCounter.increment();
+    }
+
+    public synchronized void subscribe(String sessionId, String subscriptionId, String destination) {
+        Long roomId = ChatChannels.roomIdFromDestination(destination);
+        Long userId = sessionUsers.get(sessionId);
+        if (subscriptionId == null || roomId == null || userId == null) {
+            return;
+        }
+        Long previous = sessionSubscriptions
+                .computeIfAbsent(sessionId, id -> new HashMap<>())
+                .put(subscriptionId, roomId);
+        if (previous != null) {
+            leaveRoom(previous, userId);
+        }
+        roomMembers.computeIfAbsent(roomId, id -> new HashMap<>()).merge(userId, 1, Integer::sum);
+        dirtyRoomMembers.add(new RoomMember(roomId, userId));
+        eventCounter.increment();
+    }
+
+    public synchronized void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, Long> subscriptions = sessionSubscriptions.get(sessionId);
+        Long userId = sessionUsers.get(sessionId);
+        if (subscriptions == null || userId == null) {
+            return;
+        }
+        Long roomId = subscriptions.remove(subscriptionId);
+        if (subscriptions.isEmpty()) {
+            sessionSubscriptions.remove(sessionId);
+        }
+        if (roomId != null) {
+            leaveRoom(roomId, userId);
+            eventCounter.increment();
+        }
+    }
+
+    public synchronized void disconnect(String sessionId) {
+        Long userId = sessionUsers.remove(sessionId);
+        if (userId == null) {
+            return;
+        }
+        Map<String, Long> subscriptions = sessionSubscriptions.remove(sessionId);
+        if (subscriptions != null) {
+            for (Long roomId : subscriptions.values()) {
+                leaveRoom(roomId, userId);
+            }
+        }
+        Set<String> sessions = userSessions.get(userId);
+        if (sessions != null) {
+            sessions.remove(sessionId);
+            if (sessions.isEmpty()) {
+                userSessions.remove(userId);
+            }
+        }
+        endedSessions.computeIfAbsent(userId, id -> new HashSet<>()).add(sessionId);
+        dirtyUsers.add(userId);
+        eventCounter.increment();
+    }
+
+    /**
+     * 접속 여부 - 이 노드에 세션이 있으면 Redis를 조회하지 않는다.
+     * Redis를 조회할 수 없으면 접속 중으로 본다 (호출 측이 필요한 작업을 건너뛰지 않도록)
+     */
+    public boolean isOnline(Long userId) {
+        synchronized (this) {
+            if (userSessions.containsKey(userId)) {
+                return true;
+            }
+        }
+        try {
+            Double expiry = stringRedisTemplate.opsForZSet().score(ONLINE_KEY, String.valueOf(userId));
+            return expiry != null && expiry > System.currentTimeMillis();
+        } catch (Exception e) {
+            logger.warn("접속 여부 조회 실패 (userId={}): {}", userId, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 주어진 사용자 중 접속 중인 사용자 (ZMSCORE 한 번)
+     * Redis를 조회할 수 없으면 모두 접속 중으로 본다.
+     */
+    public Set<Long> onlineAmong(Collection<Long> userIds) {
+        Set<Long> online = new LinkedHashSet<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return online;
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        try {
+            List<Double> expiries = stringRedisTemplate.opsForZSet()
+                    .score(ONLINE_KEY, ids.stream().map(String::valueOf).toArray());
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < ids.size(); i++) {
+                Double expiry = expiries != null ? expiries.get(i) : null;
+                if (expiry != null && expiry > now) {
+                    online.add(ids.get(i));
+                }
+            }
+            return online;
+        } catch (Exception e) {
+            logger.warn("접속 사용자 조회 실패: {}", e.getMessage());
+            return new LinkedHashSet<>(ids);
+        }
+    }
+
+    /**
+     * 채팅방을 보고 있는(/topic/{roomId} 구독 중인) 사용자 id
+     */
+    public List<Long> onlineMembers(Long roomId) {
+        Set<String> members = stringRedisTemplate.opsForZSet()
+                .rangeByScore(roomKey(roomId), System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        List<Long> userIds = new ArrayList<>();
+        if (members != null) {
+            for (String member : members) {
+                userIds.add(Long.valueOf(member));
+            }
+        }
+        return userIds;
+    }
+
+    public long onlineUserCount() {
+        return clusterOnlineUsers;
+    }
+
+    /**
+     * 모아 둔 변경을 파이프라인 한 번으로 반영
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.flush-interval-ms:1000}")
+    public void flush() {
+        List<UserSync> users = new ArrayList<>();
+        List<RoomSync> rooms = new ArrayList<>();
+        synchronized (this) {
+            if (dirtyUsers.isEmpty() && dirtyRoomMembers.isEmpty()) {
+                return;
+            }
+            for (Long userId : dirtyUsers) {
+                Set<String> live = userSessions.getOrDefault(userId, Set.of());
+                Set<String> ended = endedSessions.getOrDefault(userId, Set.of());
+                users.add(new UserSync(userId, List.copyOf(live), List.copyOf(ended)));
+            }
+            for (RoomMember member : dirtyRoomMembers) {
+                Map<Long, Integer> members = roomMembers.get(member.roomId());
+                rooms.add(new RoomSync(member, members != null && members.containsKey(member.userId())));
+            }
+            dirtyUsers = new HashSet<>();
+            endedSessions = new HashMap<>();
+            dirtyRoomMembers = new HashSet<>();
+        }
+        write(users, rooms);
+    }
+
+    /**
+     * 이 노드의 모든 세션/채팅방 멤버 만료 시각 연장, 만료된 항목 정리
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        synchronized (this) {
+            dirtyUsers.addAll(userSessions.keySet());
+            roomMembers.forEach((roomId, members) ->
+                    members.keySet().forEach(userId -> dirtyRoomMembers.add(new RoomMember(roomId, userId))));
+        }
+        flush();
+        try {
+            long now = System.currentTimeMillis();
+            stringRedisTemplate.opsForZSet().removeRangeByScore(ONLINE_KEY, Double.NEGATIVE_INFINITY, now);
+            Long count = stringRedisTemplate.opsForZSet().count(ONLINE_KEY, now, Double.POSITIVE_INFINITY);
+            clusterOnlineUsers = count != null ? count : 0;
+        } catch (Exception e) {
+            logger.warn("접속 사용자 정리 실패: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            for (String sessionId : List.copyOf(sessionUsers.keySet())) {
+                disconnect(sessionId);
+            }
+        }
+        flush();
+    }
+
+    private void write(List<UserSync> users, List<RoomSync> rooms) {
+        long now = System.currentTimeMillis();
+        String expiry = String.valueOf(now + ttlSeconds * 1000);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (UserSync user : users) {
+                    List<String> keysAndArgs = new ArrayList<>(7 + user.live().size() + user.ended().size());
+                    keysAndArgs.add(USER_KEY_PREFIX + user.userId());
+                    keysAndArgs.add(ONLINE_KEY);
+                    keysAndArgs.add(String.valueOf(now));
+                    keysAndArgs.add(expiry);
+                    keysAndArgs.add(String.valueOf(ttlSeconds));
+                    keysAndArgs.add(String.valueOf(user.userId()));
+                    keysAndArgs.add(String.valueOf(user.live().size()));
+                    keysAndArgs.addAll(user.live());
+                    keysAndArgs.addAll(user.ended());
+                    redis.eval(SYNC_USER_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs.toArray(new String[0]));
+                }
+                for (RoomSync room : rooms) {
+                    String key = roomKey(room.member().roomId());
+                    String userId = String.valueOf(room.member().userId());
+                    if (room.present()) {
+                        redis.zAdd(key, Double.parseDouble(expiry), userId);
+                        redis.expire(key, ttlSeconds);
+                    } else {
+                        redis.zRem(key, userId);
+                    }
+                    redis.zRemRangeByScore(key, Double.NEGATIVE_INFINITY, now);
+                }
+                return null;
+            });
+            writeCounter.increment(users.size() + rooms.size());
+        } catch (Exception e) {
+            logger.warn("접속 현황 반영 실패 (사용자 {}명, 채팅방 멤버 {}건): {}", users.size(), rooms.size(), e.getMessage());
+        }
+    }
+
+    private void leaveRoom(Long roomId, Long userId) {
+        Map<Long, Integer> members = roomMembers.get(roomId);
+        if (members == null) {
+            return;
+        }
+        members.computeIfPresent(userId, (id, c) -> c > 1 ? c - 1 : null);
+        if (members.isEmpty()) {
+            roomMembers.remove(roomId);
+        }
+        dirtyRoomMembers.add(new RoomMember(roomId, userId));
+    }
+
+    private synchronized int localSessionCount() {
+        return sessionUsers.size();
+    }
+
+    private synchronized int localUserCount() {
+        return userSessions.size();
+    }
+
+    private static String roomKey(Long roomId) {
+        return ROOM_KEY_PREFIX + roomId;
+    }
+
+    private record RoomMember(Long roomId, Long userId) {
+    }
+
+    private record UserSync(Long userId, List<String> live, List<String> ended) {
+    }
+
+    private record RoomSync(RoomMember member, boolean present) {
+    }
+}
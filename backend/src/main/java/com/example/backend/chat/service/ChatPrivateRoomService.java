@@ -0,0 +1,104 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.domain.ChatParticipant;
+import com.example.backend.chat.domain.ChatRoom;
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.example.backend.chat.repository.ChatRoomRepository;
+import com.example.backend.security.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 1:1 채팅방 조회/생성
+ * - 1:1 채팅방은 두 사용자 id로 만든 키(작은id:큰id)를 가지며, 이 키에 unique 인덱스가 걸려 있다.
+ * - 조회는 키 인덱스 한 번 (쌍 → roomId는 노드 메모리에 캐시, 1:1 채팅방은 나가기/삭제가 없어 무효화가 필요 없다)
+ * - 생성은 별도 트랜잭션에서 INSERT를 시도하고, 동시에 다른 요청이 먼저 만들었으면(unique 위반) 그 방을 다시 조회해 돌려준다.
+ */
+@Service
+public class ChatPrivateRoomService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatPrivateRoomService.class);
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatParticipantRepository chatParticipantRepository;
+    private final UserRepository userRepository;
+    private final ChatMembershipService membershipService;
+    private final TransactionTemplate requiresNew;
+
+    private final Cache<String, Long> roomIds = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    public ChatPrivateRoomService(ChatRoomRepository chatRoomRepository,
+                                  ChatParticipantRepository chatParticipantRepository,
+                                  UserRepository userRepository,
+                                  ChatMembershipService membershipService,
+                                  PlatformTransactionManager transactionManager) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.chatParticipantRepository = chatParticipantRepository;
+        this.userRepository = userRepository;
+        this.membershipService = membershipService;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 두 사용자의 1:1 채팅방 id를 돌려주고, 없으면 만든다.
+     * @param roomName 새로 만들 때 사용할 채팅방 이름
+     */
+    public Long getOrCreate(Long userId, Long otherUserId, String roomName) {
+        if (userId.equals(otherUserId)) {
+            throw new IllegalArgumentException("자기 자신과는 1:1 채팅방을 만들 수 없습니다.");
+        }
+        String pairKey = ChatRoom.privatePairKey(userId, otherUserId);
+        Long cached = roomIds.getIfPresent(pairKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        Long roomId = chatRoomRepository.findIdByPrivatePairKey(pairKey).orElse(null);
+        if (roomId == null) {
+            try {
+                roomId = requiresNew.execute(status -> create(pairKey, userId, otherUserId, roomName));
+            } catch (DataIntegrityViolationException e) {
+//                동시에 만든 요청이 먼저 커밋됨 - 호출 측 트랜잭션의 스냅샷에는 보이지 않으므로 새 트랜잭션에서 다시 조회
+                logger.debug("1:1 채팅방 동시 생성 감지 ({}), 기존 방을 조회합니다.", pairKey);
+                roomId = requiresNew.execute(status -> chatRoomRepository.findIdByPrivatePairKey(pairKey).orElseThrow(() -> e));
+            }
+        }
+        roomIds.put(pairKey, roomId);
+        return roomId;
+    }
+
+    private Long create(String pairKey, Long userId, Long otherUserId, String roomName) {
+        ChatRoom room = ChatRoom.builder()
+                .isGroupChat("N")
+                .name(roomName)
+                .privatePairKey(pairKey)
+                .participantCount(2)
+                .lastActivityAt(LocalDateTime.now())
+                .build();
+//        unique 위반을 이 자리에서 바로 확인하도록 flush
+        chatRoomRepository.saveAndFlush(room);
+        for (Long memberId : new Long[]{userId, otherUserId}) {
+            chatParticipantRepository.save(ChatParticipant.builder()
+                    .chatRoom(room)
+                    .member(userRepository.getReferenceById(memberId))
+                    .lastReadSeq(0L)
+                    .build());
+            membershipService.evict(room.getId(), memberId);
+        }
+        return room.getId();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.dto.ChatReadReceiptDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 읽음 알림(read receipt) 전달
+ * - 읽음 커서가 움직일 때마다 바로 보내지 않고 (채팅방, 사용자)별 마지막 커서만 남겨 두었다가
+ *   chat.read-receipts.flush-interval-ms 마다 채팅방별로 한 프레임(/topic/{roomId}/receipts, 읽음 알림 배열)씩 보낸다.
+ * - 다른 노드의 구독자에게는 채팅방별 chat:room:{roomId}:receipts 채널로 중계한다.
+ *   이 채널은 ChatRoomSubscriptionRegistry가 채팅방 채널과 함께 구독/해제하므로 구독자가 있는 노드만 받는다.
+ *   다른 노드에 구독자가 없는 채팅방은 Redis를 거치지 않는다. (ChatRoomNodeDirectory)
+ * - 받은 커서 변경 수(chat.read.receipts.received)와 실제로 보낸 읽음 알림 수(chat.read.receipts.sent)의 차이가 합쳐진 양이다.
+ */
+@Service
+public class ChatReadReceiptService implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatReadReceiptService.class);
+    private static final TypeReference<List<ChatReadReceiptDto>> RECEIPT_LIST = new TypeReference<>() {};
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SimpMessageSendingOperations messageTemplate;
+    private final ChatRoomSubscriptionRegistry subscriptionRegistry;
+    private final ChatRoomNodeDirectory nodeDirectory;
+    private final ObjectMapper objectMapper;
+
+    // (roomId, userId) → 아직 보내지 않은 가장 큰 읽음 커서
+    private final ConcurrentHashMap<ReceiptKey, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final Counter frameCounter;
+
+    public ChatReadReceiptService(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                  SimpMessageSendingOperations messageTemplate,
+                                  ChatRoomSubscriptionRegistry subscriptionRegistry,
+                                  ChatRoomNodeDirectory nodeDirectory,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.messageTemplate = messageTemplate;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.nodeDirectory = nodeDirectory;
+        this.objectMapper = objectMapper;
+        FunctionCounter.builder("chat.read.receipts.received", receivedCount, AtomicLong::get)
+                .description("읽음 커서 변경 수 (합치기 전)")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.read.receipts.sent", sentCount, AtomicLong::get)
+                .description("합친 뒤 실제로 보낸 읽음 알림 수")
+                .register(meterRegistry);
+        Gauge.builder("chat.read.receipts.coalescing.ratio", this, ChatReadReceiptService::coalescingRatio)
+                .description("합쳐져서 보내지 않은 읽음 알림 비율 (1 - 보낸 수 / 받은 수)")
+                .register(meterRegistry);
+        this.frameCounter = Counter.builder("chat.read.receipts.frames")
+                .description("채팅방별로 묶어 내보낸 읽음 알림 프레임 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 읽음 커서 변경 기록 - 다음 flush 때 같은 사용자의 마지막 커서만 전달된다.
+     */
+    public void record(Long roomId, Long userId, Long lastReadSeq) {
+        receivedCount.incrementAndGet();
+        pending.merge(new ReceiptKey(roomId, userId), lastReadSeq, Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.read-receipts.flush-interval-ms:250}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ChatReadReceiptDto>> byRoom = new HashMap<>();
+        for (ReceiptKey key : pending.keySet()) {
+//            remove로 꺼낸 값만 보내므로 꺼낸 뒤 들어온 커서는 다음 flush로 넘어간다
+            Long lastReadSeq = pending.remove(key);
+            if (lastReadSeq != null) {
+                byRoom.computeIfAbsent(key.roomId(), roomId -> new ArrayList<>())
+                        .add(new ChatReadReceiptDto(key.roomId(), key.userId(), lastReadSeq));
+            }
+        }
+        byRoom.forEach(this::publish);
+    }
+
+    // chat:room:{roomId}:receipts 수신 - ChatRoomSubscriptionRegistry가 로컬 구독자가 있는 동안만 구독한다
+    @Override
+    public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
+        try {
+            List<ChatReadReceiptDto> receipts = objectMapper.readValue(message.getBody(), RECEIPT_LIST);
+            if (!receipts.isEmpty()) {
+                deliver(receipts.get(0).getRoomId(), receipts);
+            }
+        } catch (Exception e) {
+            logger.warn("잘못된 읽음 알림: {}", new String(message.getBody(), StandardCharsets.UTF_8), e);
+        }
+    }
+
+    private void publish(Long roomId, List<ChatReadReceiptDto> receipts) {
+        sentCount.addAndGet(receipts.size());
+        try {
+            if (nodeDirectory.isLocalOnly(roomId)) {
+                deliver(roomId, receipts);
+                return;
+            }
+            stringRedisTemplate.convertAndSend(ChatChannels.roomReceiptChannel(roomId), objectMapper.writeValueAsString(receipts));
+        } catch (Exception e) {
+//            읽음 알림은 다음 커서 변경이나 재조회로 다시 맞춰지므로 버린다
+            logger.warn("읽음 알림 전달 실패 (roomId={}): {}", roomId, e.getMessage());
+        }
+    }
+
+    private void deliver(Long roomId, List<ChatReadReceiptDto> receipts) {
+        if (!subscriptionRegistry.hasLocalSubscribers(roomId)) {
+            return;
+        }
+        messageTemplate.convertAndSend(ChatChannels.roomReceiptTopic(roomId), receipts);
+        frameCounter.increment();
+    }
+
+    // 1 - 보낸 수 / 받은 수 (0이면 합쳐진 것이 없음)
+    private double coalescingRatio() {
+        long received = receivedCount.get();
+        return received == 0 ? 0.0 : 1.0 - (double) sentCount.get() / received;
+    }
+
+    private record ReceiptKey(Long roomId, Long userId) {
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.backend.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * 채팅방별 구독 노드 목록 (room → node set)
+ * - 키 chat:room:{roomId}:nodes 에 로컬 구독자가 있는 노드 id를 담는다. (ChatRoomSubscriptionRegistry가 0 ↔ 1명 전환 시 갱신)
+ * - 변경이 생기면 chat:room-nodes:changed 채널로 roomId를 알리고, 각 노드는 해당 채팅방의 캐시만 지운다.
+ * - 다른 노드에 구독자가 없는 채팅방의 메시지는 Redis를 거치지 않고 이 노드에서 바로 전달할 수 있다.
+ *   변경 알림은 pub/sub이라 빠질 수 있으므로 "이 노드뿐"이라는 판단은 chat.delivery.local-only-ttl-ms(기본 1초)만 믿고,
+ *   "다른 노드에도 있음"은 잘못 캐시돼도 Redis로 중계될 뿐이라 30초 동안 캐시한다.
+ * - 비정상 종료한 노드가 남긴 항목은 재시작 시 chat:node:{nodeId}:rooms 로 찾아 지운다.
+ *   그 전까지는 원격 구독자가 있는 것으로 보여 Redis로 중계되므로 메시지가 빠지지는 않는다.
+ * chat.transport=streams 에서는 재전송을 위해 모든 메시지가 스트림을 거쳐야 하므로 사용하지 않는다.
+ */
+@Service
+public class ChatRoomNodeDirectory implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRoomNodeDirectory.class);
+    private static final String CHANGED_CHANNEL = "chat:room-nodes:changed";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String nodeId;
+    private final boolean enabled;
+
+    private static final Duration REMOTE_TTL = Duration.ofSeconds(30);
+
+    // roomId → 다른 노드에 구독자가 있는지 (변경 알림으로 지우고, 알림을 놓쳐도 TTL이 지나면 다시 조회)
+    private final Cache<Long, Boolean> remoteSubscribers;
+
+    public ChatRoomNodeDirectory(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 @Value("${chat.node-id:local}") String nodeId,
+                                 @Value("${chat.transport:pubsub}") String transport,
+                                 @Value("${chat.delivery.local-short-circuit:true}") boolean localShortCircuit,
+                                 @Value("${chat.delivery.local-only-ttl-ms:1000}") long localOnlyTtlMs) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.nodeId = nodeId;
+        this.enabled = localShortCircuit && !"streams".equals(transport);
+        Duration localOnlyTtl = Duration.ofMillis(localOnlyTtlMs);
+        this.remoteSubscribers = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfter(Expiry.<Long, Boolean>writing((roomId, remote) -> remote ? REMOTE_TTL : localOnlyTtl))
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGED_CHANNEL));
+//        이전 실행에서 정리하지 못한 이 노드의 항목 제거
+        leaveAll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            leaveAll();
+        }
+    }
+
+    /**
+     * 이 노드에 채팅방의 첫 구독자가 생겼을 때
+     */
+    public void join(Long roomId) {
+        if (!enabled) {
+            return;
+        }
+        update(roomId, true);
+    }
+
+    /**
+     * 이 노드에서 채팅방의 마지막 구독자가 나갔을 때
+     */
+    public void leave(Long roomId) {
+        if (!enabled) {
+            return;
+        }
+        update(roomId, false);
+    }
+
+    /**
+     * 다른 노드에 구독자가 없어 이 노드에서 바로 전달해도 되는지
+     */
+    public boolean isLocalOnly(Long roomId) {
+        if (!enabled) {
+            return false;
+        }
+        return !remoteSubscribers.get(roomId, this::loadRemoteSubscribers);
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
+        try {
+            remoteSubscribers.invalidate(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            logger.warn("잘못된 채팅방 노드 변경 알림: {}", new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private boolean loadRemoteSubscribers(Long roomId) {
+        try {
+            Set<String> nodes = stringRedisTemplate.opsForSet().members(nodesKey(roomId));
+            if (nodes == null) {
+                return true;
+            }
+            for (String node : nodes) {
+                if (!nodeId.equals(node)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (Exception e) {
+//            확인할 수 없으면 Redis로 중계 (메시지가 빠지지 않는 쪽)
+            logger.warn("채팅방 노드 목록 조회 실패 (roomId={}): {}", roomId, e.getMessage());
+            return true;
+        }
+    }
+
+    private void update(Long roomId, boolean joined) {
+        String room = String.valueOf(roomId);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                if (joined) {
+                    redis.sAdd(nodesKey(roomId), nodeId);
+                    redis.sAdd(nodeRoomsKey(), room);
+                } else {
+                    redis.sRem(nodesKey(roomId), nodeId);
+                    redis.sRem(nodeRoomsKey(), room);
+                }
+                redis.publish(CHANGED_CHANNEL, room);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("채팅방 노드 목록 갱신 실패 (roomId={}, joined={}): {}", roomId, joined, e.getMessage());
+        }
+    }
+
+    private void leaveAll() {
+        try {
+            Set<String> rooms = stringRedisTemplate.opsForSet().members(nodeRoomsKey());
+            if (rooms == null || rooms.isEmpty()) {
+                return;
+            }
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (String room : rooms) {
+                    redis.sRem(nodesKey(Long.valueOf(room)), nodeId);
+                    redis.publish(CHANGED_CHANNEL, room);
+                }
+                redis.del(nodeRoomsKey());
+                return null;
+            });
+            logger.info("채팅방 노드 목록에서 이 노드({}) 제거: {}개 채팅방", nodeId, rooms.size());
+        } catch (Exception e) {
+            logger.warn("채팅방 노드 목록 정리 실패: {}", e.getMessage());
+        }
+    }
+
+    private static String nodesKey(Long roomId) {
+        return ChatChannels.ROOM_CHANNEL_PREFIX + roomId + ":nodes";
+    }
+
+    private String nodeRoomsKey() {
+        return "chat:node:" + nodeId + ":rooms";
+    }
+}
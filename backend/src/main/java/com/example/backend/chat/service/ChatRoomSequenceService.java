@@ -0,0 +1,77 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.repository.ChatMessageRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 채팅방별 메시지 순번 발급기
+ * - 키 chat:room:{roomId}:seq 를 INCR 해서 메시지를 받는 시점(입구)에 순번을 정한다. 모든 노드가 같은 카운터를 쓴다.
+ * - 키가 없으면(새 채팅방, Redis 초기화) DB에 저장된 순번 다음부터 이어서 발급한다.
+ * - 저장에 실패한 메시지의 순번은 비어 있을 수 있다. 클라이언트는 빈 순번을 재조회 API로 확인하고 넘어간다.
+ */
+@Service
+public class ChatRoomSequenceService {
+
+    private static final String KEY_PREFIX = "chat:room:";
+
+    // 키가 있을 때만 증가 (없으면 0 → DB 값으로 시작점을 정한 뒤 SEED_SCRIPT)
+    private static final RedisScript<Long> NEXT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "return redis.call('INCR', KEYS[1])",
+            Long.class);
+
+    // 카운터가 DB 기준 시작점보다 작으면 끌어올린 뒤 증가 (동시에 여러 노드가 채워도 순번이 겹치지 않음)
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "if current < tonumber(ARGV[1]) then redis.call('SET', KEYS[1], ARGV[1]) end " +
+            "return redis.call('INCR', KEYS[1])",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChatMessageRepository chatMessageRepository;
+
+    public ChatRoomSequenceService(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                   ChatMessageRepository chatMessageRepository) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.chatMessageRepository = chatMessageRepository;
+    }
+
+    /**
+     * 채팅방의 다음 메시지 순번
+     */
+    public long next(Long roomId) {
+        List<String> keys = List.of(key(roomId));
+        Long seq = stringRedisTemplate.execute(NEXT_SCRIPT, keys);
+        if (seq == null || seq == 0L) {
+            long floor = chatMessageRepository.findSequenceFloor(roomId);
+            seq = stringRedisTemplate.execute(SEED_SCRIPT, keys, String.valueOf(floor));
+        }
+        if (seq == null) {
+            throw new IllegalStateException("채팅 메시지 순번을 발급받지 못했습니다.");
+        }
+        return seq;
+    }
+
+    /**
+     * 채팅방에 지금까지 발급된 마지막 순번 (메시지가 없으면 0)
+     * - 저장 대기 중인 메시지의 순번도 포함되므로 읽음 커서를 여기에 두면 그 메시지도 읽은 것으로 본다.
+     */
+    public long current(Long roomId) {
+        String value = stringRedisTemplate.opsForValue().get(key(roomId));
+        if (value != null) {
+            return Long.parseLong(value);
+        }
+        Long latest = chatMessageRepository.findLatestSeq(roomId);
+        return latest != null ? latest : 0L;
+    }
+
+    private static String key(Long roomId) {
+        return KEY_PREFIX + roomId + ":seq";
+    }
+}
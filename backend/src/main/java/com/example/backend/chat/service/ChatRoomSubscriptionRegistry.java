@@ -0,0 +1,224 @@
+package com.example.backend.chat.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 이 노드의 STOMP 구독 현황을 관리하고, 그에 맞춰 채팅방별 Redis 채널을 구독/해제한다.
+ * - /topic/{roomId} 또는 /topic/{roomId}/batch 로컬 구독자가 0 → 1명이 되면 chat:room:{roomId} 채널과
+ *   읽음 알림 채널 chat:room:{roomId}:receipts 를 구독
+ * - 1 → 0명이 되면 두 채널 구독 해제
+ * - 두 목적지의 구독 수를 따로 세어 ChatLocalDelivery가 구독자가 있는 목적지로만 보내게 한다.
+ * - 읽음 알림(/topic/{roomId}/receipts) 등 그 밖의 하위 목적지 구독은 채팅방 구독으로 세지 않는다.
+ * - 구독 수 변경과 Redis 구독/해제, 노드 목록 갱신은 채팅방별 락 안에서 처리한다.
+ *   같은 채팅방의 0 ↔ 1명 전환 순서는 지키면서, Redis 왕복 동안 다른 채팅방의 구독/해제는 막지 않는다.
+ * 따라서 노드가 받는 Redis 트래픽은 클러스터 전체가 아니라 이 노드가 서비스하는 채팅방 수에 비례한다.
+ * 같은 시점에 ChatRoomNodeDirectory에도 이 노드를 추가/제거해서, 다른 노드가 채팅방의 구독 노드를 알 수 있게 한다.
+ * chat.transport=streams 일 때는 메시지가 스트림으로 오므로 채팅방 채널은 구독하지 않고 읽음 알림 채널만 구독한다.
+ */
+@Component
+public class ChatRoomSubscriptionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRoomSubscriptionRegistry.class);
+
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MessageListenerAdapter messageListenerAdapter;
+    private final ChatReadReceiptService receiptService;
+    private final ChatRoomNodeDirectory nodeDirectory;
+    private final boolean pubSubTransport;
+
+    // sessionId -> (subscriptionId -> 구독 목적지), 안쪽 맵은 바깥 맵의 compute 안에서만 바꾼다
+    private final ConcurrentHashMap<String, Map<String, RoomTopic>> sessionSubscriptions = new ConcurrentHashMap<>();
+    // roomId -> 로컬 구독 현황 (구독자가 0명이 되면 제거)
+    private final ConcurrentHashMap<Long, RoomSubscription> rooms = new ConcurrentHashMap<>();
+
+    public ChatRoomSubscriptionRegistry(RedisMessageListenerContainer listenerContainer,
+                                        MessageListenerAdapter messageListenerAdapter,
+                                        @Lazy ChatReadReceiptService receiptService,
+                                        ChatRoomNodeDirectory nodeDirectory,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${chat.transport:pubsub}") String transport) {
+        this.listenerContainer = listenerContainer;
+        this.messageListenerAdapter = messageListenerAdapter;
+        this.receiptService = receiptService;
+        this.nodeDirectory = nodeDirectory;
+        this.pubSubTransport = !"streams".equals(transport);
+        Gauge.builder("chat.redis.subscribed.rooms", this, ChatRoomSubscriptionRegistry::subscribedRoomCount)
+                .description("이 노드가 구독 중인 채팅방 Redis 채널 수")
+                .register(meterRegistry);
+    }
+
+    public void subscribe(String sessionId, String subscriptionId, String destination) {
+        RoomTopic topic = RoomTopic.of(destination);
+        if (sessionId == null || subscriptionId == null || topic == null) {
+            return;
+        }
+        RoomTopic[] previous = new RoomTopic[1];
+        sessionSubscriptions.compute(sessionId, (id, subscriptions) -> {
+            Map<String, RoomTopic> updated = subscriptions != null ? subscriptions : new HashMap<>();
+            previous[0] = updated.put(subscriptionId, topic);
+            return updated;
+        });
+        if (previous[0] != null) {
+            release(previous[0]);
+        }
+        acquire(topic);
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        RoomTopic[] removed = new RoomTopic[1];
+        sessionSubscriptions.computeIfPresent(sessionId, (id, subscriptions) -> {
+            removed[0] = subscriptions.remove(subscriptionId);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+        if (removed[0] != null) {
+            release(removed[0]);
+        }
+    }
+
+    public void removeSession(String sessionId) {
+        Map<String, RoomTopic> subscriptions = sessionSubscriptions.remove(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        for (RoomTopic topic : subscriptions.values()) {
+            release(topic);
+        }
+    }
+
+    public boolean hasLocalSubscribers(Long roomId) {
+        return rooms.containsKey(roomId);
+    }
+
+    /**
+     * 메시지를 한 건씩 받는 /topic/{roomId} 구독자가 있는지
+     */
+    public boolean hasSingleSubscribers(Long roomId) {
+        RoomSubscription room = rooms.get(roomId);
+        return room != null && room.singleSubscribers > 0;
+    }
+
+    /**
+     * 메시지를 배열로 묶어 받는 /topic/{roomId}/batch 구독자가 있는지
+     */
+    public boolean hasBatchSubscribers(Long roomId) {
+        RoomSubscription room = rooms.get(roomId);
+        return room != null && room.batchSubscribers > 0;
+    }
+
+    public Set<Long> subscribedRoomIds() {
+        return Set.copyOf(rooms.keySet());
+    }
+
+    private int subscribedRoomCount() {
+        return rooms.size();
+    }
+
+    private void acquire(RoomTopic topic) {
+        Long roomId = topic.roomId();
+        while (true) {
+            RoomSubscription room = rooms.computeIfAbsent(roomId, id -> new RoomSubscription());
+            synchronized (room) {
+//                마지막 구독자가 나가며 제거된 객체면 새로 만든 객체로 다시 시도
+                if (room.removed) {
+                    continue;
+                }
+                boolean first = room.isEmpty();
+                if (topic.batch()) {
+                    room.batchSubscribers++;
+                } else {
+                    room.singleSubscribers++;
+                }
+                if (first) {
+                    listen(roomId);
+                }
+                return;
+            }
+        }
+    }
+
+    private void release(RoomTopic topic) {
+        Long roomId = topic.roomId();
+        RoomSubscription room = rooms.get(roomId);
+        if (room == null) {
+            return;
+        }
+        synchronized (room) {
+            if (room.removed) {
+                return;
+            }
+            if (topic.batch()) {
+                room.batchSubscribers--;
+            } else {
+                room.singleSubscribers--;
+            }
+            if (!room.isEmpty()) {
+                return;
+            }
+//            구독 해제가 끝난 뒤에 제거해야 새 구독자의 구독이 해제보다 먼저 처리되지 않는다
+            unlisten(roomId);
+            room.removed = true;
+            rooms.remove(roomId, room);
+        }
+    }
+
+    private void listen(Long roomId) {
+        nodeDirectory.join(roomId);
+        listenerContainer.addMessageListener(receiptService, new ChannelTopic(ChatChannels.roomReceiptChannel(roomId)));
+        if (pubSubTransport) {
+            listenerContainer.addMessageListener(messageListenerAdapter, new ChannelTopic(ChatChannels.roomChannel(roomId)));
+            logger.debug("채팅방 Redis 채널 구독: {}", roomId);
+        }
+    }
+
+    private void unlisten(Long roomId) {
+        nodeDirectory.leave(roomId);
+        listenerContainer.removeMessageListener(receiptService, new ChannelTopic(ChatChannels.roomReceiptChannel(roomId)));
+        if (pubSubTransport) {
+            listenerContainer.removeMessageListener(messageListenerAdapter, new ChannelTopic(ChatChannels.roomChannel(roomId)));
+            logger.debug("채팅방 Redis 채널 구독 해제: {}", roomId);
+        }
+    }
+
+    /**
+     * 채팅방 메시지 구독 목적지 (/topic/{roomId} 또는 /topic/{roomId}/batch)
+     */
+    private record RoomTopic(Long roomId, boolean batch) {
+
+        static RoomTopic of(String destination) {
+            Long roomId = ChatChannels.roomIdFromRoomTopic(destination);
+            if (roomId != null) {
+                return new RoomTopic(roomId, false);
+            }
+            Long batchRoomId = ChatChannels.roomIdFromBatchTopic(destination);
+            return batchRoomId != null ? new RoomTopic(batchRoomId, true) : null;
+        }
+    }
+
+    /**
+     * 채팅방별 로컬 구독 수 - 이 객체의 모니터가 채팅방별 락이다. (전달 경로는 락 없이 읽는다)
+     */
+    private static final class RoomSubscription {
+
+        private volatile int singleSubscribers;
+        private volatile int batchSubscribers;
+        private boolean removed;
+
+        private boolean isEmpty() {
+            return singleSubscribers == 0 && batchSubscribers == 0;
+        }
+    }
+}
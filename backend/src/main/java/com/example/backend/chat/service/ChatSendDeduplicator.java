@@ -0,0 +1,119 @@
+package com.example.backend.chat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * 클라이언트 메시지 id(clientMessageId)로 중복 전송 걸러내기
+ * - SockJS 전송 방식이 바뀌며 같은 SEND가 다시 들어와도 저장/전달은 한 번만 한다.
+ * - 키 chat:send:{userId}:{clientMessageId} 를 SET NX EX 로 먼저 잡은 요청만 처리하고,
+ *   처리가 끝나면 값에 messageId:seq 를 남겨 중복 요청에 처음 결과로 응답한다.
+ * - 저장에 실패하면 키를 지워 같은 id로 다시 보낼 수 있게 한다.
+ * - Redis를 사용할 수 없으면 걸러내지 않고 처리한다. (메시지 유실보다 중복이 낫다)
+ */
+@Service
+public class ChatSendDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSendDeduplicator.class);
+    private static final String KEY_PREFIX = "chat:send:";
+    private static final int MAX_CLIENT_MESSAGE_ID_LENGTH = 64;
+
+    /**
+     * @param duplicate 이미 처리했거나 처리 중인 전송인지
+     * @param messageId 처음 처리한 메시지 id (처리 중이면 null)
+     * @param seq 처음 처리한 메시지 순번 (처리 중이면 null)
+     */
+    public record Claim(boolean duplicate, Long messageId, Long seq) {
+        static final Claim FIRST = new Claim(false, null, null);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration ttl;
+    private final Counter duplicateCounter;
+
+    public ChatSendDeduplicator(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${chat.send-dedupe.ttl-seconds:300}") long ttlSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.duplicateCounter = Counter.builder("chat.send.duplicates")
+                .description("같은 clientMessageId로 다시 들어와 걸러낸 전송 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 전송 처리 권한 확보 - clientMessageId가 없으면 항상 처리한다.
+     */
+    public Claim claim(Long userId, String clientMessageId) {
+        if (clientMessageId == null || clientMessageId.isBlank()) {
+            return Claim.FIRST;
+        }
+        if (clientMessageId.length() > MAX_CLIENT_MESSAGE_ID_LENGTH) {
+            throw new IllegalArgumentException("clientMessageId는 최대 " + MAX_CLIENT_MESSAGE_ID_LENGTH + "자입니다.");
+        }
+        String key = key(userId, clientMessageId);
+        try {
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, "", ttl))) {
+                return Claim.FIRST;
+            }
+            duplicateCounter.increment();
+            return parse(stringRedisTemplate.opsForValue().get(key));
+        } catch (Exception e) {
+            logger.warn("중복 전송 확인 실패 (userId={}), 확인 없이 처리합니다: {}", userId, e.getMessage());
+            return Claim.FIRST;
+        }
+    }
+
+    /**
+     * 처리 결과 기록 - 이후 같은 id의 중복 전송에 이 값으로 응답한다.
+     */
+    public void complete(Long userId, String clientMessageId, Long messageId, Long seq) {
+        if (clientMessageId == null || clientMessageId.isBlank()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(key(userId, clientMessageId), messageId + ":" + seq, ttl);
+        } catch (Exception e) {
+            logger.warn("중복 전송 처리 결과 기록 실패 (userId={}): {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 처리하지 못한 전송 - 같은 id로 다시 보낼 수 있게 키를 지운다.
+     */
+    public void release(Long userId, String clientMessageId) {
+        if (clientMessageId == null || clientMessageId.isBlank()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.delete(key(userId, clientMessageId));
+        } catch (Exception e) {
+            logger.warn("중복 전송 키 삭제 실패 (userId={}): {}", userId, e.getMessage());
+        }
+    }
+
+    // "messageId:seq" (처리 중이면 빈 값, 이미 만료됐으면 null)
+    private static Claim parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return new Claim(true, null, null);
+        }
+        int separator = value.indexOf(':');
+        return new Claim(true, parseLong(value.substring(0, separator)), parseLong(value.substring(separator + 1)));
+    }
+
+    private static Long parseLong(String value) {
+        return "null".equals(value) ? null : Long.valueOf(value);
+    }
+
+    private static String key(Long userId, String clientMessageId) {
+        return KEY_PREFIX + userId + ":" + clientMessageId;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.backend.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 채팅 전송 속도 제한 (사용자별, 채팅방별 토큰 버킷)
+ * - 버킷은 GCRA(다음 토큰이 생기는 이론상 시각 하나만 저장)로 구현해 rate-per-second 속도로 채워지고 burst 만큼 몰아서 보낼 수 있다.
+ * - local : 노드별 Caffeine 캐시의 AtomicLong을 CAS로 갱신 (락 없음). 사용자 버킷을 먼저 확인하므로
+ *   한 사용자의 도배는 채팅방 버킷을 쓰지 않고 걸러진다.
+ * - redis : 키 chat:flood:user:{userId}, chat:flood:room:{roomId} 를 Lua 스크립트 하나로 함께 확인해 모든 노드가 같은 버킷을 쓴다.
+ *   Redis를 사용할 수 없으면 local 버킷으로 확인한다.
+ * - 거부된 전송은 chat.flood.rejected{scope=user|room} 으로 집계한다.
+ */
+@Service
+public class ChatSendRateLimiter {
+
+    public static final String SCOPE_USER = "user";
+    public static final String SCOPE_ROOM = "room";
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSendRateLimiter.class);
+    private static final String KEY_PREFIX = "chat:flood:";
+
+    // 사용자 → 채팅방 순서로 확인하고 둘 다 통과할 때만 기록 (시각은 Redis 서버 기준 마이크로초)
+    // 반환값 : 0 통과, 양수 사용자 버킷 대기 ms, 음수 채팅방 버킷 대기 ms
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000000 + tonumber(time[2]) " +
+            "local function next_tat(key, interval, tolerance) " +
+            "  local tat = math.max(tonumber(redis.call('GET', key) or '0'), now) + interval " +
+            "  return tat, tat - now - tolerance " +
+            "end " +
+            "local user_tat, user_excess = next_tat(KEYS[1], tonumber(ARGV[1]), tonumber(ARGV[2])) " +
+            "if user_excess > 0 then return math.ceil(user_excess / 1000) end " +
+            "local room_tat, room_excess = next_tat(KEYS[2], tonumber(ARGV[3]), tonumber(ARGV[4])) " +
+            "if room_excess > 0 then return -math.ceil(room_excess / 1000) end " +
+            "redis.call('SET', KEYS[1], string.format('%.0f', user_tat), 'PX', math.ceil((user_tat - now) / 1000) + 1) " +
+            "redis.call('SET', KEYS[2], string.format('%.0f', room_tat), 'PX', math.ceil((room_tat - now) / 1000) + 1) " +
+            "return 0",
+            Long.class);
+
+    /**
+     * @param scope 초과한 버킷 (user | room)
+     * @param retryAfterMs 다시 보낼 수 있을 때까지 남은 시간
+     */
+    public record Rejection(String scope, long retryAfterMs) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final boolean redisMode;
+    private final Bucket userBuckets;
+    private final Bucket roomBuckets;
+    private final Counter userRejected;
+    private final Counter roomRejected;
+
+    public ChatSendRateLimiter(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${chat.flood.enabled:true}") boolean enabled,
+                               @Value("${chat.flood.mode:local}") String mode,
+                               @Value("${chat.flood.user.rate-per-second:5}") double userRate,
+                               @Value("${chat.flood.user.burst:10}") int userBurst,
+                               @Value("${chat.flood.room.rate-per-second:50}") double roomRate,
+                               @Value("${chat.flood.room.burst:100}") int roomBurst) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.redisMode = "redis".equals(mode);
+        this.userBuckets = new Bucket(userRate, userBurst);
+        this.roomBuckets = new Bucket(roomRate, roomBurst);
+        this.userRejected = Counter.builder("chat.flood.rejected").tag("scope", SCOPE_USER)
+                .description("사용자별 전송 속도 제한으로 거부한 SEND 수")
+                .register(meterRegistry);
+        this.roomRejected = Counter.builder("chat.flood.rejected").tag("scope", SCOPE_ROOM)
+                .description("채팅방별 전송 속도 제한으로 거부한 SEND 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 전송 한 건 허용 여부 - 허용하면 null, 거부하면 초과한 버킷과 대기 시간
+     */
+    public Rejection tryAcquire(Long userId, Long roomId) {
+        if (!enabled) {
+            return null;
+        }
+        Rejection rejection = redisMode ? acquireRedis(userId, roomId) : acquireLocal(userId, roomId);
+        if (rejection != null) {
+            (SCOPE_USER.equals(rejection.scope()) ? userRejected : roomRejected).increment();
+        }
+        return rejection;
+    }
+
+    private Rejection acquireLocal(Long userId, Long roomId) {
+        long now = System.nanoTime();
+        long wait = userBuckets.tryAcquire(userId, now);
+        if (wait > 0) {
+            return new Rejection(SCOPE_USER, toMillis(wait));
+        }
+        wait = roomBuckets.tryAcquire(roomId, now);
+        if (wait > 0) {
+//            Redis 스크립트처럼 둘 다 통과할 때만 쓴 것으로 친다 - 채팅방에서 거절되면 사용자 토큰을 돌려준다
+            userBuckets.refund(userId);
+            return new Rejection(SCOPE_ROOM, toMillis(wait));
+        }
+        return null;
+    }
+
+    private Rejection acquireRedis(Long userId, Long roomId) {
+        Long result;
+        try {
+            result = stringRedisTemplate.execute(ACQUIRE_SCRIPT,
+                    List.of(KEY_PREFIX + SCOPE_USER + ":" + userId, KEY_PREFIX + SCOPE_ROOM + ":" + roomId),
+                    String.valueOf(userBuckets.intervalMicros()), String.valueOf(userBuckets.toleranceMicros()),
+                    String.valueOf(roomBuckets.intervalMicros()), String.valueOf(roomBuckets.toleranceMicros()));
+        } catch (Exception e) {
+            logger.warn("전송 속도 제한 확인 실패 (userId={}), 노드 로컬 버킷으로 확인합니다: {}", userId, e.getMessage());
+            return acquireLocal(userId, roomId);
+        }
+        if (result == null || result == 0L) {
+            return null;
+        }
+        return result > 0 ? new Rejection(SCOPE_USER, result) : new Rejection(SCOPE_ROOM, -result);
+    }
+
+    private static long toMillis(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * 키별 GCRA 버킷 - 값은 다음 토큰이 생기는 이론상 시각(nanoTime)
+     * 버킷이 가득 찰 만큼 쓰지 않은 키는 캐시에서 빠지고, 다시 쓰면 가득 찬 버킷으로 시작한다.
+     */
+    private static final class Bucket {
+
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Cache<Long, AtomicLong> tats;
+
+        private Bucket(double ratePerSecond, int burst) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+            this.toleranceNanos = intervalNanos * Math.max(1, burst);
+            this.tats = Caffeine.newBuilder()
+                    .expireAfterAccess(Duration.ofNanos(toleranceNanos))
+                    .build();
+        }
+
+        // 0이면 토큰 사용, 아니면 토큰이 생길 때까지 남은 시간 (ns)
+        long tryAcquire(Long key, long now) {
+            AtomicLong tat = tats.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - toleranceNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        // tryAcquire로 쓴 토큰 하나를 돌려준다
+        void refund(Long key) {
+            AtomicLong tat = tats.getIfPresent(key);
+            if (tat != null) {
+                tat.addAndGet(-intervalNanos);
+            }
+        }
+
+        long intervalMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(intervalNanos);
+        }
+
+        long toleranceMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(toleranceNanos);
+        }
+    }
+}
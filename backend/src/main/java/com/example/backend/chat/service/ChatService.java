@@ -3,101 +3,144 @@ package com.example.backend.chat.service;
 import com.example.backend.chat.domain.ChatMessage;
 import com.example.backend.chat.domain.ChatParticipant;
 import com.example.backend.chat.domain.ChatRoom;
-import com.example.backend.chat.domain.ReadStatus;
+import com.example.backend.chat.dto.ChatHistoryResDto;
 import com.example.backend.chat.dto.ChatMessageDto;
+import com.example.backend.chat.dto.ChatReplayResDto;
+import com.example.backend.chat.dto.ChatResyncResDto;
 import com.example.backend.chat.dto.ChatRoomListResDto;
 import com.example.backend.chat.dto.MyChatListResDto;
 import com.example.backend.chat.repository.ChatMessageRepository;
 import com.example.backend.chat.repository.ChatParticipantRepository;
 import com.example.backend.chat.repository.ChatRoomRepository;
-import com.example.backend.chat.repository.ReadStatusRepository;
 import com.example.backend.security.entity.UserEntity;
 import com.example.backend.security.repository.UserRepository;
 import com.example.backend.security.service.oauth2.OAuthUserEntityToUserEntityService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Logger;
 
 @Service
 @Transactional
 public class ChatService {
     private static final Logger logger = Logger.getLogger(ChatService.class.getName());
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_ONLINE_QUERY_SIZE = 200;
     private final ChatRoomRepository chatRoomRepository;
     private final ChatParticipantRepository chatParticipantRepository;
     private final ChatMessageRepository chatMessageRepository;
-    private final ReadStatusRepository readStatusRepository;
     private final UserRepository memberRepository;
     private final OAuthUserEntityToUserEntityService oAuthUserService;
+    private final ChatMessageWriteBehindService writeBehindService;
+    private final ChatMembershipService membershipService;
+    private final ChatUnreadCounterService unreadCounterService;
+    private final ChatMessageTransport messageTransport;
+    private final ChatHistoryCacheService historyCacheService;
+    private final ChatPrivateRoomService privateRoomService;
+    private final ChatPresenceService presenceService;
+    private final ChatRoomSequenceService sequenceService;
+    private final ChatReadReceiptService readReceiptService;
+    private final ChatMessageIdAllocator idAllocator;
+    private final Cache<Long, Boolean> recentlyTouchedRooms = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofSeconds(1))
+            .build();
     
     public ChatService(
             ChatRoomRepository chatRoomRepository, 
             ChatParticipantRepository chatParticipantRepository, 
             ChatMessageRepository chatMessageRepository, 
-            ReadStatusRepository readStatusRepository, 
             UserRepository memberRepository,
-            OAuthUserEntityToUserEntityService oAuthUserService) {
+            OAuthUserEntityToUserEntityService oAuthUserService,
+            ChatMessageWriteBehindService writeBehindService,
+            ChatMembershipService membershipService,
+            ChatUnreadCounterService unreadCounterService,
+            ChatMessageTransport messageTransport,
+            ChatHistoryCacheService historyCacheService,
+            ChatPrivateRoomService privateRoomService,
+            ChatPresenceService presenceService,
+            ChatRoomSequenceService sequenceService,
+            ChatReadReceiptService readReceiptService,
+            ChatMessageIdAllocator idAllocator) {
         this.chatRoomRepository = chatRoomRepository;
         this.chatParticipantRepository = chatParticipantRepository;
         this.chatMessageRepository = chatMessageRepository;
-        this.readStatusRepository = readStatusRepository;
         this.memberRepository = memberRepository;
         this.oAuthUserService = oAuthUserService;
+        this.writeBehindService = writeBehindService;
+        this.membershipService = membershipService;
+        this.unreadCounterService = unreadCounterService;
+        this.messageTransport = messageTransport;
+        this.historyCacheService = historyCacheService;
+        this.privateRoomService = privateRoomService;
+        this.presenceService = presenceService;
+        this.sequenceService = sequenceService;
+        this.readReceiptService = readReceiptService;
+        this.idAllocator = idAllocator;
     }
 
-    public void saveMessage(Long roomId, ChatMessageDto chatMessageReqDto){
-//        채팅방 조회
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElseThrow(()-> new EntityNotFoundException("room cannot be found"));
-
-//        보낸사람조회
-        String senderEmail = chatMessageReqDto.getSenderEmail();
-        // 이메일 형식 처리 - 점(.)이 공백으로 대체된 경우도 처리
-        UserEntity sender = null;
-        try {
-            sender = memberRepository.findByEmail(senderEmail)
-                    .orElseThrow(() -> new EntityNotFoundException("member cannot be found with email: " + senderEmail));
-        } catch (EntityNotFoundException e) {
-            // 점(.)을 공백으로 치환해서 다시 시도
-            if (senderEmail.contains(" ")) {
-                String altEmail = senderEmail.replace(" ", ".");
-                logger.info("대체 이메일 형식으로 검색 시도: " + altEmail);
-                sender = memberRepository.findByEmail(altEmail)
-                        .orElseThrow(() -> new EntityNotFoundException("member cannot be found with alternative email: " + altEmail));
-            } else {
-                throw e;
-            }
+    /**
+     * 메시지 저장 - 발신자는 STOMP CONNECT 때 확인된 사용자 id를 그대로 사용한다.
+     * 채팅방 순번(seq)은 저장 전에 발급해 DTO에 담는다. (전달되는 모든 메시지가 순번을 가진다)
+     * 채팅방/발신자는 참조 프록시로만 연결하므로 메시지 저장에 사용자/채팅방 조회 쿼리가 없다.
+     * (채팅방 참여 여부는 SEND 프레임에서 이미 확인됨)
+     */
+    public void saveMessage(Long roomId, Long senderId, ChatMessageDto chatMessageReqDto){
+        long seq = sequenceService.next(roomId);
+        chatMessageReqDto.setSeq(seq);
+//        write-behind 모드 : id만 발급받고 저장은 대기열에 맡긴다 (채팅방 검증은 배치 INSERT의 FK 제약으로 대신함)
+        if(writeBehindService.isEnabled()){
+            ChatMessageWriteBehindService.PendingChatMessage pending =
+                    writeBehindService.enqueue(roomId, senderId, seq, chatMessageReqDto.getMessage());
+            chatMessageReqDto.setMessageId(pending.id());
+            chatMessageReqDto.setUpdateTime(pending.createdTime().toString());
+            unreadCounterService.increment(roomId, senderId);
+            touchLastActivity(roomId, pending.createdTime());
+            return;
         }
 
-//        메시지저장
+//        메시지저장 (채팅방/보낸사람은 SELECT 없이 참조만 연결, id는 write-behind 모드와 같은 발급기에서 받는다)
         ChatMessage chatMessage = ChatMessage.builder()
-                .chatRoom(chatRoom)
-                .member(sender)
+                .id(idAllocator.nextId())
+                .chatRoom(chatRoomRepository.getReferenceById(roomId))
+                .member(memberRepository.getReferenceById(senderId))
+                .seq(seq)
                 .content(chatMessageReqDto.getMessage())
                 .build();
         chatMessageRepository.save(chatMessage);
         
         // updateTime을 DTO에 설정
+        chatMessageReqDto.setMessageId(chatMessage.getId());
         chatMessageReqDto.setUpdateTime(chatMessage.getUpdatedTime().toString());
-//        사용자별로 읽음여부 저장
-        List<ChatParticipant> chatParticipants = chatParticipantRepository.findByChatRoom(chatRoom);
-        for(ChatParticipant c : chatParticipants){
-            ReadStatus readStatus = ReadStatus.builder()
-                    .chatRoom(chatRoom)
-                    .member(c.getMember())
-                    .chatMessage(chatMessage)
-                    .isRead(c.getMember().equals(sender))
-                    .build();
-            readStatusRepository.save(readStatus);
+//        보낸사람은 자신의 메시지까지 읽은 것으로 커서 이동 (참여자별 ReadStatus 행은 더 이상 만들지 않음)
+        chatParticipantRepository.advanceReadCursor(roomId, senderId, seq);
+//        다른 참여자의 안 읽은 메시지 수 증가
+        unreadCounterService.increment(roomId, senderId);
+        touchLastActivity(roomId, chatMessage.getCreatedTime());
+    }
+
+    // 채팅방 마지막 활동 시각 갱신 - 바쁜 채팅방이 메시지마다 같은 행을 UPDATE하지 않도록 노드당 채팅방별 1초에 한 번만
+    private void touchLastActivity(Long roomId, LocalDateTime at){
+        if(recentlyTouchedRooms.asMap().putIfAbsent(roomId, Boolean.TRUE) == null){
+            chatRoomRepository.touchLastActivity(roomId, at);
         }
     }
 
@@ -110,12 +153,15 @@ public class ChatService {
         ChatRoom chatRoom = ChatRoom.builder()
                 .name(chatRoomName)
                 .isGroupChat("Y")
+                .participantCount(1)
+                .lastActivityAt(LocalDateTime.now())
                 .build();
         chatRoomRepository.save(chatRoom);
 //        채팅참여자로 개설자를 추가
         ChatParticipant chatParticipant = ChatParticipant.builder()
                 .chatRoom(chatRoom)
                 .member(member)
+                .lastReadSeq(0L)
                 .build();
         chatParticipantRepository.save(chatParticipant);
     }
@@ -136,62 +182,30 @@ public class ChatService {
 
     // 페이지네이션을 지원하는 그룹 채팅방 목록 조회 메소드
     public Map<String, Object> getGroupchatRooms(int page, int size) {
-        // 페이지네이션 객체 생성
-        Pageable pageable = PageRequest.of(page, size);
-        
-        // 페이지 단위로 그룹 채팅방 조회
-        Page<ChatRoom> chatRoomsPage = chatRoomRepository.findByIsGroupChat("Y", pageable);
-        
-        // DTO로 변환
-        List<ChatRoomListResDto> dtos = new ArrayList<>();
-        for (ChatRoom c : chatRoomsPage.getContent()) {
-            ChatRoomListResDto dto = ChatRoomListResDto
-                    .builder()
-                    .roomId(c.getId())
-                    .roomName(c.getName())
-                    .build();
-            dtos.add(dto);
-        }
-        
-        // 페이지 정보
-        Map<String, Object> pageInfo = new HashMap<>();
-        pageInfo.put("page", page);
-        pageInfo.put("size", size);
-        pageInfo.put("total", chatRoomsPage.getTotalElements());
-        pageInfo.put("totalPages", chatRoomsPage.getTotalPages());
-        pageInfo.put("hasNext", chatRoomsPage.hasNext());
-        pageInfo.put("hasPrevious", chatRoomsPage.hasPrevious());
-        
-        // 결과 맵
-        Map<String, Object> result = new HashMap<>();
-        result.put("rooms", dtos);
-        result.put("pageInfo", pageInfo);
-        
-        return result;
+        return getGroupchatRooms(page, size, null);
     }
-    
-    // 검색 기능이 추가된 페이지네이션 그룹 채팅방 목록 조회 메소드
+
     public Map<String, Object> getGroupchatRooms(int page, int size, String keyword) {
-        // 페이지네이션 객체 생성
-        Pageable pageable = PageRequest.of(page, size);
-        
-        // 로깅 추가
-        logger.info("=== 채팅방 검색 시작 ===");
-        logger.info("검색어: '" + keyword + "'");
-        logger.info("페이지: " + page + ", 크기: " + size);
+        return getGroupchatRooms(page, size, keyword, "activity");
+    }
+
+    /**
+     * 그룹 채팅방 목록 (검색 + 페이지네이션)
+     * @param sort activity(최근 활동 순, 기본) | size(참여자 많은 순) - (is_group_chat, 정렬 컬럼) 인덱스를 탄다
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getGroupchatRooms(int page, int size, String keyword, String sort) {
+        Sort order = "size".equalsIgnoreCase(sort)
+                ? Sort.by(Sort.Order.desc("participantCount"), Sort.Order.desc("id"))
+                : Sort.by(Sort.Order.desc("lastActivityAt"), Sort.Order.desc("id"));
+        Pageable pageable = PageRequest.of(page, size, order);
         
         // 페이지 단위로 그룹 채팅방 조회 (검색어 유무에 따라 다른 메서드 호출)
         Page<ChatRoom> chatRoomsPage;
         if (keyword != null && !keyword.trim().isEmpty()) {
-            // 검색어가 있는 경우 이름으로 검색
-            logger.info("검색 조건으로 채팅방 조회 시작: '" + keyword.trim() + "'");
             chatRoomsPage = chatRoomRepository.findByIsGroupChatAndNameContainingIgnoreCase("Y", keyword.trim(), pageable);
-            logger.info("검색 결과: " + chatRoomsPage.getContent().size() + "개 채팅방 찾음");
         } else {
-            // 검색어가 없는 경우 전체 조회
-            logger.info("전체 채팅방 조회 시작");
             chatRoomsPage = chatRoomRepository.findByIsGroupChat("Y", pageable);
-            logger.info("전체 조회 결과: " + chatRoomsPage.getContent().size() + "개 채팅방 찾음");
         }
         
         // DTO로 변환
@@ -201,9 +215,10 @@ public class ChatService {
                     .builder()
                     .roomId(c.getId())
                     .roomName(c.getName())
+                    .participantCount(c.getParticipantCount())
+                    .lastActivityAt(c.getLastActivityAt() != null ? c.getLastActivityAt().toString() : null)
                     .build();
             dtos.add(dto);
-            logger.info("채팅방 정보: ID=" + c.getId() + ", 이름='" + c.getName() + "'");
         }
         
         // 페이지 정보
@@ -219,8 +234,6 @@ public class ChatService {
         Map<String, Object> result = new HashMap<>();
         result.put("rooms", dtos);
         result.put("pageInfo", pageInfo);
-        
-        logger.info("=== 채팅방 검색 완료 ===");
         return result;
     }
 
@@ -260,13 +273,18 @@ public class ChatService {
         
         logger.info("=== 그룹 채팅방 참여 완료 ===");
     }
-//        ChatParticipant객체생성 후 저장
+//        ChatParticipant객체생성 후 저장 (참여 이전 메시지는 안 읽은 메시지로 세지 않도록 커서를 마지막 메시지에 둔다)
     public void addParticipantToRoom(ChatRoom chatRoom, UserEntity member){
+        long latestSeq = chatRoom.getId() == null ? 0L : sequenceService.current(chatRoom.getId());
         ChatParticipant chatParticipant = ChatParticipant.builder()
                 .chatRoom(chatRoom)
                 .member(member)
+                .lastReadSeq(latestSeq)
                 .build();
         chatParticipantRepository.save(chatParticipant);
+        chatRoomRepository.addParticipantCount(chatRoom.getId(), 1);
+        membershipService.evict(chatRoom.getId(), member.getId());
+        unreadCounterService.evictRoom(chatRoom.getId());
     }
 
     public List<ChatMessageDto> getChatHistory(Long roomId){
@@ -286,39 +304,207 @@ public class ChatService {
         }
         if(!check)throw new IllegalArgumentException("본인이 속하지 않은 채팅방입니다.");
 //        특정 room에 대한 message조회
-        List<ChatMessage> chatMessages = chatMessageRepository.findByChatRoomOrderByCreatedTimeAsc(chatRoom);
+        List<ChatMessage> chatMessages = chatMessageRepository.findByChatRoomOrderBySeqAsc(chatRoom);
         List<ChatMessageDto> chatMessageDtos = new ArrayList<>();
         for(ChatMessage c : chatMessages){
-            ChatMessageDto chatMessageDto = ChatMessageDto.builder()
-                    .message(c.getContent())
-                    .senderEmail(c.getMember().getEmail())
-                    .updateTime(c.getUpdatedTime().toString())
-                    .build();
-            chatMessageDtos.add(chatMessageDto);
+            chatMessageDtos.add(toChatMessageDto(c));
         }
         return chatMessageDtos;
     }
 
+    /**
+     * 이전 메시지 조회 (keyset 페이지네이션)
+     * @param roomId 채팅방 ID
+     * @param before 이 순번(seq)보다 이전 메시지를 조회 (null이면 최신 메시지부터)
+     * @param limit 조회할 메시지 수
+     * @return 오래된 순으로 정렬된 메시지와 다음 커서
+     */
+    @Transactional(readOnly = true)
+    public ChatHistoryResDto getChatHistoryPage(Long roomId, Long before, int limit){
+        UserEntity member = oAuthUserService.getCurrentUserEntityFromOAuth();
+        if(!chatParticipantRepository.existsByChatRoom_IdAndMember_Id(roomId, member.getId())){
+            throw new IllegalArgumentException("본인이 속하지 않은 채팅방입니다.");
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+//        한 건 더 조회해서 이전 메시지가 남아있는지 확인 (첫 페이지는 Redis hot tail, 그 이전은 DB)
+        List<ChatMessageDto> latestFirst;
+        if(before == null && historyCacheService.covers(size)){
+            latestFirst = new ArrayList<>(historyCacheService.getLatest(roomId, size + 1,
+                    () -> findLatestFirst(roomId, Long.MAX_VALUE, historyCacheService.size())));
+//            hot tail은 전달된 순서로 쌓이므로 순번 순으로 다시 정렬한다
+            latestFirst.sort(Comparator.comparing(ChatMessageDto::getSeq, Comparator.nullsFirst(Comparator.<Long>naturalOrder())).reversed());
+        } else {
+            latestFirst = findLatestFirst(roomId, before != null ? before : Long.MAX_VALUE, size + 1);
+        }
+        boolean hasNext = latestFirst.size() > size;
+        if(hasNext){
+            latestFirst = latestFirst.subList(0, size);
+        }
+
+        List<ChatMessageDto> chatMessageDtos = new ArrayList<>(latestFirst);
+        Collections.reverse(chatMessageDtos);
+        return ChatHistoryResDto.builder()
+                .messages(chatMessageDtos)
+                .nextCursor(hasNext ? chatMessageDtos.get(0).getSeq() : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    /**
+     * 재연결한 클라이언트가 마지막으로 받은 스트림 id 이후 메시지를 빠짐없이 다시 받는다 (chat.transport=streams)
+     * @param roomId 채팅방 ID
+     * @param after 마지막으로 받은 메시지의 streamId
+     * @param limit 조회할 메시지 수
+     * @return 현재 전송 방식이 재전송을 지원하지 않으면(pubsub) empty
+     */
+    @Transactional(readOnly = true)
+    public Optional<ChatReplayResDto> replayMessages(Long roomId, String after, int limit){
+        Long memberId = membershipService.findUserId(SecurityContextHolder.getContext().getAuthentication().getName());
+        if(memberId == null){
+            throw new EntityNotFoundException("member cannot be found");
+        }
+        if(!membershipService.isParticipant(roomId, memberId)){
+            throw new IllegalArgumentException("본인이 속하지 않은 채팅방입니다.");
+        }
+        return messageTransport.replay(roomId, after, Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE)));
+    }
+
+    /**
+     * 순번 seq 이후 메시지 조회 - 클라이언트가 받은 메시지 순번이 건너뛰었거나 재연결했을 때 빠진 구간만 다시 받는다.
+     * @param roomId 채팅방 ID
+     * @param seq 마지막으로 받은 메시지 순번 (이 값보다 큰 메시지를 돌려준다)
+     * @param limit 조회할 메시지 수
+     */
+    @Transactional(readOnly = true)
+    public ChatResyncResDto getMessagesSince(Long roomId, Long seq, int limit){
+        Long memberId = membershipService.findUserId(SecurityContextHolder.getContext().getAuthentication().getName());
+        if(memberId == null){
+            throw new EntityNotFoundException("member cannot be found");
+        }
+        if(!membershipService.isParticipant(roomId, memberId)){
+            throw new IllegalArgumentException("본인이 속하지 않은 채팅방입니다.");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+//        limit + 1개를 조회해 더 남았는지 확인
+        List<ChatMessage> chatMessages = chatMessageRepository.findPageAfterSeq(roomId, seq, PageRequest.of(0, size + 1));
+        boolean hasMore = chatMessages.size() > size;
+        List<ChatMessageDto> chatMessageDtos = new ArrayList<>(Math.min(chatMessages.size(), size));
+        for(ChatMessage c : hasMore ? chatMessages.subList(0, size) : chatMessages){
+            chatMessageDtos.add(toChatMessageDto(c));
+        }
+        Long lastSeq = chatMessageDtos.isEmpty() ? seq : chatMessageDtos.get(chatMessageDtos.size() - 1).getSeq();
+        return ChatResyncResDto.builder()
+                .messages(chatMessageDtos)
+                .lastSeq(lastSeq)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // before 이전 메시지를 최신순으로 limit개 조회
+    private List<ChatMessageDto> findLatestFirst(Long roomId, Long before, int limit){
+        List<ChatMessage> chatMessages = chatMessageRepository.findPageBefore(roomId, before, PageRequest.of(0, limit));
+        List<ChatMessageDto> chatMessageDtos = new ArrayList<>(chatMessages.size());
+        for(ChatMessage c : chatMessages){
+            chatMessageDtos.add(toChatMessageDto(c));
+        }
+        return chatMessageDtos;
+    }
+
+    private ChatMessageDto toChatMessageDto(ChatMessage c){
+        return ChatMessageDto.builder()
+                .messageId(c.getId())
+                .seq(c.getSeq())
+                .roomId(c.getChatRoom().getId())
+                .message(c.getContent())
+                .senderEmail(c.getMember().getEmail())
+                .updateTime(c.getUpdatedTime().toString())
+                .build();
+    }
+
+    // 참여 여부는 (roomId, userId) 캐시 + 존재 여부 쿼리로 확인
     public boolean isRoomPaticipant(String email, Long roomId){
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElseThrow(()-> new EntityNotFoundException("room cannot be found"));
-        UserEntity member = memberRepository.findByEmail(email).orElseThrow(()->new EntityNotFoundException("member cannot be found"));
+        return membershipService.isParticipant(email, roomId);
+    }
 
-        List<ChatParticipant> chatParticipants = chatParticipantRepository.findByChatRoom(chatRoom);
-        for(ChatParticipant c : chatParticipants){
-            if(c.getMember().equals(member)){
-                return true;
-            }
+    /**
+     * 채팅방 읽음 처리 - 참여자 읽음 커서를 방의 마지막 메시지로 옮기는 UPDATE 한 번
+     * (메시지별 ReadStatus 엔티티를 불러와 고치지 않으므로 밀린 메시지 수와 관계없이 비용이 같다)
+     * @return 갱신된 행 수 (이미 모두 읽은 상태면 0)
+     */
+    public int messageRead(Long roomId){
+        Long memberId = membershipService.findUserId(SecurityContextHolder.getContext().getAuthentication().getName());
+        if(memberId == null){
+            throw new EntityNotFoundException("member cannot be found");
+        }
+        if(!membershipService.isParticipant(roomId, memberId)){
+            throw new IllegalArgumentException("본인이 속하지 않은 채팅방입니다.");
+        }
+//        방에 발급된 마지막 순번까지 읽음 커서 이동 (저장 대기 중인 메시지 포함)
+        long latestSeq = sequenceService.current(roomId);
+        int updated = latestSeq == 0L ? 0
+                : chatParticipantRepository.advanceReadCursor(roomId, memberId, latestSeq);
+        unreadCounterService.reset(memberId, roomId);
+//        커서가 실제로 움직였을 때만 다른 참여자에게 읽음 알림 (짧은 창 동안 합쳐서 전달)
+        if(updated > 0){
+            readReceiptService.record(roomId, memberId, latestSeq);
         }
-        return false;
+        return updated;
     }
 
-    public void messageRead(Long roomId){
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElseThrow(()-> new EntityNotFoundException("room cannot be found"));
-        UserEntity member = memberRepository.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName()).orElseThrow(()->new EntityNotFoundException("member cannot be found"));
-        List<ReadStatus> readStatuses = readStatusRepository.findByChatRoomAndMember(chatRoom, member);
-        for(ReadStatus r : readStatuses){
-            r.updateIsRead(true);
+    /**
+     * 채팅방을 보고 있는(구독 중인) 참여자 - 모든 노드 기준
+     */
+    public Map<String, Object> getRoomOnlineMembers(Long roomId){
+        Long memberId = membershipService.findUserId(SecurityContextHolder.getContext().getAuthentication().getName());
+        if(memberId == null){
+            throw new EntityNotFoundException("member cannot be found");
+        }
+        if(!membershipService.isParticipant(roomId, memberId)){
+            throw new IllegalArgumentException("본인이 속하지 않은 채팅방입니다.");
+        }
+        List<Long> userIds = presenceService.onlineMembers(roomId);
+        Map<String, Object> result = new HashMap<>();
+        result.put("roomId", roomId);
+        result.put("count", userIds.size());
+        result.put("userIds", userIds);
+        return result;
+    }
+
+    // 주어진 사용자 중 접속 중인 사용자 (한 번에 최대 MAX_ONLINE_QUERY_SIZE명)
+    public Set<Long> getOnlineUsers(List<Long> userIds){
+        if(userIds.size() > MAX_ONLINE_QUERY_SIZE){
+            throw new IllegalArgumentException("한 번에 조회할 수 있는 사용자는 최대 " + MAX_ONLINE_QUERY_SIZE + "명입니다.");
         }
+        return presenceService.onlineAmong(userIds);
+    }
+
+    /**
+     * 채팅방별 안 읽은 메시지 수 - Redis 카운터를 HMGET 한 번으로 조회하고,
+     * 카운터가 없는 채팅방(캐시 유실, 신규 참여 등)만 DB에서 묶음 쿼리 한 번으로 센다.
+     */
+    private Map<Long, Long> getUnreadCounts(Long memberId, List<ChatParticipant> participants){
+        List<Long> roomIds = new ArrayList<>(participants.size());
+        for(ChatParticipant c : participants){
+            roomIds.add(c.getChatRoom().getId());
+        }
+        return getUnreadCountsByRoomIds(memberId, roomIds);
+    }
+
+    private Map<Long, Long> getUnreadCountsByRoomIds(Long memberId, List<Long> roomIds){
+        Map<Long, Long> counts = unreadCounterService.getUnreadCounts(memberId, roomIds);
+        List<Long> missing = new ArrayList<>();
+        for(Long roomId : roomIds){
+            if(!counts.containsKey(roomId)){
+                missing.add(roomId);
+            }
+        }
+        if(!missing.isEmpty()){
+            for(Object[] row : chatParticipantRepository.countUnreadByRooms(memberId, missing)){
+                counts.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return counts;
     }
 
     public List<MyChatListResDto> getMyChatRooms(){
@@ -327,9 +513,10 @@ public class ChatService {
         logger.info("내 채팅방 조회 사용자: " + member.getEmail());
         
         List<ChatParticipant> chatParticipants = chatParticipantRepository.findAllByMember(member);
+        Map<Long, Long> unreadCounts = getUnreadCounts(member.getId(), chatParticipants);
         List<MyChatListResDto> chatListResDtos = new ArrayList<>();
         for(ChatParticipant c : chatParticipants){
-            Long count = readStatusRepository.countByChatRoomAndMemberAndIsReadFalse(c.getChatRoom(), member);
+            Long count = unreadCounts.get(c.getChatRoom().getId());
             MyChatListResDto dto = MyChatListResDto.builder()
                     .roomId(c.getChatRoom().getId())
                     .roomName(c.getChatRoom().getName())
@@ -354,7 +541,7 @@ public class ChatService {
         List<ChatParticipant> chatParticipants = chatParticipantRepository.findAllByMember(member);
         logger.info("사용자가 참여한 전체 채팅방 수: " + chatParticipants.size());
         
-        List<MyChatListResDto> chatListResDtos = new ArrayList<>();
+        List<ChatParticipant> matchedParticipants = new ArrayList<>();
         int matchCount = 0;
         
         for(ChatParticipant c : chatParticipants){
@@ -374,16 +561,21 @@ public class ChatService {
             }
             
             if (matches) {
-                Long count = readStatusRepository.countByChatRoomAndMemberAndIsReadFalse(c.getChatRoom(), member);
-                MyChatListResDto dto = MyChatListResDto.builder()
-                        .roomId(c.getChatRoom().getId())
-                        .roomName(roomName)
-                        .isGroupChat(c.getChatRoom().getIsGroupChat())
-                        .unReadCount(count)
-                        .build();
-                chatListResDtos.add(dto);
+                matchedParticipants.add(c);
             }
         }
+
+        Map<Long, Long> unreadCounts = getUnreadCounts(member.getId(), matchedParticipants);
+        List<MyChatListResDto> chatListResDtos = new ArrayList<>();
+        for(ChatParticipant c : matchedParticipants){
+            MyChatListResDto dto = MyChatListResDto.builder()
+                    .roomId(c.getChatRoom().getId())
+                    .roomName(c.getChatRoom().getName())
+                    .isGroupChat(c.getChatRoom().getIsGroupChat())
+                    .unReadCount(unreadCounts.get(c.getChatRoom().getId()))
+                    .build();
+            chatListResDtos.add(dto);
+        }
         
         logger.info("검색 결과: 총 " + chatListResDtos.size() + "개 채팅방 찾음 (검색어 일치: " + matchCount + "개)");
         
@@ -408,9 +600,13 @@ public class ChatService {
         }
         ChatParticipant c = chatParticipantRepository.findByChatRoomAndMember(chatRoom, member).orElseThrow(()->new EntityNotFoundException("참여자를 찾을 수 없습니다."));
         chatParticipantRepository.delete(c);
+        membershipService.evict(chatRoom.getId(), member.getId());
+        unreadCounterService.evictRoom(chatRoom.getId());
 
-        List<ChatParticipant> chatParticipants = chatParticipantRepository.findByChatRoom(chatRoom);
-        if(chatParticipants.isEmpty()){
+//        참여자 수 카운터로 빈 방인지 확인 (참여자 목록을 불러오지 않음)
+        chatRoomRepository.addParticipantCount(chatRoom.getId(), -1);
+        Integer remaining = chatRoomRepository.findParticipantCount(chatRoom.getId());
+        if(remaining != null && remaining <= 0){
             chatRoomRepository.delete(chatRoom);
         }
     }
@@ -422,22 +618,9 @@ public class ChatService {
         
         UserEntity otherMember = memberRepository.findById(otherMemberId).orElseThrow(()->new EntityNotFoundException("member cannot be found"));
 
-//        나와 상대방이 1:1채팅에 이미 참석하고 있다면 해당 roomId return
-        Optional<ChatRoom> chatRoom = chatParticipantRepository.findExistingPrivateRoom(member.getId(), otherMember.getId());
-        if(chatRoom.isPresent()){
-            return chatRoom.get().getId();
-        }
-//        만약에 1:1채팅방이 없을경우 기존 채팅방 개설
-        ChatRoom newRoom = ChatRoom.builder()
-                .isGroupChat("N")
-                .name(member.getUsername() + "-" + otherMember.getUsername())
-                .build();
-        chatRoomRepository.save(newRoom);
-//        두사람 모두 참여자로 새롭게 추가
-        addParticipantToRoom(newRoom, member);
-        addParticipantToRoom(newRoom, otherMember);
-
-        return newRoom.getId();
+//        두 사람의 1:1 채팅방이 있으면 해당 roomId, 없으면 새로 만들어서 return (동시 요청에도 방은 하나만 생긴다)
+        return privateRoomService.getOrCreate(member.getId(), otherMember.getId(),
+                member.getUsername() + "-" + otherMember.getUsername());
     }
 
     /**
@@ -450,87 +633,92 @@ public class ChatService {
         return searchMyChatRoomsWithPaging(null, page, size);
     }
     
+    public Map<String, Object> searchMyChatRoomsWithPaging(String keyword, int page, int size) {
+        return searchMyChatRoomsWithPaging(keyword, page, size, null);
+    }
+
     /**
-     * 검색어를 포함하는 내 채팅방 목록 조회 (페이지네이션 적용)
+     * 검색어를 포함하는 내 채팅방 목록 조회 (최근 활동 순, 이름 검색과 페이지 처리를 쿼리 한 번으로)
      * @param keyword 검색어 (채팅방 이름)
-     * @param page 페이지 번호 (0부터 시작)
+     * @param page 페이지 번호 (0부터 시작, cursor가 있으면 무시)
      * @param size 페이지 크기
+     * @param cursor 이전 응답의 pageInfo.nextCursor (있으면 keyset 방식으로 이어서 조회, 전체 개수는 돌려주지 않음)
      * @return 페이지네이션이 적용된 검색 결과
      */
-    public Map<String, Object> searchMyChatRoomsWithPaging(String keyword, int page, int size) {
-        // 현재 인증된 사용자의 UserEntity 가져오기
+    @Transactional(readOnly = true)
+    public Map<String, Object> searchMyChatRoomsWithPaging(String keyword, int page, int size, String cursor) {
         UserEntity member = oAuthUserService.getCurrentUserEntityFromOAuth();
-        logger.info("내 채팅방 검색 (페이지네이션) - 사용자: " + member.getEmail() 
-            + ", 검색어: '" + keyword + "', 페이지: " + page + ", 크기: " + size);
-        
-        // 사용자가 참여한 모든 채팅방 가져오기
-        List<ChatParticipant> allChatParticipants = chatParticipantRepository.findAllByMember(member);
-        logger.info("사용자가 참여한 전체 채팅방 수: " + allChatParticipants.size());
-        
-        // 검색어로 필터링
-        List<ChatParticipant> filteredParticipants = new ArrayList<>();
-        for (ChatParticipant participant : allChatParticipants) {
-            String roomName = participant.getChatRoom().getName();
-            
-            if (keyword == null || keyword.trim().isEmpty() || 
-                roomName.toLowerCase().contains(keyword.trim().toLowerCase())) {
-                filteredParticipants.add(participant);
+        size = Math.max(1, size);
+        String namePattern = keyword == null || keyword.trim().isEmpty() ? null : "%" + escapeLike(keyword.trim()) + "%";
+
+        LocalDateTime cursorAt = null;
+        Long cursorId = null;
+        boolean keyset = cursor != null && !cursor.isBlank();
+        if (keyset) {
+            int separator = cursor.lastIndexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("잘못된 커서입니다: " + cursor);
             }
+            cursorAt = LocalDateTime.parse(cursor.substring(0, separator));
+            cursorId = Long.parseLong(cursor.substring(separator + 1));
+            page = 0;
         }
-        
-        // 전체 필터링된 아이템 수
-        int totalItems = filteredParticipants.size();
-        logger.info("필터링된 채팅방 수: " + totalItems);
-        
-        // 페이지네이션 계산
-        int startIndex = page * size;
-        int endIndex = Math.min(startIndex + size, totalItems);
-        
-        // 페이지 범위를 벗어나는 경우
-        if (startIndex >= totalItems) {
-            startIndex = 0;
-            endIndex = Math.min(size, totalItems);
+
+//        한 건 더 조회해서 다음 페이지가 있는지 확인 (전체 개수는 같은 쿼리의 COUNT(*) OVER()로 받는다)
+        List<ChatParticipantRepository.MyChatRoomRow> rows = chatParticipantRepository.findMyChatRooms(
+                member.getId(), namePattern, cursorAt, cursorId, size + 1, page * size);
+//        페이지 범위를 벗어나는 경우 첫 페이지
+        if (rows.isEmpty() && page > 0) {
             page = 0;
+            rows = chatParticipantRepository.findMyChatRooms(member.getId(), namePattern, null, null, size + 1, 0);
         }
-        
-        // 현재 페이지에 표시할 채팅방만 추출
-        List<ChatParticipant> pagedParticipants = filteredParticipants.subList(startIndex, endIndex);
-        logger.info("현재 페이지 채팅방 수: " + pagedParticipants.size());
-        
-        // DTO 변환
-        List<MyChatListResDto> chatListResDtos = new ArrayList<>();
-        for (ChatParticipant participant : pagedParticipants) {
-            Long unreadCount = readStatusRepository.countByChatRoomAndMemberAndIsReadFalse(
-                participant.getChatRoom(), member);
-            
-            MyChatListResDto dto = MyChatListResDto.builder()
-                .roomId(participant.getChatRoom().getId())
-                .roomName(participant.getChatRoom().getName())
-                .isGroupChat(participant.getChatRoom().getIsGroupChat())
-                .unReadCount(unreadCount)
-                .build();
-            
-            chatListResDtos.add(dto);
+        Long totalItems = keyset ? null : rows.isEmpty() ? 0L : rows.get(0).getTotalCount();
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
         }
-        
-        // 페이지 정보
+
+        // DTO 변환 (안 읽은 메시지 수는 페이지당 HMGET 한 번, Redis에 없는 방만 DB에서 묶음 쿼리 한 번)
+        List<Long> roomIds = new ArrayList<>(rows.size());
+        for (ChatParticipantRepository.MyChatRoomRow row : rows) {
+            roomIds.add(row.getRoomId());
+        }
+        Map<Long, Long> unreadCounts = getUnreadCountsByRoomIds(member.getId(), roomIds);
+        List<MyChatListResDto> chatListResDtos = new ArrayList<>(rows.size());
+        for (ChatParticipantRepository.MyChatRoomRow row : rows) {
+            chatListResDtos.add(MyChatListResDto.builder()
+                    .roomId(row.getRoomId())
+                    .roomName(row.getRoomName())
+                    .isGroupChat(row.getIsGroupChat())
+                    .unReadCount(unreadCounts.get(row.getRoomId()))
+                    .lastMessageTime(row.getLastActivityAt() != null ? row.getLastActivityAt().toString() : null)
+                    .build());
+        }
+
+        ChatParticipantRepository.MyChatRoomRow last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        // 페이지 정보 (커서 조회에서는 전체 개수를 세지 않는다)
         Map<String, Object> pageInfo = new HashMap<>();
         pageInfo.put("page", page);
         pageInfo.put("size", size);
-        pageInfo.put("total", totalItems);
-        pageInfo.put("totalPages", (int) Math.ceil((double) totalItems / size));
-        pageInfo.put("hasNext", endIndex < totalItems);
-        pageInfo.put("hasPrevious", page > 0);
-        
+        pageInfo.put("hasNext", hasNext);
+        pageInfo.put("hasPrevious", !keyset && page > 0);
+        pageInfo.put("nextCursor", hasNext && last != null ? last.getLastActivityAt() + "_" + last.getRoomId() : null);
+        if (totalItems != null) {
+            pageInfo.put("total", totalItems);
+            pageInfo.put("totalPages", (int) Math.ceil((double) totalItems / size));
+        }
+
         // 결과 맵
         Map<String, Object> result = new HashMap<>();
         result.put("rooms", chatListResDtos);
         result.put("pageInfo", pageInfo);
-        
-        logger.info("페이지네이션 응답 완료 - 페이지 " + page + ", 크기 " + size 
-            + ", 전체 " + totalItems + " 중 " + chatListResDtos.size() + "개 반환");
-        
         return result;
     }
+
+    // LIKE 패턴의 특수문자(%, _, \)를 일반 문자로 취급
+    private static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
 
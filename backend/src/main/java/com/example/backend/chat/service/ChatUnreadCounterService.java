@@ -0,0 +1,215 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 사용자별 안 읽은 메시지 수를 Redis 해시로 관리한다.
+ * - 키 chat:unread:{userId}, 필드 roomId, 값 안 읽은 메시지 수
+ * - 메시지 전송 시 보낸사람을 제외한 참여자에게 HINCRBY, 읽음 처리 시 0으로 초기화
+ * - 목록 조회는 페이지당 HMGET 한 번. 필드가 없으면(캐시 유실 등) null을 돌려주고 호출 측이 DB로 계산한다.
+ * - 주기적으로 DB 기준으로 다시 계산해 어긋난 값을 바로잡는다.
+ *   DB 조회 전에 읽어 둔 Redis 값이 그대로일 때만 바꾸므로(compare-and-set), 조회하는 사이의 전송(HINCRBY)/읽음 처리는 덮어쓰지 않는다.
+ *   write-behind로 아직 저장되지 않은 메시지가 있는 채팅방은 DB가 Redis보다 뒤처져 있으므로 건너뛴다.
+ */
+@Service
+public class ChatUnreadCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatUnreadCounterService.class);
+    private static final String KEY_PREFIX = "chat:unread:";
+    private static final String RECONCILE_LOCK_KEY = "chat:unread:reconcile:lock";
+    private static final int RECONCILE_PAGE_SIZE = 1000;
+
+    // KEYS[i] 해시의 필드 ARGV[3i-2] 값이 ARGV[3i-1](''이면 필드 없음)과 같을 때만 ARGV[3i]로 바꾸고, 바꾼 수를 돌려준다
+    private static final RedisScript<Long> COMPARE_AND_SET_SCRIPT = new DefaultRedisScript<>(
+            "local corrected = 0 " +
+            "for i = 1, #KEYS do " +
+            "  local field = ARGV[3 * i - 2] " +
+            "  if (redis.call('HGET', KEYS[i], field) or '') == ARGV[3 * i - 1] then " +
+            "    redis.call('HSET', KEYS[i], field, ARGV[3 * i]) " +
+            "    corrected = corrected + 1 " +
+            "  end " +
+            "end " +
+            "return corrected", Long.class);
+
+    // 락을 잡은 노드의 토큰일 때만 해제
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChatParticipantRepository chatParticipantRepository;
+    private final ChatMessageWriteBehindService writeBehindService;
+    private final Duration reconcileLockTtl;
+
+    // 채팅방 참여자 id 목록 (메시지마다 참여자 조회를 하지 않도록 짧게 캐시, 어긋난 값은 재계산 작업이 바로잡음)
+    private final Cache<Long, List<Long>> roomMemberIds = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(10))
+            .build();
+
+    public ChatUnreadCounterService(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                    ChatParticipantRepository chatParticipantRepository,
+                                    ChatMessageWriteBehindService writeBehindService,
+                                    @Value("${chat.unread.reconcile-interval-ms:600000}") long reconcileIntervalMs) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.chatParticipantRepository = chatParticipantRepository;
+        this.writeBehindService = writeBehindService;
+        this.reconcileLockTtl = Duration.ofMillis(reconcileIntervalMs);
+    }
+
+    /**
+     * 메시지 전송 시 보낸사람을 제외한 참여자의 안 읽은 메시지 수 증가 (파이프라인 한 번)
+     */
+    public void increment(Long roomId, Long senderId) {
+        List<Long> memberIds = roomMemberIds.get(roomId, chatParticipantRepository::findMemberIdsByChatRoomId);
+        if (memberIds == null || memberIds.isEmpty()) {
+            return;
+        }
+        String field = String.valueOf(roomId);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (Long memberId : memberIds) {
+                if (!memberId.equals(senderId)) {
+                    redis.hIncrBy(key(memberId), field, 1);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 읽음 처리 시 0으로 초기화 (필드를 지우지 않고 0을 기록해 '값 없음'과 구분)
+     */
+    public void reset(Long userId, Long roomId) {
+        stringRedisTemplate.opsForHash().put(key(userId), String.valueOf(roomId), "0");
+    }
+
+    /**
+     * 채팅방 참여자가 바뀌었을 때 참여자 id 캐시 제거
+     */
+    public void evictRoom(Long roomId) {
+        roomMemberIds.invalidate(roomId);
+    }
+
+    /**
+     * 한 페이지의 안 읽은 메시지 수를 HMGET 한 번으로 조회
+     * @return roomId → 안 읽은 메시지 수 (Redis에 값이 없는 방은 포함되지 않음)
+     */
+    public Map<Long, Long> getUnreadCounts(Long userId, List<Long> roomIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (roomIds.isEmpty()) {
+            return counts;
+        }
+        List<Object> fields = new ArrayList<>(roomIds.size());
+        for (Long roomId : roomIds) {
+            fields.add(String.valueOf(roomId));
+        }
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(key(userId), fields);
+        for (int i = 0; i < roomIds.size(); i++) {
+            Object value = values.get(i);
+            if (value != null) {
+                counts.put(roomIds.get(i), Math.max(0L, Long.parseLong(value.toString())));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * DB의 읽음 커서 기준으로 카운터를 다시 계산한다.
+     * 여러 노드가 동시에 돌지 않도록 Redis 락을 잡은 노드만 실행하고, 끝나면 락을 푼다.
+     */
+    @Scheduled(fixedDelayString = "${chat.unread.reconcile-interval-ms:600000}",
+            initialDelayString = "${chat.unread.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        String token = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, token, reconcileLockTtl);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            long afterId = 0L;
+            int checked = 0;
+            int corrected = 0;
+            while (true) {
+                List<Object[]> participants = chatParticipantRepository.findParticipantKeysAfter(afterId, PageRequest.of(0, RECONCILE_PAGE_SIZE));
+                if (participants.isEmpty()) {
+                    break;
+                }
+                corrected += reconcilePage(participants);
+                checked += participants.size();
+                afterId = (Long) participants.get(participants.size() - 1)[0];
+            }
+            logger.info("안 읽은 메시지 수 재계산 완료: {}건 확인, {}건 수정", checked, corrected);
+        } finally {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(RECONCILE_LOCK_KEY), token);
+        }
+    }
+
+    // 참여자 한 페이지 [참여자 id, 사용자 id, 채팅방 id] - Redis 값을 먼저 읽고 DB로 계산한 값과 다른 것만 바꾼다
+    private int reconcilePage(List<Object[]> participants) {
+//        저장 대기 중인 메시지는 Redis 값을 읽기 전과 DB 조회 후에 모두 확인한다 (그 사이에 저장이 끝나도 건너뛰도록)
+        List<Boolean> pendingBefore = new ArrayList<>(participants.size());
+        List<Long> participantIds = new ArrayList<>(participants.size());
+        for (Object[] participant : participants) {
+            pendingBefore.add(writeBehindService.hasPending((Long) participant[2]));
+            participantIds.add((Long) participant[0]);
+        }
+        List<Object> before = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (Object[] participant : participants) {
+                redis.hGet(key((Long) participant[1]), String.valueOf(participant[2]));
+            }
+            return null;
+        });
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : chatParticipantRepository.findUnreadCountsByIds(participantIds)) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < participants.size(); i++) {
+            Object[] participant = participants.get(i);
+            Long roomId = (Long) participant[2];
+            Long count = counts.get((Long) participant[0]);
+            String expected = before.get(i) != null ? before.get(i).toString() : "";
+            if (count == null || expected.equals(String.valueOf(count))
+                    || pendingBefore.get(i) || writeBehindService.hasPending(roomId)) {
+                continue;
+            }
+            keys.add(key((Long) participant[1]));
+            args.add(String.valueOf(roomId));
+            args.add(expected);
+            args.add(String.valueOf(count));
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long corrected = stringRedisTemplate.execute(COMPARE_AND_SET_SCRIPT, keys, args.toArray());
+        return corrected != null ? corrected.intValue() : 0;
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+}
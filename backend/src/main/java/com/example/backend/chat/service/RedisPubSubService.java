@@ -1,62 +1,60 @@
 package com.example.backend.chat.service;
 
-import com.example.backend.chat.dto.ChatMessageDto;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.backend.chat.dto.ChatReplayResDto;
+import com.example.backend.common.config.redis.RedisListenerDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 @Service
-public class RedisPubSubService implements MessageListener {
+public class RedisPubSubService implements MessageListener, ChatMessageTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisPubSubService.class);
 
     private final StringRedisTemplate stringRedisTemplate;
-    private final SimpMessageSendingOperations messageTemplate;
-    private final ObjectMapper objectMapper;
+    private final ChatLocalDelivery localDelivery;
+    private final RedisListenerDispatcher listenerDispatcher;
 
-    public RedisPubSubService(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate, 
-                             SimpMessageSendingOperations messageTemplate,
-                             ObjectMapper objectMapper) {
+    public RedisPubSubService(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                             ChatLocalDelivery localDelivery,
+                             RedisListenerDispatcher listenerDispatcher) {
         this.stringRedisTemplate = stringRedisTemplate;
-        this.messageTemplate = messageTemplate;
-        this.objectMapper = objectMapper;
+        this.localDelivery = localDelivery;
+        this.listenerDispatcher = listenerDispatcher;
     }
 
-    public void publish(String channel, String message) {
-        System.out.println("🚀 Redis 채널에 메시지 게시: " + channel + ", 메시지: " + message);
-        stringRedisTemplate.convertAndSend(channel, message);
+    // 채팅방 전용 채널(chat:room:{roomId})로 직렬화된 바이트를 그대로 발행 - 해당 채팅방 구독자가 있는 노드만 수신한다
+    @Override
+    public void publish(Long roomId, byte[] message) {
+        byte[] channel = ChatChannels.roomChannel(roomId).getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+    }
+
+    // 발행 시점에 구독 중인 노드에만 전달되고 남지 않으므로 재전송할 메시지가 없다 - 클라이언트는 순번(seq) 기준 재동기화를 쓴다
+    @Override
+    public Optional<ChatReplayResDto> replay(Long roomId, String afterStreamId, int limit) {
+        return Optional.empty();
     }
 
     @Override
-    // pattern에는 topic의 이름의 패턴이 담겨있고, 이 패턴을 기반으로 다이나믹한 코딩
+    // 채널 이름(chat:room:{roomId})으로 채팅방을 찾고, 본문은 파싱하지 않고 채팅방 레인에서 그대로 전달 (채팅방 단위 순서 보장)
     public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
-        // UTF-8로 명시적 변환
-        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
-        System.out.println("📬 Redis에서 수신한 메시지: " + payload);
-        
-        try {
-            ChatMessageDto chatMessageDto = objectMapper.readValue(payload, ChatMessageDto.class);
-            
-            // UTF-8 인코딩 재확인
-            if (chatMessageDto.getMessage() != null) {
-                byte[] bytes = chatMessageDto.getMessage().getBytes(StandardCharsets.UTF_8);
-                String utf8Message = new String(bytes, StandardCharsets.UTF_8);
-                chatMessageDto.setMessage(utf8Message);
-                System.out.println("📝 인코딩 변환 후 메시지: " + utf8Message);
-            }
-            
-            messageTemplate.convertAndSend("/topic/" + chatMessageDto.getRoomId(), chatMessageDto);
-            System.out.println("📢 WebSocket 클라이언트로 메시지 전송: /topic/" + chatMessageDto.getRoomId());
-        } catch (JsonProcessingException e) {
-            System.err.println("❌ JSON 파싱 오류: " + e.getMessage());
-            throw new RuntimeException(e);
+        Long roomId = ChatChannels.roomIdFromChannel(new String(message.getChannel(), StandardCharsets.UTF_8));
+        if (roomId == null) {
+            logger.warn("채팅방 채널이 아닌 메시지 무시: {}", new String(message.getChannel(), StandardCharsets.UTF_8));
+            return;
         }
+        byte[] body = message.getBody();
+        listenerDispatcher.dispatch(roomId, () -> localDelivery.deliver(roomId, body, null));
     }
 }
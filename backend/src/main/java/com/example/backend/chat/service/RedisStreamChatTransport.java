@@ -0,0 +1,225 @@
+package com.example.backend.chat.service;
+
+import com.example.backend.chat.dto.ChatMessageDto;
+import com.example.backend.chat.dto.ChatReplayResDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Redis Streams 기반 채팅 메시지 전달 (chat.transport=streams)
+ * - 채팅방을 고정 개수의 샤드 스트림(chat:stream:{roomId % shards})에 나눠 XADD, MAXLEN ~ 으로 길이를 제한한다.
+ * - 노드마다 고정된 consumer group(chat.node-id)으로 모든 샤드를 읽으므로, 재시작/지연 중에 쌓인 메시지도 이어서 받는다.
+ *   로컬 구독자가 없는 채팅방의 메시지는 ACK만 하고 버린다.
+ * - 전달되는 프레임에는 stream-id 헤더가 붙고, 클라이언트는 마지막으로 받은 값을 넘겨 끊긴 구간을 재전송(XRANGE) 받을 수 있다.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "chat.transport", havingValue = "streams")
+public class RedisStreamChatTransport implements ChatMessageTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamChatTransport.class);
+    private static final String STREAM_PREFIX = "chat:stream:";
+    private static final String FIELD_ROOM_ID = "roomId";
+    private static final String FIELD_PAYLOAD = "payload";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final ChatLocalDelivery localDelivery;
+    private final ChatRoomSubscriptionRegistry subscriptionRegistry;
+    private final ObjectMapper objectMapper;
+    private final String consumerGroup;
+    private final int shards;
+    private final long maxLength;
+    private final int readBatchSize;
+    private final long pollTimeoutMs;
+
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> listenerContainer;
+
+    public RedisStreamChatTransport(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate,
+                                    RedisConnectionFactory connectionFactory,
+                                    ChatLocalDelivery localDelivery,
+                                    ChatRoomSubscriptionRegistry subscriptionRegistry,
+                                    ObjectMapper objectMapper,
+                                    @Value("${chat.node-id:local}") String nodeId,
+                                    @Value("${chat.streams.shards:16}") int shards,
+                                    @Value("${chat.streams.max-length:100000}") long maxLength,
+                                    @Value("${chat.streams.read-batch-size:100}") int readBatchSize,
+                                    @Value("${chat.streams.poll-timeout-ms:1000}") long pollTimeoutMs) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.localDelivery = localDelivery;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.objectMapper = objectMapper;
+        this.consumerGroup = "node-" + nodeId;
+        this.shards = shards;
+        this.maxLength = maxLength;
+        this.readBatchSize = readBatchSize;
+        this.pollTimeoutMs = pollTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofMillis(pollTimeoutMs))
+                        .batchSize(readBatchSize)
+                        .errorHandler(e -> logger.warn("채팅 스트림 읽기 오류: {}", e.getMessage()))
+                        .build();
+        listenerContainer = StreamMessageListenerContainer.create(connectionFactory, options);
+        for (int shard = 0; shard < shards; shard++) {
+            String key = STREAM_PREFIX + shard;
+            createGroupIfAbsent(key);
+            listenerContainer.receive(Consumer.from(consumerGroup, consumerGroup),
+                    StreamOffset.create(key, ReadOffset.lastConsumed()),
+                    this::onRecord);
+        }
+        listenerContainer.start();
+        logger.info("채팅 스트림 수신 시작: group={}, shards={}", consumerGroup, shards);
+    }
+
+    @PreDestroy
+    public void stop() {
+//        consumer group은 지우지 않는다 - 재시작 후 마지막으로 읽은 위치부터 이어서 받기 위함
+        if (listenerContainer != null) {
+            listenerContainer.stop();
+        }
+    }
+
+    @Override
+    public void publish(Long roomId, byte[] message) {
+        Map<byte[], byte[]> fields = new HashMap<>(4);
+        fields.put(bytes(FIELD_ROOM_ID), bytes(String.valueOf(roomId)));
+        fields.put(bytes(FIELD_PAYLOAD), message);
+        MapRecord<byte[], byte[], byte[]> record = MapRecord.create(bytes(streamKey(roomId)), fields);
+        XAddOptions options = XAddOptions.maxlen(maxLength).approximateTrimming(true);
+        stringRedisTemplate.execute((RedisCallback<RecordId>) connection ->
+                connection.streamCommands().xAdd(record, options));
+    }
+
+    /**
+     * afterStreamId 이후 해당 채팅방 메시지를 스트림 순서대로 조회한다.
+     * 같은 샤드의 다른 채팅방 메시지는 건너뛰며, limit개를 채우거나 스트림 끝에 도달할 때까지 읽는다.
+     */
+    @Override
+    public Optional<ChatReplayResDto> replay(Long roomId, String afterStreamId, int limit) {
+        String key = streamKey(roomId);
+        String room = String.valueOf(roomId);
+        RecordId after = RecordId.of(afterStreamId);
+
+//        스트림이 MAXLEN까지 차서 잘리고 있는데 가장 오래된 항목이 after보다 새로우면, 그 사이 메시지가 잘려나갔을 수 있다
+        List<MapRecord<String, Object, Object>> first = stringRedisTemplate.opsForStream()
+                .range(key, Range.unbounded(), Limit.limit().count(1));
+        Long length = stringRedisTemplate.opsForStream().size(key);
+        boolean truncated = first != null && !first.isEmpty() && compare(first.get(0).getId(), after) > 0
+                && length != null && length >= maxLength;
+
+        List<ChatMessageDto> messages = new ArrayList<>();
+        RecordId cursor = after;
+        boolean hasMore = false;
+        int scanSize = Math.max(limit, readBatchSize);
+        while (true) {
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                    .range(key, Range.rightUnbounded(Range.Bound.exclusive(cursor.getValue())), Limit.limit().count(scanSize));
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            for (MapRecord<String, Object, Object> record : records) {
+                if (messages.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                cursor = record.getId();
+                if (!room.equals(record.getValue().get(FIELD_ROOM_ID))) {
+                    continue;
+                }
+                ChatMessageDto dto = readPayload((String) record.getValue().get(FIELD_PAYLOAD));
+                dto.setStreamId(record.getId().getValue());
+                messages.add(dto);
+            }
+            if (hasMore || records.size() < scanSize) {
+                break;
+            }
+        }
+        return Optional.of(ChatReplayResDto.builder()
+                .messages(messages)
+                .lastStreamId(messages.isEmpty() ? afterStreamId : messages.get(messages.size() - 1).getStreamId())
+                .hasMore(hasMore)
+                .truncated(truncated)
+                .build());
+    }
+
+    private void onRecord(MapRecord<String, String, String> record) {
+        try {
+            Long roomId = Long.valueOf(record.getValue().get(FIELD_ROOM_ID));
+            if (subscriptionRegistry.hasLocalSubscribers(roomId)) {
+                localDelivery.deliver(roomId, bytes(record.getValue().get(FIELD_PAYLOAD)), record.getId().getValue());
+            }
+        } catch (Exception e) {
+            logger.warn("채팅 스트림 메시지 전달 실패 ({}): {}", record.getId(), e.getMessage());
+        } finally {
+            stringRedisTemplate.opsForStream().acknowledge(record.getStream(), consumerGroup, record.getId());
+        }
+    }
+
+    private void createGroupIfAbsent(String key) {
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(bytes(key), consumerGroup, ReadOffset.latest(), true));
+        } catch (Exception e) {
+//            BUSYGROUP : 이미 만들어진 group이면 마지막으로 읽은 위치부터 이어서 읽는다
+            logger.debug("consumer group 이미 존재: {} {}", key, consumerGroup);
+        }
+    }
+
+    private ChatMessageDto readPayload(String payload) {
+        try {
+            return objectMapper.readValue(payload, ChatMessageDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("채팅 스트림 메시지 파싱 실패", e);
+        }
+    }
+
+    private String streamKey(Long roomId) {
+        return STREAM_PREFIX + Math.floorMod(roomId, shards);
+    }
+
+    // 스트림 id (밀리초-순번) 비교
+    static int compare(RecordId a, RecordId b) {
+        int byTime = Long.compare(a.getTimestamp(), b.getTimestamp());
+        return byTime != 0 ? byTime : Long.compare(a.getSequence(), b.getSequence());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
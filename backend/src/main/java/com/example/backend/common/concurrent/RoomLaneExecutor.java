@@ -0,0 +1,138 @@
+package com.example.backend.common.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 키(채팅방 ID 등)별로 고정된 레인(단일 스레드 + 제한된 큐)에서 작업을 실행하는 실행기
+ * - 같은 키의 작업은 항상 같은 레인에서 들어온 순서대로 실행되므로 키 단위 순서가 보장된다.
+ * - 서로 다른 키는 레인 수만큼 병렬로 실행된다.
+ * - 큐가 가득 차면 execute는 자리가 날 때까지 대기하고, tryExecute는 (제한 시간이 있으면 그만큼 기다린 뒤) false를 돌려준다.
+ * - 레인별 누적 작업 시간(busyNanos)을 기록하므로 증가율로 레인 사용률을 볼 수 있다.
+ */
+public class RoomLaneExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomLaneExecutor.class);
+
+    private final String name;
+    private final BlockingQueue<Runnable>[] queues;
+    private final Thread[] workers;
+    private final AtomicLongArray busyNanos;
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    public RoomLaneExecutor(String name, int lanes, int queueCapacity) {
+        if (lanes < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("lanes와 queueCapacity는 1 이상이어야 합니다.");
+        }
+        this.name = name;
+        this.queues = new BlockingQueue[lanes];
+        this.workers = new Thread[lanes];
+        this.busyNanos = new AtomicLongArray(lanes);
+        for (int i = 0; i < lanes; i++) {
+            int lane = i;
+            queues[i] = new ArrayBlockingQueue<>(queueCapacity);
+            workers[i] = new Thread(() -> runLane(lane), name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    public int lanes() {
+        return queues.length;
+    }
+
+    public int laneOf(long key) {
+        return (int) Math.floorMod(key, (long) queues.length);
+    }
+
+    public int queueSize(int lane) {
+        return queues[lane].size();
+    }
+
+    /**
+     * 레인이 작업을 실행하는 데 쓴 누적 시간 (나노초)
+     */
+    public long busyNanos(int lane) {
+        return busyNanos.get(lane);
+    }
+
+    /**
+     * 키의 레인에 작업 등록 - 큐가 가득 차면 자리가 날 때까지 대기한다.
+     */
+    public void execute(long key, Runnable task) {
+        try {
+            queues[laneOf(key)].put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(name + " 작업 등록 중 인터럽트", e);
+        }
+    }
+
+    /**
+     * 키의 레인에 작업 등록 - 기다리지 않고, 큐가 가득 차 있으면 바로 false
+     */
+    public boolean tryExecute(long key, Runnable task) {
+        return queues[laneOf(key)].offer(task);
+    }
+
+    /**
+     * 키의 레인에 작업 등록 - 제한 시간 안에 자리가 나지 않으면 false
+     */
+    public boolean tryExecute(long key, Runnable task, long timeout, TimeUnit unit) {
+        try {
+            return queues[laneOf(key)].offer(task, timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 새 작업을 더 받지 않고, 남은 작업을 제한 시간까지 처리한 뒤 종료한다.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        running = false;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                worker.join(Math.max(1, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    private void runLane(int lane) {
+        BlockingQueue<Runnable> queue = queues[lane];
+        while (running || !queue.isEmpty()) {
+            Runnable task;
+            try {
+                task = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.error("{} 작업 실행 실패", name, t);
+            } finally {
+                busyNanos.addAndGet(lane, System.nanoTime() - start);
+            }
+        }
+    }
+}
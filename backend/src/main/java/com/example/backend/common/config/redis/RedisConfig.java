@@ -9,7 +9,6 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -64,14 +63,17 @@ public class RedisConfig {
 
     /**
      * Redis 메시지 리스너 설정
+     * - 채팅방 채널(chat:room:{roomId})은 ChatRoomSubscriptionRegistry가 로컬 STOMP 구독에 맞춰 동적으로 구독/해제한다.
+     * - 기본값(SimpleAsyncTaskExecutor)은 메시지마다 스레드를 새로 만들고 순서도 보장하지 않으므로,
+     *   RedisListenerDispatcher의 단일 스레드 수신 실행기에서 리스너를 호출한다. (Lettuce I/O 스레드는 큐에 넣기만 하고 막히지 않는다)
+     *   채팅방 메시지는 리스너(RedisPubSubService)가 다시 채팅방 레인으로 넘기므로 수신 실행기도 오래 잡지 않는다.
      */
     @Bean
-    public RedisMessageListenerContainer redisMessageListenerContainer(
-            RedisConnectionFactory redisConnectionFactory,
-            MessageListenerAdapter messageListenerAdapter) {
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       RedisListenerDispatcher listenerDispatcher) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(redisConnectionFactory);
-        container.addMessageListener(messageListenerAdapter, new PatternTopic("chat"));
+        container.setTaskExecutor(listenerDispatcher.handoffExecutor());
         return container;
     }
 
@@ -0,0 +1,105 @@
+package com.example.backend.common.config.redis;
+
+import com.example.backend.common.concurrent.RoomLaneExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis Pub/Sub 수신 메시지 처리기 (Redis를 거치지 않는 로컬 전달도 같은 레인을 쓴다 - ChatMessageRouter)
+ * - 채팅방 id로 고정된 레인(단일 스레드 + 제한된 큐)에서 처리하므로 채팅방 단위 순서가 보장되고 스레드 수가 고정된다.
+ * - 레인 큐가 가득 차면 기다리지 않고 바로 메시지를 버리고 chat.redis.listener.dropped를 올린다.
+ *   (버려진 메시지는 클라이언트가 기록 조회/재전송으로 다시 받는다)
+ * - RedisMessageListenerContainer는 Lettuce I/O 스레드 대신 handoffExecutor(단일 스레드 + 제한된 큐)에서 리스너를 호출한다.
+ *   수신 순서대로 한 스레드에서 넘기므로 채팅방 순서가 유지되고, 채팅방 외 리스너(읽음 알림, 멤버십 무효화, 노드 변경)도 I/O 스레드를 잡지 않는다.
+ *   이 큐도 가득 차면 기다리지 않고 버리고 같은 카운터를 올린다.
+ * - 레인별 큐 길이(chat.redis.listener.queue.depth)와 누적 작업 시간(chat.redis.listener.busy, 증가율 = 사용률)을 노출한다.
+ */
+@Component
+public class RedisListenerDispatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisListenerDispatcher.class);
+
+    private final RoomLaneExecutor lanes;
+    private final ThreadPoolExecutor handoffExecutor;
+    private final Counter droppedCounter;
+
+    public RedisListenerDispatcher(MeterRegistry meterRegistry,
+                                   @Value("${chat.redis-listener.lanes:0}") int lanes,
+                                   @Value("${chat.redis-listener.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${chat.redis-listener.handoff-capacity:10000}") int handoffCapacity) {
+        int laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        this.lanes = new RoomLaneExecutor("chat-redis-listener", laneCount, queueCapacity);
+        this.droppedCounter = Counter.builder("chat.redis.listener.dropped")
+                .description("레인 큐 또는 수신 큐가 가득 차서 버려진 Redis 수신 메시지 수")
+                .register(meterRegistry);
+        this.handoffExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(handoffCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "chat-redis-handoff");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> {
+                    droppedCounter.increment();
+                    logger.debug("Redis 수신 메시지 버림 (수신 큐 가득 참)");
+                });
+        Gauge.builder("chat.redis.listener.handoff.depth", handoffExecutor, e -> e.getQueue().size())
+                .description("리스너 호출을 기다리는 Redis 수신 메시지 수")
+                .register(meterRegistry);
+        for (int i = 0; i < laneCount; i++) {
+            int lane = i;
+            Gauge.builder("chat.redis.listener.queue.depth", this.lanes, l -> l.queueSize(lane))
+                    .tag("lane", String.valueOf(lane))
+                    .description("레인별 처리 대기 중인 Redis 수신 메시지 수")
+                    .register(meterRegistry);
+            FunctionCounter.builder("chat.redis.listener.busy", this.lanes, l -> l.busyNanos(lane) / 1_000_000_000.0)
+                    .tag("lane", String.valueOf(lane))
+                    .baseUnit("seconds")
+                    .description("레인별 누적 작업 시간 (초당 증가량 = 레인 사용률)")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * RedisMessageListenerContainer가 리스너를 호출할 실행기 (Lettuce I/O 스레드에서 넘겨받기만 한다)
+     */
+    public Executor handoffExecutor() {
+        return handoffExecutor;
+    }
+
+    /**
+     * 채팅방 레인에 처리 작업 등록 - 기다리지 않고, 자리가 없으면 바로 버린다.
+     * @return 등록 여부
+     */
+    public boolean dispatch(long roomId, Runnable task) {
+        if (lanes.tryExecute(roomId, task)) {
+            return true;
+        }
+        droppedCounter.increment();
+        logger.debug("Redis 수신 메시지 버림 (roomId={}, lane={})", roomId, lanes.laneOf(roomId));
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        handoffExecutor.shutdown();
+        try {
+            handoffExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lanes.shutdown(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.backend.common.config.websocket;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * clientOutboundChannel 인터셉터 - 세션별 송신 대기 메시지 수를 센다.
+ * 한도를 넘은 세션의 메시지는 대기열에 넣지 않고 버리며 세션을 끊는다 (송신 스레드 풀 대기열이 무한히 커지지 않도록).
+ */
+@Component
+public class ChatOutboundBackpressureInterceptor implements ExecutorChannelInterceptor {
+
+    private final ChatWebSocketSessionRegistry sessionRegistry;
+
+    public ChatOutboundBackpressureInterceptor(ChatWebSocketSessionRegistry sessionRegistry) {
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    @Override
+    @Nullable
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId != null && !sessionRegistry.tryEnqueue(sessionId)) {
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(@NonNull Message<?> message, @NonNull MessageChannel channel,
+                                    @NonNull MessageHandler handler, @Nullable Exception ex) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId != null) {
+            sessionRegistry.dequeued(sessionId);
+        }
+    }
+
+    // 구독자에게 가는 MESSAGE 프레임만 집계 (CONNECT_ACK, 하트비트 등은 제외)
+    @Nullable
+    private static String trackedSessionId(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        return SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.backend.common.config.websocket;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * STOMP CONNECT 시 JWT를 한 번 검증해 만든 세션 사용자 정보
+ * - 세션 속성과 STOMP user로 저장되어 이후 SUBSCRIBE/SEND 프레임은 토큰을 다시 파싱하지 않는다.
+ * - getName()은 이메일 (OAuth 사용자도 username 대신 email 클레임을 사용)
+ */
+public record ChatSessionPrincipal(Long userId, String email, String role, Instant expiresAt) implements Principal {
+
+    public static final String SESSION_ATTRIBUTE = "chatPrincipal";
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
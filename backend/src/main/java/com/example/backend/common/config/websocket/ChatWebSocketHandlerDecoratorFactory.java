@@ -0,0 +1,90 @@
+package com.example.backend.common.config.websocket;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STOMP WebSocket 핸들러 데코레이터
+ * - 연결된 세션을 ChatWebSocketSessionRegistry에 등록하고, 프레임을 소켓에 쓰는 시간을 측정한다.
+ * - 송신 버퍼/시간 한도 초과(SESSION_NOT_RELIABLE)로 끊기는 세션은 RESYNC_REQUIRED 코드로 닫아 클라이언트가 다시 동기화하도록 한다.
+ */
+@Component
+public class ChatWebSocketHandlerDecoratorFactory implements WebSocketHandlerDecoratorFactory {
+
+    private final ChatWebSocketSessionRegistry sessionRegistry;
+
+    public ChatWebSocketHandlerDecoratorFactory(ChatWebSocketSessionRegistry sessionRegistry) {
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    @Override
+    @NonNull
+    public WebSocketHandler decorate(@NonNull WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                WebSocketSession metered = new MeteredSession(session);
+                sessionRegistry.register(metered);
+                super.afterConnectionEstablished(metered);
+            }
+
+            @Override
+            public void handleMessage(@NonNull WebSocketSession session, @NonNull WebSocketMessage<?> message) throws Exception {
+                super.handleMessage(registered(session), message);
+            }
+
+            @Override
+            public void handleTransportError(@NonNull WebSocketSession session, @NonNull Throwable exception) throws Exception {
+                super.handleTransportError(registered(session), exception);
+            }
+
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus closeStatus) throws Exception {
+                WebSocketSession registered = registered(session);
+                sessionRegistry.unregister(session.getId());
+                super.afterConnectionClosed(registered, closeStatus);
+            }
+        };
+    }
+
+    private WebSocketSession registered(WebSocketSession session) {
+        WebSocketSession registered = sessionRegistry.get(session.getId());
+        return registered != null ? registered : session;
+    }
+
+    private class MeteredSession extends WebSocketSessionDecorator {
+
+        MeteredSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendMessage(@NonNull WebSocketMessage<?> message) throws IOException {
+            long start = System.nanoTime();
+            try {
+                super.sendMessage(message);
+            } finally {
+                sessionRegistry.sendLatency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void close(@NonNull CloseStatus status) throws IOException {
+            if (CloseStatus.SESSION_NOT_RELIABLE.equals(status) || ChatWebSocketSessionRegistry.RESYNC_REQUIRED.equals(status)) {
+                sessionRegistry.recordEviction();
+                status = ChatWebSocketSessionRegistry.RESYNC_REQUIRED;
+            }
+            super.close(status);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.backend.common.config.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 이 노드에 연결된 WebSocket 세션과 세션별 송신 대기 메시지 수를 관리한다.
+ * - 송신 대기 메시지가 한도를 넘은 세션(느린 클라이언트)은 메시지를 버리고 RESYNC_REQUIRED(4409)로 연결을 끊는다.
+ *   클라이언트는 이 코드를 받으면 재연결 후 이전 메시지를 다시 조회한다.
+ * - 세션 ID로 연결을 끊을 수 있다. CONNECT 시 인증된 사용자의 토큰 만료 시각이 지나면 주기적으로 TOKEN_EXPIRED(4401)로 끊는다.
+ * - 메트릭 : chat.ws.sessions, chat.ws.outbound.pending.max/total, chat.ws.outbound.dropped,
+ *   chat.ws.sessions.evicted, chat.ws.send.latency
+ */
+@Component
+public class ChatWebSocketSessionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketSessionRegistry.class);
+
+    // 송신 버퍼 초과로 끊긴 세션 : 재연결 후 놓친 메시지를 다시 받아야 함
+    public static final CloseStatus RESYNC_REQUIRED = new CloseStatus(4409, "RESYNC_REQUIRED");
+    // 토큰 만료 : 토큰 재발급 후 다시 연결해야 함
+    public static final CloseStatus TOKEN_EXPIRED = new CloseStatus(4401, "TOKEN_EXPIRED");
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> pending = new ConcurrentHashMap<>();
+    private final Map<String, ChatSessionPrincipal> principals = new ConcurrentHashMap<>();
+    private final int maxPendingMessages;
+
+    private final Counter droppedMessages;
+    private final Counter evictedSessions;
+    private final Timer sendLatency;
+
+    public ChatWebSocketSessionRegistry(MeterRegistry meterRegistry,
+                                        @Value("${chat.websocket.max-pending-messages:1000}") int maxPendingMessages) {
+        this.maxPendingMessages = maxPendingMessages;
+        Gauge.builder("chat.ws.sessions", sessions, Map::size)
+                .description("연결된 WebSocket 세션 수")
+                .register(meterRegistry);
+        Gauge.builder("chat.ws.outbound.pending.max", this, ChatWebSocketSessionRegistry::maxPending)
+                .description("세션별 송신 대기 메시지 수 중 최댓값")
+                .register(meterRegistry);
+        Gauge.builder("chat.ws.outbound.pending.total", this, ChatWebSocketSessionRegistry::totalPending)
+                .description("전체 세션의 송신 대기 메시지 수 합계")
+                .register(meterRegistry);
+        this.droppedMessages = Counter.builder("chat.ws.outbound.dropped")
+                .description("송신 대기 한도 초과로 버린 메시지 수")
+                .register(meterRegistry);
+        this.evictedSessions = Counter.builder("chat.ws.sessions.evicted")
+                .description("느린 클라이언트로 판단되어 끊은 세션 수")
+                .register(meterRegistry);
+        this.sendLatency = Timer.builder("chat.ws.send.latency")
+                .description("WebSocket 프레임 한 건을 소켓에 쓰는 데 걸린 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void register(WebSocketSession session) {
+        sessions.put(session.getId(), session);
+        pending.put(session.getId(), new AtomicInteger());
+    }
+
+    public void unregister(String sessionId) {
+        sessions.remove(sessionId);
+        pending.remove(sessionId);
+        principals.remove(sessionId);
+    }
+
+    /**
+     * CONNECT에서 인증된 사용자 정보 등록 - 토큰 만료 시각 확인에 사용
+     */
+    public void authenticate(String sessionId, ChatSessionPrincipal principal) {
+        if (sessions.containsKey(sessionId)) {
+            principals.put(sessionId, principal);
+        }
+    }
+
+    /**
+     * 토큰이 만료된 세션 종료 (프레임마다 토큰을 파싱하지 않고 주기적으로 확인)
+     */
+    @Scheduled(fixedDelayString = "${chat.websocket.expiry-check-interval-ms:30000}")
+    public void closeExpiredSessions() {
+        Instant now = Instant.now();
+        principals.forEach((sessionId, principal) -> {
+            if (principal.isExpired(now) && principals.remove(sessionId, principal)) {
+                logger.debug("토큰 만료 세션 종료: {} ({})", sessionId, principal.email());
+                close(sessionId, TOKEN_EXPIRED);
+            }
+        });
+    }
+
+    public WebSocketSession get(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * 송신 대기열에 메시지 추가 - 한도를 넘으면 false (메시지를 버리고 세션을 끊는다)
+     */
+    public boolean tryEnqueue(String sessionId) {
+        AtomicInteger count = pending.get(sessionId);
+        if (count == null) {
+            return true;
+        }
+        if (count.incrementAndGet() <= maxPendingMessages) {
+            return true;
+        }
+        count.decrementAndGet();
+        droppedMessages.increment();
+        evict(sessionId);
+        return false;
+    }
+
+    public void dequeued(String sessionId) {
+        AtomicInteger count = pending.get(sessionId);
+        if (count != null) {
+            count.updateAndGet(c -> c > 0 ? c - 1 : 0);
+        }
+    }
+
+    public Timer sendLatency() {
+        return sendLatency;
+    }
+
+    // 송신 버퍼/시간 한도 초과로 끊긴 세션 집계
+    void recordEviction() {
+        evictedSessions.increment();
+    }
+
+    public void evict(String sessionId) {
+        close(sessionId, RESYNC_REQUIRED);
+    }
+
+    public void close(String sessionId, CloseStatus status) {
+        WebSocketSession session = sessions.get(sessionId);
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            logger.debug("WebSocket 세션 종료 실패 ({}): {}", sessionId, e.getMessage());
+        }
+    }
+
+    private double maxPending() {
+        int max = 0;
+        for (AtomicInteger count : pending.values()) {
+            max = Math.max(max, count.get());
+        }
+        return max;
+    }
+
+    private double totalPending() {
+        long total = 0;
+        for (AtomicInteger count : pending.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.backend.common.config.websocket;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * 채팅방 단위로 분할된 인메모리 브로커 (chat.broker.mode=partitioned, 기본값 simple)
+ * - brokerChannel 처리를 roomId 기준 레인으로 나눠 여러 코어에서 병렬 처리 (채팅방 내 순서 유지)
+ * - 구독자 조회는 목적지 정확히 일치 해시 조회 (RoomSubscriptionRegistry)
+ * - 레인에서 병렬로 나간 메시지가 세션별로 뒤섞이지 않도록 preservePublishOrder를 켠다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "partitioned")
+public class PartitionedBrokerConfig implements WebSocketMessageBrokerConfigurer {
+
+    @Value("${chat.broker.lanes:0}")
+    private int lanes;
+
+    @Value("${chat.broker.lane-queue-capacity:10000}")
+    private int laneQueueCapacity;
+
+    @Bean
+    public RoomPartitionedBrokerExecutor roomPartitionedBrokerExecutor() {
+        int laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        RoomPartitionedBrokerExecutor executor = new RoomPartitionedBrokerExecutor(laneCount, laneQueueCapacity);
+//        채팅방이 아닌 목적지용 풀 - 큐가 무제한이면 core 수 이상으로 늘지 않으므로 core = max 로 두고 쉬는 스레드는 정리한다
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // SimpleBrokerMessageHandler가 시작되기 전에 구독 레지스트리를 교체
+    @Bean
+    public static BeanPostProcessor roomSubscriptionRegistryInstaller() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) throws BeansException {
+                if (bean instanceof SimpleBrokerMessageHandler handler) {
+                    handler.setSubscriptionRegistry(new RoomSubscriptionRegistry());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void configureMessageBroker(@NonNull MessageBrokerRegistry registry) {
+        registry.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void configureBrokerChannel(@NonNull ChannelRegistration registration) {
+        registration.taskExecutor(roomPartitionedBrokerExecutor());
+    }
+}
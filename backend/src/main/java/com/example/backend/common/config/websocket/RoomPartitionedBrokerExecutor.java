@@ -0,0 +1,47 @@
+package com.example.backend.common.config.websocket;
+
+import com.example.backend.chat.service.ChatChannels;
+import com.example.backend.common.concurrent.RoomLaneExecutor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * brokerChannel 실행기 (chat.broker.mode=partitioned)
+ * - /topic/{roomId}... 목적지 메시지는 roomId로 고정된 레인에서 처리해 채팅방 단위 순서를 지키면서 여러 코어로 분산한다.
+ * - 채팅방이 아닌 목적지(/queue, /user 등)는 기본 스레드 풀에서 처리한다.
+ */
+public class RoomPartitionedBrokerExecutor extends ThreadPoolTaskExecutor {
+
+    private final RoomLaneExecutor lanes;
+
+    public RoomPartitionedBrokerExecutor(int lanes, int queueCapacity) {
+        this.lanes = new RoomLaneExecutor("chat-broker", lanes, queueCapacity);
+        setThreadNamePrefix("chat-broker-misc-");
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task instanceof MessageHandlingRunnable runnable) {
+            String destination = SimpMessageHeaderAccessor.getDestination(runnable.getMessage().getHeaders());
+            Long roomId = ChatChannels.roomIdFromDestination(destination);
+            if (roomId != null) {
+                lanes.execute(roomId, task);
+                return;
+            }
+        }
+        super.execute(task);
+    }
+
+    @Override
+    public void destroy() {
+        lanes.shutdown(10, TimeUnit.SECONDS);
+        super.destroy();
+    }
+
+    public RoomLaneExecutor getLanes() {
+        return lanes;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.backend.common.config.websocket;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.broker.AbstractSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 목적지 문자열 정확히 일치로 구독자를 찾는 SubscriptionRegistry (chat.broker.mode=partitioned)
+ * - /topic/{roomId} 같은 고정 목적지는 해시 조회 한 번으로 구독자를 찾는다 (패턴 매칭 없음).
+ * - 목적지별 구독자 스냅샷을 만들어 두고 구독/해제 시에만 다시 만들므로, 메시지마다 맵을 새로 만들지 않는다.
+ * - 와일드카드(*, **) 구독은 드물기 때문에 DefaultSubscriptionRegistry에 위임한다.
+ */
+public class RoomSubscriptionRegistry extends AbstractSubscriptionRegistry {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    // destination -> 구독 정보
+    private final Map<String, DestinationSubscriptions> destinations = new ConcurrentHashMap<>();
+    // sessionId -> (subscriptionId -> destination)
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    private final DefaultSubscriptionRegistry patternRegistry = new DefaultSubscriptionRegistry();
+    // sessionId -> 와일드카드 구독 id 목록 (알고 있는 구독이 빠질 때만 개수를 줄인다)
+    private final Map<String, Set<String>> patternSessions = new ConcurrentHashMap<>();
+    private final AtomicInteger patternSubscriptionCount = new AtomicInteger();
+
+    @Override
+    protected void addSubscriptionInternal(String sessionId, String subscriptionId, String destination, Message<?> message) {
+        if (PATH_MATCHER.isPattern(destination)) {
+            patternRegistry.registerSubscription(message);
+            if (patternSessions.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(subscriptionId)) {
+                patternSubscriptionCount.incrementAndGet();
+            }
+            return;
+        }
+        sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+        destinations.compute(destination, (d, subs) -> {
+            DestinationSubscriptions result = subs != null ? subs : new DestinationSubscriptions();
+            result.add(sessionId, subscriptionId);
+            return result;
+        });
+    }
+
+    @Override
+    protected void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        String destination = subscriptions != null ? subscriptions.remove(subscriptionId) : null;
+        if (destination == null) {
+            removePatternSubscription(sessionId, subscriptionId, message);
+            return;
+        }
+        remove(destination, sessionId, subscriptionId);
+    }
+
+    // 중복 UNSUBSCRIBE나 세션 정리 후의 UNSUBSCRIBE처럼 모르는 구독 id면 개수를 건드리지 않는다
+    private void removePatternSubscription(String sessionId, String subscriptionId, Message<?> message) {
+        boolean[] removed = new boolean[1];
+        patternSessions.computeIfPresent(sessionId, (id, ids) -> {
+            removed[0] = ids.remove(subscriptionId);
+            return ids.isEmpty() ? null : ids;
+        });
+        if (removed[0]) {
+            patternRegistry.unregisterSubscription(message);
+            patternSubscriptionCount.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void unregisterAllSubscriptions(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.forEach((subscriptionId, destination) -> remove(destination, sessionId, subscriptionId));
+        }
+        Set<String> patternIds = patternSessions.remove(sessionId);
+        if (patternIds != null) {
+            patternRegistry.unregisterAllSubscriptions(sessionId);
+            patternSubscriptionCount.addAndGet(-patternIds.size());
+        }
+    }
+
+    @Override
+    protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+        DestinationSubscriptions subs = destinations.get(destination);
+        MultiValueMap<String, String> exact = subs != null ? subs.snapshot() : EMPTY;
+        if (patternSubscriptionCount.get() == 0) {
+            return exact;
+        }
+        MultiValueMap<String, String> byPattern = patternRegistry.findSubscriptions(message);
+        if (byPattern.isEmpty()) {
+            return exact;
+        }
+        MultiValueMap<String, String> merged = new LinkedMultiValueMap<>(exact);
+        byPattern.forEach(merged::addAll);
+        return merged;
+    }
+
+    private void remove(String destination, String sessionId, String subscriptionId) {
+        destinations.computeIfPresent(destination, (d, subs) -> subs.remove(sessionId, subscriptionId) ? null : subs);
+    }
+
+    private static final MultiValueMap<String, String> EMPTY = CollectionUtils.unmodifiableMultiValueMap(new LinkedMultiValueMap<>());
+
+    /**
+     * 한 목적지의 구독자 (sessionId -> subscriptionId 목록)와 조회용 스냅샷
+     */
+    private static final class DestinationSubscriptions {
+
+        private final Map<String, Set<String>> subscriptions = new ConcurrentHashMap<>();
+        // 구독이 바뀔 때마다 증가 - 스냅샷의 버전과 다르면 다시 만든다
+        private final AtomicLong version = new AtomicLong();
+        @Nullable
+        private volatile Snapshot snapshot;
+
+        void add(String sessionId, String subscriptionId) {
+            subscriptions.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(subscriptionId);
+            version.incrementAndGet();
+        }
+
+        // 마지막 구독이 빠지면 true
+        boolean remove(String sessionId, String subscriptionId) {
+            subscriptions.computeIfPresent(sessionId, (id, ids) -> {
+                ids.remove(subscriptionId);
+                return ids.isEmpty() ? null : ids;
+            });
+            version.incrementAndGet();
+            return subscriptions.isEmpty();
+        }
+
+        MultiValueMap<String, String> snapshot() {
+            long currentVersion = version.get();
+            Snapshot current = snapshot;
+            if (current != null && current.version() == currentVersion) {
+                return current.subscriptions();
+            }
+            LinkedMultiValueMap<String, String> built = new LinkedMultiValueMap<>(subscriptions.size());
+            subscriptions.forEach((sessionId, ids) -> built.put(sessionId, List.copyOf(ids)));
+            MultiValueMap<String, String> result = CollectionUtils.unmodifiableMultiValueMap(built);
+            snapshot = new Snapshot(currentVersion, result);
+            return result;
+        }
+    }
+
+    private record Snapshot(long version, MultiValueMap<String, String> subscriptions) {
+    }
+}
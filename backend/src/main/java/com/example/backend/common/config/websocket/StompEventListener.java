@@ -1,36 +1,63 @@
 package com.example.backend.common.config.websocket;
 
 
+import com.example.backend.chat.service.ChatPresenceService;
+import com.example.backend.chat.service.ChatRoomSubscriptionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
-
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
 
 //스프링과 stomp는 기본적으로 세션관리를 자동(내부적)으로 처리
-//연결/해제 이벤트를 기록, 연결된 세션수를 실시간으로 확인할 목적으로 이벤트 리스너를 생성 => 로그, 디버깅 목적
+//연결/구독/구독해제/연결해제 이벤트로 채팅방별 Redis 채널 구독과 클러스터 접속 현황(ChatPresenceService)을 관리
+//연결된 세션/사용자 수는 chat.presence.* 메트릭으로 확인
 @Component
 public class StompEventListener {
 
-    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private static final Logger logger = LoggerFactory.getLogger(StompEventListener.class);
+
+    private final ChatRoomSubscriptionRegistry subscriptionRegistry;
+    private final ChatPresenceService presenceService;
+
+    public StompEventListener(ChatRoomSubscriptionRegistry subscriptionRegistry, ChatPresenceService presenceService) {
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.presenceService = presenceService;
+    }
 
+//    CONNECTED 응답 시점 : StompHandler가 CONNECT에서 인증한 사용자가 이벤트에 담겨 있다
     @EventListener
-    public void connectHandle(SessionConnectEvent event){
+    public void connectHandle(SessionConnectedEvent event){
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-        sessions.add(accessor.getSessionId());
-        System.out.println("connect sessiond ID" + accessor.getSessionId());
-        System.out.println("total session : " + sessions.size());
+        if (event.getUser() instanceof ChatSessionPrincipal principal) {
+            presenceService.connect(accessor.getSessionId(), principal.userId());
+        }
+        logger.debug("STOMP 연결: {}", accessor.getSessionId());
     }
 
     @EventListener
-    public void disconnectHandle(SessionDisconnectEvent event){
+    public void subscribeHandle(SessionSubscribeEvent event){
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-        sessions.remove(accessor.getSessionId());
-        System.out.println("disconnect sessiond ID" + accessor.getSessionId());
-        System.out.println("total session : " + sessions.size());
+        subscriptionRegistry.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination());
+        presenceService.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination());
+    }
+
+    @EventListener
+    public void unsubscribeHandle(SessionUnsubscribeEvent event){
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        subscriptionRegistry.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+        presenceService.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void disconnectHandle(SessionDisconnectEvent event){
+        subscriptionRegistry.removeSession(event.getSessionId());
+        presenceService.disconnect(event.getSessionId());
+        logger.debug("STOMP 연결 해제: {}", event.getSessionId());
     }
 }
@@ -1,197 +1,228 @@
 package com.example.backend.common.config.websocket;
 
-import com.example.backend.chat.service.ChatService;
+import com.example.backend.chat.dto.ChatSendRejectedDto;
+import com.example.backend.chat.service.ChatChannels;
+import com.example.backend.chat.service.ChatMembershipService;
+import com.example.backend.chat.service.ChatSendRateLimiter;
+import com.example.backend.security.constant.TokenConstants;
 import com.example.backend.security.jwt.JWTUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
-import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationServiceException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
-import java.util.Collections;
-import java.util.List;
+import java.util.Map;
 
+/**
+ * STOMP 인증/인가 인터셉터
+ * - CONNECT : JWT 서명을 한 번만 검증하고 사용자 id/이메일/역할/만료 시각을 ChatSessionPrincipal로 세션에 저장
+ * - SUBSCRIBE/SEND : 세션에 저장된 principal만 사용 (토큰 파싱 없음), 채팅방 참여 여부는 캐시로 확인
+ * - SEND : 참여 여부를 먼저 확인한 뒤, 저장/전달 전에 사용자별/채팅방별 전송 속도 제한을 확인한다.
+ *   참여자가 아닌 사용자는 버킷을 쓰지 못하므로 다른 채팅방의 전송 한도를 소진시킬 수 없다.
+ *   초과한 프레임은 버리고 보낸 사람에게만 /user/queue/errors 로 RATE_LIMITED를 알린다. (연결은 유지)
+ * - 토큰 만료는 ChatWebSocketSessionRegistry가 주기적으로 확인해 세션을 끊는다.
+ * 인증/인가 실패는 예외로 전파되어 클라이언트에 STOMP ERROR 프레임이 전달된다.
+ */
 @Component
 public class StompHandler implements ChannelInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(StompHandler.class);
+    private static final String PUBLISH_PREFIX = "/publish/";
+    private static final String ERROR_QUEUE = "/queue/errors";
+    private static final String RATE_LIMITED = "RATE_LIMITED";
 
     private final JWTUtil jwtUtil;
-    private final ChatService chatService;
+    private final ChatMembershipService membershipService;
+    private final ChatWebSocketSessionRegistry sessionRegistry;
+    private final ChatSendRateLimiter rateLimiter;
+    private final SimpMessageSendingOperations messageTemplate;
 
+//    브로커 템플릿은 이 인터셉터를 등록하는 설정보다 나중에 만들어지므로 지연 주입
     public StompHandler(
-        ChatService chatService,
-        JWTUtil jwtUtil
+        ChatMembershipService membershipService,
+        JWTUtil jwtUtil,
+        ChatWebSocketSessionRegistry sessionRegistry,
+        ChatSendRateLimiter rateLimiter,
+        @Lazy SimpMessageSendingOperations messageTemplate
     ) {
-        this.chatService = chatService;
+        this.membershipService = membershipService;
         this.jwtUtil = jwtUtil;
+        this.sessionRegistry = sessionRegistry;
+        this.rateLimiter = rateLimiter;
+        this.messageTemplate = messageTemplate;
     }
 
     @Override
     public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
 
-        try {
-            if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-                logger.debug("[STOMP CONNECT] 토큰 검증 시작...");
-                
-                // 헤더에서 Authorization 토큰 추출
-                List<String> authorization = accessor.getNativeHeader("Authorization");
-                
-                if (authorization != null && !authorization.isEmpty()) {
-                    String bearerToken = authorization.get(0);
-                    if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-                        String token = bearerToken.substring(7);
-                        logger.debug("JWT 토큰 검증: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
-                        
-                        validateToken(token, accessor);
-                    }
-                } else {
-                    logger.debug("Authorization 헤더가 없거나 비어 있습니다.");
-                }
-                
-                // 쿼리 파라미터에서 토큰 추출 시도 (백업 방식)
-                String query = accessor.getFirstNativeHeader("query");
-                if (query != null && query.contains("token=")) {
-                    String token = extractTokenFromQuery(query);
-                    logger.debug("쿼리 파라미터에서 토큰 추출: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
-                    
-                    validateToken(token, accessor);
+        switch (accessor.getCommand()) {
+            case CONNECT -> authenticate(accessor);
+            case SUBSCRIBE -> authorizeSubscribe(accessor);
+            case SEND -> {
+                authorizeSend(accessor);
+                if (!acquireSendPermit(accessor)) {
+                    return null;
                 }
             }
+            default -> {
+            }
+        }
+        return message;
+    }
 
-            if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
-                System.out.println("🔐 [STOMP SUBSCRIBE] principal 기반 권한 확인...");
-
-                // 헤더에서 Authorization 토큰 추출 및 검증
-                List<String> authorization = accessor.getNativeHeader("Authorization");
-                if (authorization != null && !authorization.isEmpty()) {
-                    String bearerToken = authorization.get(0);
-                    if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-                        String token = bearerToken.substring(7);
-                        logger.debug("SUBSCRIBE 토큰 검증: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
-                        validateToken(token, accessor);
-                    }
-                }
+    private void authenticate(StompHeaderAccessor accessor) {
+        String token = resolveToken(accessor);
+        if (token == null) {
+            throw new AuthenticationServiceException("🚨 인증 토큰이 없습니다.");
+        }
 
-                Principal principal = accessor.getUser();
-                if (principal == null) {
-                    throw new AuthenticationServiceException("🚨 인증되지 않은 사용자입니다.");
-                }
-                String email = principal.getName();
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new AuthenticationServiceException("🚨 유효하지 않은 토큰입니다: " + e.getMessage());
+        }
+        if (!TokenConstants.ACCESS_TOKEN_CATEGORY.equals(claims.get(TokenConstants.TOKEN_CLAIM_CATEGORY, String.class))) {
+            throw new AuthenticationServiceException("🚨 access 토큰이 아닙니다.");
+        }
 
-                String destination = accessor.getDestination();
-                Long roomId = parseRoomId(destination);
+//        OAuth 사용자는 username이 제공자 id이므로 email 클레임을 우선 사용
+        String email = claims.get(TokenConstants.TOKEN_CLAIM_EMAIL, String.class);
+        if (email == null) {
+            email = claims.get(TokenConstants.TOKEN_CLAIM_USERNAME, String.class);
+        }
+        Long userId = membershipService.findUserId(email);
+        if (userId == null) {
+            throw new AuthenticationServiceException("🚨 사용자를 찾을 수 없습니다.");
+        }
 
-                // 채팅방 참여 여부 확인
-                if (!chatService.isRoomPaticipant(email, roomId)) {
-                    throw new AuthenticationServiceException("🚨 채팅방 권한이 없습니다.");
-                }
+        ChatSessionPrincipal principal = new ChatSessionPrincipal(
+                userId,
+                email,
+                claims.get(TokenConstants.TOKEN_CLAIM_ROLE, String.class),
+                claims.getExpiration().toInstant());
+        accessor.setUser(principal);
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        if (sessionAttributes != null) {
+            sessionAttributes.put(ChatSessionPrincipal.SESSION_ATTRIBUTE, principal);
+        }
+        sessionRegistry.authenticate(accessor.getSessionId(), principal);
+        logger.debug("[STOMP CONNECT] 인증 완료: userId={}, session={}", userId, accessor.getSessionId());
+    }
 
-                System.out.println("✅ [STOMP SUBSCRIBE] 사용자: " + email + ", roomId=" + roomId);
-            }
+    private void authorizeSubscribe(StompHeaderAccessor accessor) {
+        ChatSessionPrincipal principal = principal(accessor);
+        String destination = accessor.getDestination();
+//        채팅방 토픽만 참여 여부 확인 (/user/queue/... 등 개인 목적지는 통과)
+        if (destination == null || !destination.startsWith(ChatChannels.TOPIC_PREFIX)) {
+            return;
+        }
+        Long roomId = ChatChannels.roomIdFromDestination(destination);
+        if (!membershipService.isParticipant(roomId, principal.userId())) {
+            throw new AccessDeniedException("🚨 채팅방 권한이 없습니다.");
+        }
+    }
 
-            // SEND 명령어 처리 추가 (채팅 메시지 전송)
-            if (StompCommand.SEND.equals(accessor.getCommand())) {
-                logger.info("🔔 [STOMP SEND] 메시지 전송 요청 감지");
-                
-                // 헤더에서 Authorization 토큰 추출 및 검증
-                List<String> authorization = accessor.getNativeHeader("Authorization");
-                if (authorization != null && !authorization.isEmpty()) {
-                    String bearerToken = authorization.get(0);
-                    if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-                        String token = bearerToken.substring(7);
-                        logger.debug("SEND 토큰 검증: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
-                        validateToken(token, accessor);
-                    }
-                }
-                
-                Principal principal = accessor.getUser();
-                if (principal == null) {
-                    logger.error("인증되지 않은 사용자의 메시지 전송 시도");
-                    return message;
-                }
-                
-                String email = principal.getName();
-                String destination = accessor.getDestination();
-                
-                // /app/chat/1 또는 /publish/1 형식의 메시지 전송 경로에서 방 ID 추출
-                if (destination != null && (destination.startsWith("/app/chat/") || destination.startsWith("/publish/"))) {
-                    try {
-                        Long roomId;
-                        if (destination.startsWith("/app/chat/")) {
-                            roomId = Long.parseLong(destination.substring("/app/chat/".length()));
-                        } else {
-                            roomId = Long.parseLong(destination.substring("/publish/".length()));
-                        }
-                        logger.info("메시지 전송 확인: 사용자={}, 채팅방={}, 경로={}", email, roomId, destination);
-                        
-                        // 여기서는 메시지 내용 로깅만 수행 (실제 저장은 컨트롤러에서)
-                        logger.debug("메시지 내용: {}", new String((byte[]) message.getPayload()));
-                    } catch (Exception e) {
-                        logger.error("메시지 처리 중 오류: {}", e.getMessage());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.error("STOMP 메시지 처리 중 오류 발생", e);
+    private void authorizeSend(StompHeaderAccessor accessor) {
+        ChatSessionPrincipal principal = principal(accessor);
+        Long roomId = parsePublishRoomId(accessor.getDestination());
+        if (roomId != null && !membershipService.isParticipant(roomId, principal.userId())) {
+            throw new AccessDeniedException("🚨 채팅방 권한이 없습니다.");
         }
-        
-        return message;
     }
-    
-    private void validateToken(String token, StompHeaderAccessor accessor) {
+
+    // 전송 속도 제한 - 초과하면 보낸 사람에게 알리고 false (프레임을 버린다)
+    private boolean acquireSendPermit(StompHeaderAccessor accessor) {
+        ChatSessionPrincipal principal = principal(accessor);
+        Long roomId = parsePublishRoomId(accessor.getDestination());
+        if (roomId == null) {
+            return true;
+        }
+        ChatSendRateLimiter.Rejection rejection = rateLimiter.tryAcquire(principal.userId(), roomId);
+        if (rejection == null) {
+            return true;
+        }
+        logger.debug("[STOMP SEND] 전송 속도 제한: userId={}, roomId={}, scope={}", principal.userId(), roomId, rejection.scope());
+        ChatSendRejectedDto rejected = ChatSendRejectedDto.builder()
+                .code(RATE_LIMITED)
+                .scope(rejection.scope())
+                .roomId(roomId)
+                .retryAfterMs(rejection.retryAfterMs())
+                .receiptId(accessor.getReceipt())
+                .build();
         try {
-            if (!jwtUtil.isExpired(token)) {
-                String username = jwtUtil.getUsername(token);
-                String role = jwtUtil.getRole(token);
-                logger.debug("토큰 검증 성공! 사용자: {}, 역할: {}", username, role);
-                
-                // 인증 정보 저장
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                    username,
-                    null,
-                    Collections.singletonList(new SimpleGrantedAuthority(role))
-                );
-                accessor.setUser(auth);
-            } else {
-                logger.debug("토큰이 만료되었습니다.");
-            }
+            messageTemplate.convertAndSendToUser(principal.getName(), ERROR_QUEUE, rejected);
         } catch (Exception e) {
-            logger.error("토큰 검증 오류: {}", e.getMessage());
+            logger.warn("전송 거부 알림 실패 (userId={}): {}", principal.userId(), e.getMessage());
+        }
+        return false;
+    }
+
+    private ChatSessionPrincipal principal(StompHeaderAccessor accessor) {
+        Principal user = accessor.getUser();
+        if (user instanceof ChatSessionPrincipal principal) {
+            return principal;
+        }
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        if (sessionAttributes != null && sessionAttributes.get(ChatSessionPrincipal.SESSION_ATTRIBUTE) instanceof ChatSessionPrincipal principal) {
+            return principal;
         }
+        throw new AuthenticationServiceException("🚨 인증되지 않은 사용자입니다.");
     }
-    
+
+    // Authorization 헤더 또는 query 헤더(token=...)에서 토큰 추출
+    private String resolveToken(StompHeaderAccessor accessor) {
+        String bearerToken = accessor.getFirstNativeHeader("Authorization");
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        String query = accessor.getFirstNativeHeader("query");
+        if (query != null && query.contains("token=")) {
+            return extractTokenFromQuery(query);
+        }
+        return null;
+    }
+
     // 쿼리 문자열에서 토큰 추출
     private String extractTokenFromQuery(String query) {
         int tokenIndex = query.indexOf("token=");
         if (tokenIndex == -1) return null;
-        
+
         String token = query.substring(tokenIndex + 6);
         int endIndex = token.indexOf("&");
-        
+
         if (endIndex != -1) {
             token = token.substring(0, endIndex);
         }
-        
+
         return token;
     }
-    
-    private Long parseRoomId(String dest) {
+
+    // /publish/{roomId} 에서 채팅방 ID 추출 (형식이 다르면 null)
+    private Long parsePublishRoomId(String destination) {
+        if (destination == null || !destination.startsWith(PUBLISH_PREFIX)) {
+            return null;
+        }
         try {
-            String[] parts = dest.split("/");
-            return Long.parseLong(parts[parts.length - 1]);
-        } catch (Exception e) {
-            logger.error("방 ID 파싱 중 오류: {}", e.getMessage());
+            return Long.parseLong(destination.substring(PUBLISH_PREFIX.length()));
+        } catch (NumberFormatException e) {
             return null;
         }
     }
-}
\ No newline at end of file
+}
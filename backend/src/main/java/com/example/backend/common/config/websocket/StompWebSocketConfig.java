@@ -8,6 +8,7 @@ import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 import org.springframework.lang.NonNull;
 
@@ -19,10 +20,26 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Value("${CORS_ALLOWED_ORIGINS:http://localhost:5173}")
     private String corsAllowedOrigins;
+
+    @Value("${chat.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${chat.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${chat.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
     private final StompHandler stompHandler;
+    private final ChatWebSocketHandlerDecoratorFactory handlerDecoratorFactory;
+    private final ChatOutboundBackpressureInterceptor outboundBackpressureInterceptor;
 
-    public StompWebSocketConfig(StompHandler stompHandler) {
+    public StompWebSocketConfig(StompHandler stompHandler,
+                                ChatWebSocketHandlerDecoratorFactory handlerDecoratorFactory,
+                                ChatOutboundBackpressureInterceptor outboundBackpressureInterceptor) {
         this.stompHandler = stompHandler;
+        this.handlerDecoratorFactory = handlerDecoratorFactory;
+        this.outboundBackpressureInterceptor = outboundBackpressureInterceptor;
     }
 
     @Override
@@ -40,7 +57,9 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.setApplicationDestinationPrefixes("/publish");
 
 //        /topic/1형태로 메시지를 수신(subscribe)해야 함을 설정
-        registry.enableSimpleBroker("/topic");
+//        /user/queue/ack 처럼 사용자별 목적지는 /queue 로 전달 (전송 확인 응답)
+        registry.enableSimpleBroker("/topic", "/queue");
+        registry.setUserDestinationPrefix("/user");
 
     }
 
@@ -51,6 +70,21 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registration.interceptors(stompHandler);
     }
 
+//    느린 클라이언트 대비 : 세션별 송신 버퍼 크기/송신 시간 한도, 넘으면 RESYNC_REQUIRED로 연결 종료
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(handlerDecoratorFactory);
+    }
+
+//    세션별 송신 대기 메시지 수 집계 및 한도 초과 시 메시지 폐기
+    @Override
+    public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+        registration.interceptors(outboundBackpressureInterceptor);
+    }
+
     // 메시지 컨버터 설정 - UTF-8 인코딩 처리
     @Override
     public boolean configureMessageConverters(@NonNull List<MessageConverter> messageConverters) {
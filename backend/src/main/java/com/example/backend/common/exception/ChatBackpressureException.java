@@ -0,0 +1,23 @@
+package com.example.backend.common.exception;
+
+/**
+ * 채팅 처리 대기열이 가득 차서 메시지를 더 받을 수 없을 때 발생하는 예외 클래스
+ * 보내는 쪽은 잠시 후 다시 시도해야 한다.
+ */
+public class ChatBackpressureException extends RuntimeException {
+    /**
+     * 기본 생성자
+     * 기본 에러 메시지 "채팅 메시지 처리 대기열이 가득 찼습니다."를 설정
+     */
+    public ChatBackpressureException() {
+        super("채팅 메시지 처리 대기열이 가득 찼습니다.");
+    }
+
+    /**
+     * 메시지를 받아서 예외를 생성하는 생성자
+     * @param message 예외 발생 시 표시할 에러 메시지
+     */
+    public ChatBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -42,6 +42,15 @@ public class JWTUtil {
                 .getPayload();
     }
 
+    /**
+     * 🔹 서명 검증 후 클레임 전체 반환
+     * - 여러 클레임이 필요할 때 서명 검증을 한 번만 하도록 사용
+     * - 만료되었거나 위조된 토큰이면 JwtException 발생
+     */
+    public Claims parseClaims(String token) {
+        return getPayload(token);
+    }
+
     /**
      * 🔹 토큰에서 사용자 아이디(username) 추출
      */
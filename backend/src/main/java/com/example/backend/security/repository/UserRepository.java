@@ -4,6 +4,8 @@ import com.example.backend.security.entity.UserEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 import org.springframework.lang.NonNull;
 
@@ -26,6 +28,13 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      */
     Optional<UserEntity> findByEmail(String email);
 
+    /**
+     * 🔹 email로 사용자 id만 조회
+     * - 엔티티 전체가 필요 없는 권한 확인 등에 사용
+     */
+    @Query("SELECT u.id FROM UserEntity u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
     Optional<UserEntity> findByUsername(String username);
     boolean existsByUsername(String username);
     
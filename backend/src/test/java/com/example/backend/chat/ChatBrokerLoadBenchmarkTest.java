@@ -0,0 +1,102 @@
+package com.example.backend.chat;
+
+import com.example.backend.common.config.websocket.RoomPartitionedBrokerExecutor;
+import com.example.backend.common.config.websocket.RoomSubscriptionRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 인메모리 브로커 부하 테스트 (./gradlew benchmark 로 실행)
+ * 세션 수를 늘려가며 simple(기본 SimpleBroker, 단일 전달 경로)과 partitioned(채팅방 레인 + 정확히 일치 레지스트리)의
+ * 초당 전달 메시지 수를 비교한다. 세션은 소수의 hot room에 몰려 있다고 가정한다.
+ */
+@Tag("benchmark")
+class ChatBrokerLoadBenchmarkTest {
+
+	private static final int ROOMS = 8;
+	private static final int MESSAGES = 20_000;
+	private static final byte[] PAYLOAD = "{\"message\":\"hello\"}".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	@DisplayName("세션 수별 초당 전달 메시지 수: simple vs partitioned")
+	void compare_throughput() throws Exception {
+		for (int sessions : new int[]{100, 1_000, 5_000}) {
+			double simple = run(sessions, false);
+			double partitioned = run(sessions, true);
+			System.out.printf("[broker] sessions=%d simple=%.0f msg/s partitioned=%.0f msg/s%n", sessions, simple, partitioned);
+		}
+	}
+
+	private double run(int sessions, boolean partitioned) throws Exception {
+		LongAdder delivered = new LongAdder();
+		ExecutorSubscribableChannel inbound = new ExecutorSubscribableChannel();
+		ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel();
+		outbound.subscribe(message -> delivered.increment());
+
+		RoomPartitionedBrokerExecutor executor = null;
+		ExecutorSubscribableChannel brokerChannel;
+		if (partitioned) {
+			executor = new RoomPartitionedBrokerExecutor(Runtime.getRuntime().availableProcessors(), 10_000);
+			executor.initialize();
+			brokerChannel = new ExecutorSubscribableChannel(executor);
+		} else {
+			brokerChannel = new ExecutorSubscribableChannel();
+		}
+
+		SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(inbound, outbound, brokerChannel, List.of("/topic"));
+		if (partitioned) {
+			broker.setSubscriptionRegistry(new RoomSubscriptionRegistry());
+		}
+		broker.start();
+
+		for (int i = 0; i < sessions; i++) {
+			broker.handleMessage(subscribe("s" + i, "/topic/" + (i % ROOMS)));
+		}
+
+		long expected = (long) MESSAGES * sessions / ROOMS;
+		long start = System.nanoTime();
+		for (int i = 0; i < MESSAGES; i++) {
+			brokerChannel.send(message("/topic/" + (i % ROOMS)));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+		while (delivered.sum() < expected && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+		}
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		assertThat(delivered.sum()).isEqualTo(expected);
+
+		broker.stop();
+		if (executor != null) {
+			executor.destroy();
+		}
+		return expected / seconds;
+	}
+
+	private static Message<byte[]> subscribe(String sessionId, String destination) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+		accessor.setSessionId(sessionId);
+		accessor.setSubscriptionId("sub-0");
+		accessor.setDestination(destination);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+
+	private static Message<byte[]> message(String destination) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setDestination(destination);
+		return MessageBuilder.createMessage(PAYLOAD, accessor.getMessageHeaders());
+	}
+}
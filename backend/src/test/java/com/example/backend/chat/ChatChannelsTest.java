@@ -0,0 +1,54 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatChannels;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatChannelsTest {
+
+	@Test
+	@DisplayName("roomIdFromDestination: /topic/{roomId} 및 하위 경로에서 방 ID 추출")
+	void roomIdFromDestination_ok() {
+		assertThat(ChatChannels.roomIdFromDestination("/topic/12")).isEqualTo(12L);
+		assertThat(ChatChannels.roomIdFromDestination("/topic/12/receipts")).isEqualTo(12L);
+	}
+
+	@Test
+	@DisplayName("roomIdFromDestination: 형식이 다르면 null")
+	void roomIdFromDestination_invalid() {
+		assertThat(ChatChannels.roomIdFromDestination(null)).isNull();
+		assertThat(ChatChannels.roomIdFromDestination("/topic/")).isNull();
+		assertThat(ChatChannels.roomIdFromDestination("/topic/abc")).isNull();
+		assertThat(ChatChannels.roomIdFromDestination("/topic/12abc")).isNull();
+		assertThat(ChatChannels.roomIdFromDestination("/queue/12")).isNull();
+	}
+
+	@Test
+	@DisplayName("roomIdFromRoomTopic: /topic/{roomId} 와 정확히 같을 때만 방 ID 추출")
+	void roomIdFromRoomTopic_exact() {
+		assertThat(ChatChannels.roomIdFromRoomTopic("/topic/12")).isEqualTo(12L);
+		assertThat(ChatChannels.roomIdFromRoomTopic("/topic/12/receipts")).isNull();
+		assertThat(ChatChannels.roomIdFromRoomTopic("/topic/012")).isNull();
+		assertThat(ChatChannels.roomIdFromRoomTopic("/queue/12")).isNull();
+	}
+
+	@Test
+	@DisplayName("roomIdFromBatchTopic: /topic/{roomId}/batch 에서만 방 ID 추출")
+	void roomIdFromBatchTopic_exact() {
+		assertThat(ChatChannels.roomIdFromBatchTopic(ChatChannels.roomBatchTopic(12L))).isEqualTo(12L);
+		assertThat(ChatChannels.roomIdFromBatchTopic("/topic/12")).isNull();
+		assertThat(ChatChannels.roomIdFromBatchTopic("/topic/12/receipts")).isNull();
+	}
+
+	@Test
+	@DisplayName("roomChannel / roomIdFromChannel 왕복 변환")
+	void roomChannel_roundTrip() {
+		String channel = ChatChannels.roomChannel(34L);
+		assertThat(channel).isEqualTo("chat:room:34");
+		assertThat(ChatChannels.roomIdFromChannel(channel)).isEqualTo(34L);
+		assertThat(ChatChannels.roomIdFromChannel("chat")).isNull();
+		assertThat(ChatChannels.roomIdFromChannel(ChatChannels.roomReceiptChannel(34L))).isNull();
+	}
+}
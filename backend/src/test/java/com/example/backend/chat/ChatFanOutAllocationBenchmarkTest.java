@@ -0,0 +1,87 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.dto.ChatMessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 채팅 메시지 fan-out 경로의 메시지당 힙 할당량 비교 (./gradlew benchmark 로 실행)
+ * - 이전 : writeValueAsString → getBytes(발행) → new String(수신) → readValue → UTF-8 왕복 → 메시지 변환기 재직렬화
+ * - 이후 : writeValueAsBytes 한 번 → 수신한 바이트를 그대로 프레임 본문으로 사용
+ */
+@Tag("benchmark")
+class ChatFanOutAllocationBenchmarkTest {
+
+	private static final int WARMUP = 50_000;
+	private static final int ITERATIONS = 200_000;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+
+	private final ChatMessageDto dto = ChatMessageDto.builder()
+			.type(ChatMessageDto.MessageType.TALK)
+			.messageId(123456L)
+			.roomId(42L)
+			.senderEmail("user@example.com")
+			.message("안녕하세요, 오늘 회의는 3시에 시작합니다.")
+			.updateTime("2024-05-01T12:34:56.789")
+			.build();
+
+	private volatile Object sink;
+
+	@Test
+	@DisplayName("메시지당 할당량: 재직렬화 경로 vs 바이트 전달 경로")
+	void compare_allocations() throws Exception {
+		long before = bytesPerMessage(this::legacyPath);
+		long after = bytesPerMessage(this::bytePath);
+		System.out.printf("[fan-out] 이전 %d B/msg, 이후 %d B/msg%n", before, after);
+		assertThat(after).isLessThan(before);
+	}
+
+	private void legacyPath() throws Exception {
+		String json = objectMapper.writeValueAsString(dto);
+		byte[] published = json.getBytes(StandardCharsets.UTF_8);
+		String payload = new String(published, StandardCharsets.UTF_8);
+		ChatMessageDto received = objectMapper.readValue(payload, ChatMessageDto.class);
+		received.setMessage(new String(received.getMessage().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+		sink = converter.toMessage(received, null);
+	}
+
+	private void bytePath() throws Exception {
+		byte[] published = objectMapper.writeValueAsBytes(dto);
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+		accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+		Message<byte[]> message = MessageBuilder.createMessage(published, accessor.getMessageHeaders());
+		sink = message;
+	}
+
+	private long bytesPerMessage(ThrowingRunnable path) throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		for (int i = 0; i < WARMUP; i++) {
+			path.run();
+		}
+		long start = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < ITERATIONS; i++) {
+			path.run();
+		}
+		return (threads.getThreadAllocatedBytes(threadId) - start) / ITERATIONS;
+	}
+
+	@FunctionalInterface
+	private interface ThrowingRunnable {
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatLocalDelivery;
+import com.example.backend.chat.service.ChatRoomSubscriptionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 바쁜 채팅방 프레임 묶음 창 크기별 초당 프레임 수와 p99 지연 비교 (./gradlew benchmark 로 실행)
+ * - /topic/{roomId}/batch 구독자만 있는 한 채팅방에 일정한 속도로 메시지를 넣고, 브로커로 나간 프레임 수와 메시지별 (전달 요청 → 프레임 송신) 지연을 잰다.
+ * - 메시지 본문은 전달 요청 시각(nanoTime) 숫자 하나 - 배열 프레임이면 쉼표로 나눠 메시지별 지연을 구한다.
+ * - 조용한 채팅방은 창이 1ms 미만으로 줄어 바로 보내지는지도 함께 확인한다.
+ */
+@Tag("benchmark")
+class ChatFrameBatchingBenchmarkTest {
+
+	private static final long ROOM_ID = 1L;
+	private static final int HOT_RATE = 5_000;
+	private static final int QUIET_RATE = 20;
+	private static final long DURATION_MS = 2_000;
+	private static final long[] WINDOWS_MS = {0, 5, 10, 20};
+
+	@Test
+	@DisplayName("창 크기별 초당 프레임 수 / p99 지연 (바쁜 채팅방, 조용한 채팅방)")
+	void compare_windows() {
+		System.out.printf("[frame-batching] %d msg/s 채팅방%n", HOT_RATE);
+		System.out.println("  window(ms)  frames/s   msgs/frame  p99(ms)  quiet p99(ms)");
+		double unbatchedFrames = 0;
+		double batchedFrames = 0;
+		for (long windowMs : WINDOWS_MS) {
+			Result hot = run(windowMs, HOT_RATE, DURATION_MS);
+			Result quiet = run(windowMs, QUIET_RATE, 1_000);
+			System.out.printf("  %10d  %9.0f  %11.1f  %7.2f  %13.2f%n",
+					windowMs, hot.framesPerSecond(), hot.messagesPerFrame(), hot.p99Millis(), quiet.p99Millis());
+			if (windowMs == 0) {
+				unbatchedFrames = hot.framesPerSecond();
+			} else {
+				batchedFrames = hot.framesPerSecond();
+			}
+		}
+		assertThat(batchedFrames).isLessThan(unbatchedFrames);
+	}
+
+	private Result run(long windowMs, int rate, long durationMs) {
+		AtomicLong frames = new AtomicLong();
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> {
+			long now = System.nanoTime();
+			String body = new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+			if (body.startsWith("[")) {
+				body = body.substring(1, body.length() - 1);
+			}
+			for (String sentAt : body.split(",")) {
+				latencies.add(now - Long.parseLong(sentAt));
+			}
+			frames.incrementAndGet();
+			return true;
+		});
+		ChatRoomSubscriptionRegistry subscriptionRegistry = mock(ChatRoomSubscriptionRegistry.class);
+		given(subscriptionRegistry.hasBatchSubscribers(ROOM_ID)).willReturn(true);
+		ChatLocalDelivery delivery = new ChatLocalDelivery(
+				template, subscriptionRegistry, new SimpleMeterRegistry(), windowMs > 0, windowMs, HOT_RATE / 10.0, 256);
+
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+		long messages = durationMs * rate / 1_000;
+		long start = System.nanoTime();
+		for (long i = 0; i < messages; i++) {
+			long due = start + i * intervalNanos;
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			long sentAt = System.nanoTime();
+			delivery.deliver(ROOM_ID, Long.toString(sentAt).getBytes(StandardCharsets.UTF_8), null);
+		}
+		long elapsed = System.nanoTime() - start;
+		LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(windowMs + 50));
+		delivery.destroy();
+
+		List<Long> sorted;
+		synchronized (latencies) {
+			sorted = new ArrayList<>(latencies);
+		}
+		Collections.sort(sorted);
+		long p99 = sorted.isEmpty() ? 0 : sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(sorted.size() * 0.99) - 1));
+		return new Result(frames.get(), sorted.size(), elapsed, p99);
+	}
+
+	private record Result(long frames, long messages, long elapsedNanos, long p99Nanos) {
+
+		double framesPerSecond() {
+			return frames * 1e9 / elapsedNanos;
+		}
+
+		double messagesPerFrame() {
+			return frames == 0 ? 0 : (double) messages / frames;
+		}
+
+		double p99Millis() {
+			return p99Nanos / 1e6;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatLocalDelivery;
+import com.example.backend.chat.service.ChatRoomSubscriptionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class ChatLocalDeliveryTest {
+
+	private final List<Message<?>> frames = new ArrayList<>();
+	private final SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> frames.add(message));
+	private final ChatRoomSubscriptionRegistry subscriptionRegistry = mock(ChatRoomSubscriptionRegistry.class);
+
+	@Test
+	@DisplayName("/topic/{roomId} 구독자에게는 묶음 모드와 상관없이 메시지마다 본문 그대로 프레임 하나를 보낸다")
+	void single_subscribers_get_payload_as_is() {
+		given(subscriptionRegistry.hasSingleSubscribers(1L)).willReturn(true);
+		ChatLocalDelivery delivery = new ChatLocalDelivery(template, subscriptionRegistry, new SimpleMeterRegistry(), true, 10_000, 0.001, 3);
+
+		delivery.deliver(1L, json("a"), null);
+		delivery.deliver(1L, json("b"), null);
+
+		assertThat(frames).extracting(ChatLocalDeliveryTest::destination).containsOnly("/topic/1");
+		assertThat(frames).extracting(ChatLocalDeliveryTest::body).containsExactly("{\"m\":\"a\"}", "{\"m\":\"b\"}");
+		delivery.destroy();
+	}
+
+	@Test
+	@DisplayName("묶음 모드가 꺼져 있어도 /topic/{roomId}/batch 구독자는 메시지 한 건짜리 배열을 받는다")
+	void batch_subscribers_always_get_arrays() {
+		given(subscriptionRegistry.hasSingleSubscribers(1L)).willReturn(true);
+		given(subscriptionRegistry.hasBatchSubscribers(1L)).willReturn(true);
+		ChatLocalDelivery delivery = new ChatLocalDelivery(template, subscriptionRegistry, new SimpleMeterRegistry(), false, 20, 500, 64);
+
+		delivery.deliver(1L, json("a"), null);
+
+		assertThat(frames).extracting(ChatLocalDeliveryTest::destination).containsExactly("/topic/1", "/topic/1/batch");
+		assertThat(frames).extracting(ChatLocalDeliveryTest::body).containsExactly("{\"m\":\"a\"}", "[{\"m\":\"a\"}]");
+	}
+
+	@Test
+	@DisplayName("바쁜 채팅방은 창 안의 메시지를 순서대로 JSON 배열 프레임 하나로 묶어 /batch 로 보내고, max-messages가 차면 바로 보낸다")
+	void hot_room_messages_are_coalesced() {
+		given(subscriptionRegistry.hasBatchSubscribers(1L)).willReturn(true);
+		// hot-rate를 아주 낮게 잡아 첫 메시지부터 최대 창(10초)이 적용되게 한다
+		ChatLocalDelivery delivery = new ChatLocalDelivery(template, subscriptionRegistry, new SimpleMeterRegistry(), true, 10_000, 0.001, 3);
+
+		delivery.deliver(1L, json("a"), "1-0");
+		delivery.deliver(1L, json("b"), "2-0");
+		assertThat(frames).isEmpty();
+		delivery.deliver(1L, json("c"), "3-0");
+
+		assertThat(frames).hasSize(1);
+		assertThat(destination(frames.get(0))).isEqualTo("/topic/1/batch");
+		assertThat(body(frames.get(0))).isEqualTo("[{\"m\":\"a\"},{\"m\":\"b\"},{\"m\":\"c\"}]");
+		assertThat(frames.get(0).getHeaders().toString()).contains("3-0");
+		delivery.destroy();
+	}
+
+	private static byte[] json(String value) {
+		return ("{\"m\":\"" + value + "\"}").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String body(Message<?> message) {
+		return new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+	}
+
+	private static String destination(Message<?> message) {
+		return SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.example.backend.chat.service.ChatMembershipService;
+import com.example.backend.security.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMembershipServiceTest {
+
+	@Mock
+	private ChatParticipantRepository chatParticipantRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Mock
+	private RedisMessageListenerContainer listenerContainer;
+
+	private ChatMembershipService membershipService;
+
+	@BeforeEach
+	void setUp() {
+		membershipService = new ChatMembershipService(chatParticipantRepository, userRepository,
+				stringRedisTemplate, listenerContainer, new SimpleMeterRegistry(), 1000, 300);
+	}
+
+	@Test
+	@DisplayName("isParticipant: 두 번째 조회부터는 캐시에서 응답한다")
+	void isParticipant_cached() {
+		given(userRepository.findIdByEmail("user@example.com")).willReturn(Optional.of(7L));
+		given(chatParticipantRepository.existsByChatRoom_IdAndMember_Id(1L, 7L)).willReturn(true);
+
+		assertThat(membershipService.isParticipant("user@example.com", 1L)).isTrue();
+		assertThat(membershipService.isParticipant("user@example.com", 1L)).isTrue();
+
+		verify(userRepository, times(1)).findIdByEmail("user@example.com");
+		verify(chatParticipantRepository, times(1)).existsByChatRoom_IdAndMember_Id(1L, 7L);
+	}
+
+	@Test
+	@DisplayName("evict: 무효화 후에는 다시 DB에서 확인하고 다른 노드에 전파한다")
+	void evict_reloads() {
+		given(chatParticipantRepository.existsByChatRoom_IdAndMember_Id(1L, 7L)).willReturn(false, true);
+
+		assertThat(membershipService.isParticipant(1L, 7L)).isFalse();
+		membershipService.evict(1L, 7L);
+		assertThat(membershipService.isParticipant(1L, 7L)).isTrue();
+
+		verify(stringRedisTemplate).convertAndSend("chat:membership:invalidate", "1:7");
+	}
+}
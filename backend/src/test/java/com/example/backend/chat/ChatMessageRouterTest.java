@@ -0,0 +1,148 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatLocalDelivery;
+import com.example.backend.chat.service.ChatMessageRouter;
+import com.example.backend.chat.service.ChatMessageTransport;
+import com.example.backend.chat.service.ChatRoomNodeDirectory;
+import com.example.backend.common.config.redis.RedisListenerDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMessageRouterTest {
+
+	private static final byte[] MESSAGE = "{\"message\":\"hi\"}".getBytes(StandardCharsets.UTF_8);
+
+	@Mock
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Mock
+	private SetOperations<String, String> setOperations;
+
+	@Mock
+	private RedisMessageListenerContainer listenerContainer;
+
+	@Mock
+	private ChatMessageTransport messageTransport;
+
+	@Mock
+	private ChatLocalDelivery localDelivery;
+
+	@Mock
+	private RedisListenerDispatcher listenerDispatcher;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private ChatMessageRouter router(String transport) {
+		ChatRoomNodeDirectory directory = new ChatRoomNodeDirectory(stringRedisTemplate, listenerContainer, "node-a", transport, true, 1000);
+		return new ChatMessageRouter(messageTransport, localDelivery, directory, listenerDispatcher, meterRegistry);
+	}
+
+	// 레인에 넘긴 작업을 바로 실행
+	private void runDispatchedInline() {
+		given(listenerDispatcher.dispatch(anyLong(), any())).willAnswer(invocation -> {
+			invocation.<Runnable>getArgument(1).run();
+			return true;
+		});
+	}
+
+	@Test
+	@DisplayName("구독 노드가 이 노드뿐이면 Redis를 거치지 않고 바로 전달하고, 목록 조회는 캐시된다")
+	void local_only_room_short_circuits() {
+		given(stringRedisTemplate.opsForSet()).willReturn(setOperations);
+		given(setOperations.members("chat:room:1:nodes")).willReturn(Set.of("node-a"));
+		runDispatchedInline();
+		ChatMessageRouter router = router("pubsub");
+
+		router.route(1L, MESSAGE);
+		router.route(1L, MESSAGE);
+
+		verify(listenerDispatcher, times(2)).dispatch(eq(1L), any());
+		verify(localDelivery, times(2)).deliver(1L, MESSAGE, null);
+		verify(messageTransport, never()).publish(anyLong(), any());
+		verify(setOperations, times(1)).members("chat:room:1:nodes");
+		assertThat(meterRegistry.get("chat.delivery").tag("path", "local").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("채팅방 레인이 가득 차 넘기지 못하면 버리지 않고 Redis로 중계하고, 중계로 센다")
+	void full_lane_falls_back_to_relay() {
+		given(stringRedisTemplate.opsForSet()).willReturn(setOperations);
+		given(setOperations.members("chat:room:1:nodes")).willReturn(Set.of("node-a"));
+		given(listenerDispatcher.dispatch(anyLong(), any())).willReturn(false);
+
+		router("pubsub").route(1L, MESSAGE);
+
+		verify(localDelivery, never()).deliver(anyLong(), any(), any());
+		verify(messageTransport).publish(1L, MESSAGE);
+		assertThat(meterRegistry.get("chat.delivery").tag("path", "local").counter().count()).isZero();
+		assertThat(meterRegistry.get("chat.delivery").tag("path", "relayed").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("다른 노드에 구독자가 생기면 변경 알림 후 Redis로 중계한다")
+	void remote_subscriber_relays_after_change_notice() {
+		given(stringRedisTemplate.opsForSet()).willReturn(setOperations);
+		given(setOperations.members("chat:room:1:nodes")).willReturn(Set.of("node-a"), Set.of("node-a", "node-b"));
+		runDispatchedInline();
+		ChatRoomNodeDirectory directory = new ChatRoomNodeDirectory(stringRedisTemplate, listenerContainer, "node-a", "pubsub", true, 1000);
+		ChatMessageRouter router = new ChatMessageRouter(messageTransport, localDelivery, directory, listenerDispatcher, meterRegistry);
+
+		router.route(1L, MESSAGE);
+		directory.onMessage(new DefaultMessage("chat:room-nodes:changed".getBytes(StandardCharsets.UTF_8),
+				"1".getBytes(StandardCharsets.UTF_8)), null);
+		router.route(1L, MESSAGE);
+
+		verify(localDelivery, times(1)).deliver(1L, MESSAGE, null);
+		verify(messageTransport, times(1)).publish(1L, MESSAGE);
+		assertThat(meterRegistry.get("chat.delivery").tag("path", "relayed").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("변경 알림을 놓쳐도 '이 노드뿐' 판단은 local-only TTL이 지나면 다시 조회해 Redis로 중계한다")
+	void missed_change_notice_expires_local_only_answer() {
+		given(stringRedisTemplate.opsForSet()).willReturn(setOperations);
+		given(setOperations.members("chat:room:1:nodes")).willReturn(Set.of("node-a"), Set.of("node-a", "node-b"));
+		runDispatchedInline();
+		ChatRoomNodeDirectory directory = new ChatRoomNodeDirectory(stringRedisTemplate, listenerContainer, "node-a", "pubsub", true, 0);
+		ChatMessageRouter router = new ChatMessageRouter(messageTransport, localDelivery, directory, listenerDispatcher, meterRegistry);
+
+		router.route(1L, MESSAGE);
+		router.route(1L, MESSAGE);
+		router.route(1L, MESSAGE);
+
+		verify(localDelivery, times(1)).deliver(1L, MESSAGE, null);
+		verify(messageTransport, times(2)).publish(1L, MESSAGE);
+//		"다른 노드에도 있음"은 TTL 0과 상관없이 길게 캐시된다
+		verify(setOperations, times(2)).members("chat:room:1:nodes");
+	}
+
+	@Test
+	@DisplayName("streams 전송 방식에서는 항상 스트림을 거친다")
+	void streams_transport_always_relays() {
+		router("streams").route(1L, MESSAGE);
+
+		verify(messageTransport).publish(1L, MESSAGE);
+		verify(localDelivery, never()).deliver(anyLong(), any(), any());
+	}
+}
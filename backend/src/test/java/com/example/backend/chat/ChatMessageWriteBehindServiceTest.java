@@ -0,0 +1,203 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatMessageIdAllocator;
+import com.example.backend.chat.service.ChatMessageWriteBehindService;
+import com.example.backend.chat.service.ChatMessageWriteBehindService.PendingChatMessage;
+import com.example.backend.common.exception.ChatBackpressureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMessageWriteBehindServiceTest {
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private ChatMessageIdAllocator idAllocator;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private ChatMessageWriteBehindService service;
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		if (service != null) {
+			service.shutdown();
+		}
+	}
+
+	private ChatMessageWriteBehindService start(int queueCapacity, int batchSize, long flushIntervalMs) {
+		service = new ChatMessageWriteBehindService(jdbcTemplate, transactionManager, idAllocator, meterRegistry,
+				"write-behind", queueCapacity, batchSize, flushIntervalMs, 10);
+		service.start();
+		return service;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<List<PendingChatMessage>> captured(String sqlPrefix, int calls) {
+		ArgumentCaptor<Collection<PendingChatMessage>> batches = ArgumentCaptor.forClass(Collection.class);
+		verify(jdbcTemplate, times(calls)).batchUpdate(argThat((String sql) -> sql.startsWith(sqlPrefix)),
+				batches.capture(), anyInt(), any());
+		List<List<PendingChatMessage>> result = new ArrayList<>();
+		batches.getAllValues().forEach(batch -> result.add(new ArrayList<>(batch)));
+		return result;
+	}
+
+	@Test
+	@DisplayName("대기열의 메시지를 한 배치로 모아 채팅방 순으로 저장하고, 보낸사람 커서는 마지막 순번으로 옮긴다")
+	void drains_queue_in_one_sorted_batch() throws InterruptedException {
+		given(idAllocator.nextId()).willReturn(10L, 11L, 12L);
+		start(100, 3, 200);
+
+		PendingChatMessage first = service.enqueue(2L, 7L, 1L, "a");
+		service.enqueue(1L, 8L, 4L, "b");
+		service.enqueue(2L, 7L, 2L, "c");
+		service.shutdown();
+
+		assertThat(first.id()).isEqualTo(10L);
+		List<List<PendingChatMessage>> inserts = captured("INSERT", 1);
+		assertThat(inserts.get(0)).extracting(PendingChatMessage::id).containsExactly(11L, 10L, 12L);
+		List<List<PendingChatMessage>> cursors = captured("UPDATE", 1);
+		assertThat(cursors.get(0)).extracting(PendingChatMessage::seq).containsExactlyInAnyOrder(4L, 2L);
+	}
+
+	@Test
+	@DisplayName("배치 저장이 실패하면 메시지 단위로 다시 저장하고, 그래도 실패한 메시지만 버린다")
+	void failed_batch_is_retried_per_message() throws InterruptedException {
+		given(idAllocator.nextId()).willReturn(10L, 11L);
+//		INSERT : 배치 실패 → 첫 메시지 성공 → 둘째 메시지 실패 (커서 UPDATE는 항상 성공)
+		AtomicInteger insertCalls = new AtomicInteger();
+		given(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).willAnswer(invocation -> {
+			String sql = invocation.getArgument(0);
+			if (sql.startsWith("INSERT") && insertCalls.incrementAndGet() != 2) {
+				throw new DataAccessResourceFailureException("insert");
+			}
+			return new int[][] {{1}};
+		});
+		start(100, 2, 200);
+
+		service.enqueue(1L, 7L, 1L, "a");
+		service.enqueue(1L, 7L, 2L, "b");
+		service.shutdown();
+
+		List<List<PendingChatMessage>> inserts = captured("INSERT", 3);
+		assertThat(inserts.get(0)).hasSize(2);
+		assertThat(inserts.get(1)).extracting(PendingChatMessage::id).containsExactly(10L);
+		assertThat(inserts.get(2)).extracting(PendingChatMessage::id).containsExactly(11L);
+		assertThat(meterRegistry.get("chat.persistence.failed").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("종료할 때 대기열에 남은 메시지를 저장한 뒤 더 이상 받지 않는다")
+	void shutdown_flushes_remaining_messages() throws InterruptedException {
+		given(idAllocator.nextId()).willReturn(10L);
+		start(100, 200, 300);
+
+		service.enqueue(1L, 7L, 1L, "a");
+		service.shutdown();
+
+		assertThat(captured("INSERT", 1).get(0)).extracting(PendingChatMessage::id).containsExactly(10L);
+		assertThat(meterRegistry.get("chat.persistence.queue.depth").gauge().value()).isZero();
+		assertThatThrownBy(() -> service.enqueue(1L, 7L, 2L, "b")).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	@DisplayName("종료와 동시에 들어온 메시지도 접수됐다면 빠짐없이 저장한다")
+	void shutdown_racing_enqueue_keeps_accepted_messages() throws InterruptedException {
+		AtomicLong ids = new AtomicLong();
+		given(idAllocator.nextId()).willAnswer(invocation -> ids.incrementAndGet());
+		Set<Long> inserted = ConcurrentHashMap.newKeySet();
+		given(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).willAnswer(invocation -> {
+			String sql = invocation.getArgument(0);
+			if (sql.startsWith("INSERT")) {
+				invocation.<Collection<PendingChatMessage>>getArgument(1).forEach(m -> inserted.add(m.id()));
+			}
+			return new int[][] {{1}};
+		});
+		start(100_000, 50, 5);
+
+		Set<Long> accepted = ConcurrentHashMap.newKeySet();
+		CountDownLatch sending = new CountDownLatch(4);
+		List<Thread> senders = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Thread sender = new Thread(() -> {
+				sending.countDown();
+				try {
+					while (true) {
+						accepted.add(service.enqueue(1L, 7L, 1L, "m").id());
+					}
+				} catch (IllegalStateException stopped) {
+//					종료 후에는 거절된다
+				}
+			});
+			sender.start();
+			senders.add(sender);
+		}
+		assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(20);
+		service.shutdown();
+		for (Thread sender : senders) {
+			sender.join(5_000);
+		}
+
+		assertThat(accepted).isNotEmpty();
+		assertThat(inserted).containsAll(accepted);
+		assertThat(service.hasPending(1L)).isFalse();
+	}
+
+	@Test
+	@DisplayName("대기열이 가득 차면 offer-timeout-ms 만큼 기다린 뒤 ChatBackpressureException으로 거절한다")
+	void full_queue_rejects_with_backpressure() throws InterruptedException {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		given(idAllocator.nextId()).willReturn(10L, 11L, 12L);
+		given(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).willAnswer(invocation -> {
+			writing.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return new int[][] {{1}};
+		});
+		start(1, 1, 10);
+
+		service.enqueue(1L, 7L, 1L, "a");
+		assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+		service.enqueue(1L, 7L, 2L, "b");
+
+		assertThatThrownBy(() -> service.enqueue(1L, 7L, 3L, "c")).isInstanceOf(ChatBackpressureException.class);
+		assertThat(meterRegistry.get("chat.persistence.rejected").counter().count()).isEqualTo(1);
+		release.countDown();
+	}
+}
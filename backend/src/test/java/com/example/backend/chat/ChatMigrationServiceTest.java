@@ -0,0 +1,54 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.repository.ChatMessageRepository;
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.example.backend.chat.repository.ChatRoomRepository;
+import com.example.backend.chat.service.ChatMigrationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMigrationServiceTest {
+
+	@Mock
+	private ChatParticipantRepository chatParticipantRepository;
+
+	@Mock
+	private ChatRoomRepository chatRoomRepository;
+
+	@Mock
+	private ChatMessageRepository chatMessageRepository;
+
+	@Test
+	@DisplayName("마이그레이션이 꺼져 있어도 메시지 순번 채우기와 순번 커서 옮기기는 실행한다")
+	void sequence_backfill_runs_when_disabled() {
+		new ChatMigrationService(chatParticipantRepository, chatRoomRepository, chatMessageRepository, false).migrate();
+
+		InOrder order = inOrder(chatMessageRepository, chatParticipantRepository);
+		order.verify(chatMessageRepository).backfillSequences();
+		order.verify(chatParticipantRepository).migrateCursorsToSequences();
+		verify(chatParticipantRepository, never()).migrateReadStatusToCursors();
+		verifyNoInteractions(chatRoomRepository);
+	}
+
+	@Test
+	@DisplayName("마이그레이션이 켜져 있으면 읽음 커서를 먼저 옮긴 뒤 순번 커서로 옮긴다")
+	void read_status_migrates_before_sequence_cursors() {
+		new ChatMigrationService(chatParticipantRepository, chatRoomRepository, chatMessageRepository, true).migrate();
+
+		InOrder order = inOrder(chatParticipantRepository, chatMessageRepository);
+		order.verify(chatParticipantRepository).migrateReadStatusToCursors();
+		order.verify(chatMessageRepository).backfillSequences();
+		order.verify(chatParticipantRepository).migrateCursorsToSequences();
+		verify(chatRoomRepository).backfillRoomStats();
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatPresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ChatPresenceServiceTest {
+
+	@Mock
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Mock
+	private StringRedisConnection connection;
+
+	@Mock
+	private ZSetOperations<String, String> zSetOperations;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private ChatPresenceService presenceService;
+
+	@BeforeEach
+	void setUp() {
+		presenceService = new ChatPresenceService(stringRedisTemplate, meterRegistry, 90);
+	}
+
+	@Test
+	@DisplayName("같은 주기 안의 끊김/재연결은 사용자당 한 번만 기록하고, 변경이 없으면 Redis에 쓰지 않는다")
+	@SuppressWarnings("unchecked")
+	void reconnects_are_coalesced_into_one_write() {
+		given(stringRedisTemplate.executePipelined(any(RedisCallback.class))).willAnswer(invocation -> {
+			((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+			return List.of();
+		});
+
+		presenceService.connect("s1", 7L);
+		presenceService.disconnect("s1");
+		presenceService.connect("s2", 7L);
+		presenceService.subscribe("s2", "sub-1", "/topic/5");
+		presenceService.flush();
+		presenceService.flush();
+
+		verify(stringRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+		verify(connection, times(1)).eval(anyString(), eq(ReturnType.INTEGER), eq(2), any(String[].class));
+		verify(connection).zAdd(eq("chat:presence:room:5"), anyDouble(), eq("7"));
+		assertThat(meterRegistry.get("chat.presence.events").counter().count()).isEqualTo(4);
+		assertThat(meterRegistry.get("chat.presence.writes").counter().count()).isEqualTo(2);
+		assertThat(meterRegistry.get("chat.presence.local.sessions").gauge().value()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("접속 여부는 이 노드의 세션을 먼저 보고, 여러 명은 ZMSCORE 한 번으로 만료되지 않은 사용자만 고른다")
+	void online_queries() {
+		presenceService.connect("s1", 7L);
+		assertThat(presenceService.isOnline(7L)).isTrue();
+		verifyNoInteractions(stringRedisTemplate);
+
+		long now = System.currentTimeMillis();
+		given(stringRedisTemplate.opsForZSet()).willReturn(zSetOperations);
+		given(zSetOperations.score("chat:presence:online", "1", "2", "3"))
+				.willReturn(Arrays.asList(now + 60_000.0, now - 1_000.0, null));
+
+		assertThat(presenceService.onlineAmong(List.of(1L, 2L, 3L, 1L))).containsExactly(1L);
+	}
+}
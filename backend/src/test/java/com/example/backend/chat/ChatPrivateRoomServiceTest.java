@@ -0,0 +1,81 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.domain.ChatRoom;
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.example.backend.chat.repository.ChatRoomRepository;
+import com.example.backend.chat.service.ChatMembershipService;
+import com.example.backend.chat.service.ChatPrivateRoomService;
+import com.example.backend.security.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChatPrivateRoomServiceTest {
+
+	@Mock
+	private ChatRoomRepository chatRoomRepository;
+
+	@Mock
+	private ChatParticipantRepository chatParticipantRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private ChatMembershipService membershipService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private ChatPrivateRoomService privateRoomService;
+
+	@BeforeEach
+	void setUp() {
+		privateRoomService = new ChatPrivateRoomService(
+				chatRoomRepository, chatParticipantRepository, userRepository, membershipService, transactionManager);
+	}
+
+	@Test
+	@DisplayName("사용자 쌍 키는 순서와 관계없이 같다")
+	void pair_key_is_canonical() {
+		assertThat(ChatRoom.privatePairKey(9L, 3L)).isEqualTo("3:9").isEqualTo(ChatRoom.privatePairKey(3L, 9L));
+	}
+
+	@Test
+	@DisplayName("기존 방은 키로 조회하고, 두 번째 요청은 메모리 캐시에서 응답한다")
+	void existing_room_is_cached() {
+		given(chatRoomRepository.findIdByPrivatePairKey("3:9")).willReturn(Optional.of(42L));
+
+		assertThat(privateRoomService.getOrCreate(9L, 3L, "b-a")).isEqualTo(42L);
+		assertThat(privateRoomService.getOrCreate(3L, 9L, "a-b")).isEqualTo(42L);
+
+		verify(chatRoomRepository, times(1)).findIdByPrivatePairKey("3:9");
+		verify(chatRoomRepository, never()).saveAndFlush(any());
+	}
+
+	@Test
+	@DisplayName("동시에 다른 요청이 먼저 만들었으면(unique 위반) 그 방을 돌려준다")
+	void concurrent_create_returns_winner() {
+		given(chatRoomRepository.findIdByPrivatePairKey("3:9")).willReturn(Optional.empty(), Optional.of(42L));
+		given(chatRoomRepository.saveAndFlush(any(ChatRoom.class))).willThrow(new DataIntegrityViolationException("uk_chat_room_private_pair"));
+
+		assertThat(privateRoomService.getOrCreate(3L, 9L, "a-b")).isEqualTo(42L);
+
+		verify(chatParticipantRepository, never()).save(any());
+	}
+}
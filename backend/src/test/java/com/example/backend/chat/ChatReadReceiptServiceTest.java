@@ -0,0 +1,101 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.dto.ChatReadReceiptDto;
+import com.example.backend.chat.service.ChatReadReceiptService;
+import com.example.backend.chat.service.ChatRoomNodeDirectory;
+import com.example.backend.chat.service.ChatRoomSubscriptionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ChatReadReceiptServiceTest {
+
+	@Mock
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Mock
+	private SimpMessageSendingOperations messageTemplate;
+
+	@Mock
+	private ChatRoomSubscriptionRegistry subscriptionRegistry;
+
+	@Mock
+	private ChatRoomNodeDirectory nodeDirectory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private ChatReadReceiptService receiptService;
+
+	@BeforeEach
+	void setUp() {
+		receiptService = new ChatReadReceiptService(stringRedisTemplate, messageTemplate,
+				subscriptionRegistry, nodeDirectory, objectMapper, meterRegistry);
+	}
+
+	@Test
+	@DisplayName("같은 사용자의 커서 변경은 마지막 값 하나로 합쳐 채팅방별 한 프레임으로 보낸다")
+	@SuppressWarnings("unchecked")
+	void coalesces_per_room_and_user() {
+		given(nodeDirectory.isLocalOnly(1L)).willReturn(true);
+		given(subscriptionRegistry.hasLocalSubscribers(1L)).willReturn(true);
+
+		receiptService.record(1L, 7L, 40L);
+		receiptService.record(1L, 7L, 42L);
+		receiptService.record(1L, 7L, 41L);
+		receiptService.record(1L, 8L, 42L);
+		receiptService.flush();
+
+		ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+		verify(messageTemplate).convertAndSend(eq("/topic/1/receipts"), payload.capture());
+		assertThat((List<ChatReadReceiptDto>) payload.getValue()).containsExactlyInAnyOrder(
+				new ChatReadReceiptDto(1L, 7L, 42L),
+				new ChatReadReceiptDto(1L, 8L, 42L));
+		assertThat(meterRegistry.get("chat.read.receipts.received").functionCounter().count()).isEqualTo(4);
+		assertThat(meterRegistry.get("chat.read.receipts.sent").functionCounter().count()).isEqualTo(2);
+		assertThat(meterRegistry.get("chat.read.receipts.coalescing.ratio").gauge().value()).isEqualTo(0.5);
+
+//		보낸 뒤에는 다시 보내지 않는다
+		receiptService.flush();
+		verify(messageTemplate).convertAndSend(anyString(), any(Object.class));
+	}
+
+	@Test
+	@DisplayName("다른 노드에 구독자가 있으면 채팅방 읽음 알림 채널로 중계하고, 받은 노드는 로컬 구독자가 있을 때만 전달한다")
+	void relays_through_redis() throws Exception {
+		given(nodeDirectory.isLocalOnly(2L)).willReturn(false);
+
+		receiptService.record(2L, 7L, 10L);
+		receiptService.flush();
+
+		String body = objectMapper.writeValueAsString(List.of(new ChatReadReceiptDto(2L, 7L, 10L)));
+		verify(stringRedisTemplate).convertAndSend("chat:room:2:receipts", body);
+		verifyNoInteractions(messageTemplate);
+
+		given(subscriptionRegistry.hasLocalSubscribers(2L)).willReturn(false);
+		receiptService.onMessage(new DefaultMessage("chat:room:2:receipts".getBytes(StandardCharsets.UTF_8),
+				body.getBytes(StandardCharsets.UTF_8)), null);
+		verify(messageTemplate, never()).convertAndSend(anyString(), any(Object.class));
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatReadReceiptService;
+import com.example.backend.chat.service.ChatRoomNodeDirectory;
+import com.example.backend.chat.service.ChatRoomSubscriptionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ChatRoomSubscriptionRegistryTest {
+
+	private static final ChannelTopic ROOM_1 = new ChannelTopic("chat:room:1");
+	private static final ChannelTopic ROOM_1_RECEIPTS = new ChannelTopic("chat:room:1:receipts");
+
+	@Mock
+	private RedisMessageListenerContainer listenerContainer;
+
+	@Mock
+	private MessageListenerAdapter messageListenerAdapter;
+
+	@Mock
+	private ChatReadReceiptService receiptService;
+
+	@Mock
+	private ChatRoomNodeDirectory nodeDirectory;
+
+	private ChatRoomSubscriptionRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		registry = new ChatRoomSubscriptionRegistry(listenerContainer, messageListenerAdapter, receiptService, nodeDirectory,
+				new SimpleMeterRegistry(), "pubsub");
+	}
+
+	@Test
+	@DisplayName("첫 구독자에서만 채널을 구독하고, 마지막 구독자가 나가면 해제한다")
+	void subscribes_on_first_and_releases_on_last() {
+		registry.subscribe("s1", "sub-1", "/topic/1");
+		registry.subscribe("s2", "sub-1", "/topic/1");
+		registry.unsubscribe("s1", "sub-1");
+
+		verify(nodeDirectory, times(1)).join(1L);
+		verify(listenerContainer, times(1)).addMessageListener(messageListenerAdapter, ROOM_1);
+		verify(listenerContainer, times(1)).addMessageListener(receiptService, ROOM_1_RECEIPTS);
+		verify(nodeDirectory, never()).leave(1L);
+		assertThat(registry.hasLocalSubscribers(1L)).isTrue();
+
+		registry.removeSession("s2");
+
+		verify(nodeDirectory).leave(1L);
+		verify(listenerContainer).removeMessageListener(messageListenerAdapter, ROOM_1);
+		verify(listenerContainer).removeMessageListener(receiptService, ROOM_1_RECEIPTS);
+		assertThat(registry.hasLocalSubscribers(1L)).isFalse();
+	}
+
+	@Test
+	@DisplayName("읽음 알림 등 /topic/{roomId} 하위 목적지 구독은 채팅방 구독으로 세지 않는다")
+	void sub_destinations_are_not_room_subscriptions() {
+		registry.subscribe("s1", "sub-1", "/topic/1/receipts");
+
+		assertThat(registry.hasLocalSubscribers(1L)).isFalse();
+		verifyNoInteractions(nodeDirectory, listenerContainer);
+	}
+
+	@Test
+	@DisplayName("/topic/{roomId}/batch 구독도 채팅방 구독으로 세고, 한 건씩 받는 구독자와 따로 구분한다")
+	void batch_subscriptions_are_counted_separately() {
+		registry.subscribe("s1", "sub-1", "/topic/1/batch");
+
+		assertThat(registry.hasBatchSubscribers(1L)).isTrue();
+		assertThat(registry.hasSingleSubscribers(1L)).isFalse();
+		verify(listenerContainer).addMessageListener(messageListenerAdapter, ROOM_1);
+
+		registry.subscribe("s2", "sub-1", "/topic/1");
+		registry.unsubscribe("s1", "sub-1");
+
+		assertThat(registry.hasBatchSubscribers(1L)).isFalse();
+		assertThat(registry.hasSingleSubscribers(1L)).isTrue();
+		verify(listenerContainer, never()).removeMessageListener(messageListenerAdapter, ROOM_1);
+	}
+
+	@Test
+	@DisplayName("한 채팅방의 Redis 구독이 오래 걸려도 다른 채팅방의 구독은 기다리지 않는다")
+	void slow_room_does_not_block_other_rooms() throws InterruptedException {
+		CountDownLatch subscribing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		willAnswer(invocation -> {
+			Topic topic = invocation.getArgument(1);
+			if (ROOM_1.equals(topic)) {
+				subscribing.countDown();
+				release.await(5, TimeUnit.SECONDS);
+			}
+			return null;
+		}).given(listenerContainer).addMessageListener(any(), any(Topic.class));
+
+		CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> registry.subscribe("s1", "sub-1", "/topic/1"));
+		assertThat(subscribing.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertTimeoutPreemptively(Duration.ofSeconds(2), () -> registry.subscribe("s2", "sub-1", "/topic/2"));
+		assertThat(registry.hasLocalSubscribers(2L)).isTrue();
+
+		release.countDown();
+		slow.join();
+		assertThat(registry.subscribedRoomIds()).containsExactlyInAnyOrder(1L, 2L);
+	}
+}
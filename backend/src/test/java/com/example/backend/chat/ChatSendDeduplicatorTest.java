@@ -0,0 +1,77 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatSendDeduplicator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ChatSendDeduplicatorTest {
+
+	private static final String KEY = "chat:send:7:c-1";
+
+	@Mock
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Mock
+	private ValueOperations<String, String> valueOperations;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private ChatSendDeduplicator deduplicator;
+
+	@BeforeEach
+	void setUp() {
+		deduplicator = new ChatSendDeduplicator(stringRedisTemplate, meterRegistry, 300);
+	}
+
+	@Test
+	@DisplayName("처음 보는 clientMessageId는 키를 잡고 처리하며, 처리 결과를 남긴다")
+	void first_send_claims_and_records_result() {
+		given(stringRedisTemplate.opsForValue()).willReturn(valueOperations);
+		given(valueOperations.setIfAbsent(KEY, "", Duration.ofSeconds(300))).willReturn(true);
+
+		ChatSendDeduplicator.Claim claim = deduplicator.claim(7L, "c-1");
+		deduplicator.complete(7L, "c-1", 100L, 5L);
+
+		assertThat(claim.duplicate()).isFalse();
+		verify(valueOperations).set(KEY, "100:5", Duration.ofSeconds(300));
+	}
+
+	@Test
+	@DisplayName("같은 clientMessageId의 재전송은 처음 처리한 메시지 id와 순번으로 응답한다")
+	void duplicate_send_returns_first_result() {
+		given(stringRedisTemplate.opsForValue()).willReturn(valueOperations);
+		given(valueOperations.setIfAbsent(KEY, "", Duration.ofSeconds(300))).willReturn(false);
+		given(valueOperations.get(KEY)).willReturn("100:5");
+
+		ChatSendDeduplicator.Claim claim = deduplicator.claim(7L, "c-1");
+
+		assertThat(claim.duplicate()).isTrue();
+		assertThat(claim.messageId()).isEqualTo(100L);
+		assertThat(claim.seq()).isEqualTo(5L);
+		assertThat(meterRegistry.get("chat.send.duplicates").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("clientMessageId가 없으면 Redis를 거치지 않고 처리한다")
+	void no_client_message_id_skips_redis() {
+		assertThat(deduplicator.claim(7L, null).duplicate()).isFalse();
+		deduplicator.complete(7L, null, 100L, 5L);
+
+		verifyNoInteractions(stringRedisTemplate);
+	}
+}
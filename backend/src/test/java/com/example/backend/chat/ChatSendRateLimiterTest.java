@@ -0,0 +1,73 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.service.ChatSendRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ChatSendRateLimiterTest {
+
+	@Mock
+	private StringRedisTemplate stringRedisTemplate;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private ChatSendRateLimiter limiter(int userBurst, int roomBurst) {
+//		초당 1건이라 테스트 중에는 버킷이 다시 차지 않는다
+		return new ChatSendRateLimiter(stringRedisTemplate, meterRegistry, true, "local", 1, userBurst, 1, roomBurst);
+	}
+
+	@Test
+	@DisplayName("local: 사용자는 burst 만큼 보낸 뒤 거부되고, 다른 사용자는 영향받지 않는다")
+	void user_bucket_limits_burst() {
+		ChatSendRateLimiter limiter = limiter(3, 100);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire(7L, 1L)).isNull();
+		}
+		ChatSendRateLimiter.Rejection rejection = limiter.tryAcquire(7L, 1L);
+
+		assertThat(rejection).isNotNull();
+		assertThat(rejection.scope()).isEqualTo(ChatSendRateLimiter.SCOPE_USER);
+		assertThat(rejection.retryAfterMs()).isPositive();
+		assertThat(limiter.tryAcquire(8L, 1L)).isNull();
+		assertThat(meterRegistry.get("chat.flood.rejected").tag("scope", "user").counter().count()).isEqualTo(1);
+		verifyNoInteractions(stringRedisTemplate);
+	}
+
+	@Test
+	@DisplayName("local: 여러 사용자의 전송이 채팅방 burst를 넘으면 채팅방 단위로 거부한다")
+	void room_bucket_limits_all_users() {
+		ChatSendRateLimiter limiter = limiter(10, 3);
+
+		assertThat(limiter.tryAcquire(1L, 5L)).isNull();
+		assertThat(limiter.tryAcquire(2L, 5L)).isNull();
+		assertThat(limiter.tryAcquire(3L, 5L)).isNull();
+		ChatSendRateLimiter.Rejection rejection = limiter.tryAcquire(4L, 5L);
+
+		assertThat(rejection).isNotNull();
+		assertThat(rejection.scope()).isEqualTo(ChatSendRateLimiter.SCOPE_ROOM);
+		assertThat(limiter.tryAcquire(4L, 6L)).isNull();
+		assertThat(meterRegistry.get("chat.flood.rejected").tag("scope", "room").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("local: 채팅방에서 거부된 전송은 사용자 토큰을 쓰지 않는다")
+	void room_rejection_does_not_charge_user() {
+		ChatSendRateLimiter limiter = limiter(2, 1);
+
+		assertThat(limiter.tryAcquire(7L, 1L)).isNull();
+		assertThat(limiter.tryAcquire(7L, 1L).scope()).isEqualTo(ChatSendRateLimiter.SCOPE_ROOM);
+
+		assertThat(limiter.tryAcquire(7L, 2L)).isNull();
+		assertThat(limiter.tryAcquire(7L, 3L).scope()).isEqualTo(ChatSendRateLimiter.SCOPE_USER);
+	}
+}
@@ -0,0 +1,352 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.domain.ChatMessage;
+import com.example.backend.chat.domain.ChatParticipant;
+import com.example.backend.chat.domain.ChatRoom;
+import com.example.backend.chat.dto.ChatHistoryResDto;
+import com.example.backend.chat.dto.ChatMessageDto;
+import com.example.backend.chat.dto.ChatResyncResDto;
+import com.example.backend.chat.dto.MyChatListResDto;
+import com.example.backend.chat.repository.ChatMessageRepository;
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.example.backend.chat.repository.ChatRoomRepository;
+import com.example.backend.chat.service.ChatHistoryCacheService;
+import com.example.backend.chat.service.ChatMembershipService;
+import com.example.backend.chat.service.ChatMessageIdAllocator;
+import com.example.backend.chat.service.ChatMessageTransport;
+import com.example.backend.chat.service.ChatMessageWriteBehindService;
+import com.example.backend.chat.service.ChatPresenceService;
+import com.example.backend.chat.service.ChatPrivateRoomService;
+import com.example.backend.chat.service.ChatReadReceiptService;
+import com.example.backend.chat.service.ChatRoomSequenceService;
+import com.example.backend.chat.service.ChatService;
+import com.example.backend.chat.service.ChatUnreadCounterService;
+import com.example.backend.security.entity.UserEntity;
+import com.example.backend.security.repository.UserRepository;
+import com.example.backend.security.service.oauth2.OAuthUserEntityToUserEntityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ChatServiceTest {
+
+	@InjectMocks
+	private ChatService chatService;
+
+	@Mock
+	private ChatRoomRepository chatRoomRepository;
+
+	@Mock
+	private ChatParticipantRepository chatParticipantRepository;
+
+	@Mock
+	private ChatMessageRepository chatMessageRepository;
+
+	@Mock
+	private UserRepository memberRepository;
+
+	@Mock
+	private OAuthUserEntityToUserEntityService oAuthUserService;
+
+	@Mock
+	private ChatMessageWriteBehindService writeBehindService;
+
+	@Mock
+	private ChatMembershipService membershipService;
+
+	@Mock
+	private ChatUnreadCounterService unreadCounterService;
+
+	@Mock
+	private ChatMessageTransport messageTransport;
+
+	@Mock
+	private ChatHistoryCacheService historyCacheService;
+
+	@Mock
+	private ChatPrivateRoomService privateRoomService;
+
+	@Mock
+	private ChatPresenceService presenceService;
+
+	@Mock
+	private ChatRoomSequenceService sequenceService;
+
+	@Mock
+	private ChatReadReceiptService readReceiptService;
+
+	@Mock
+	private ChatMessageIdAllocator idAllocator;
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	@DisplayName("messageRead(): 방에 발급된 마지막 순번까지 읽음 커서를 이동한다")
+	void messageRead_advances_cursor() {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("user@example.com", null, Collections.emptyList()));
+
+		given(membershipService.findUserId("user@example.com")).willReturn(7L);
+		given(membershipService.isParticipant(1L, 7L)).willReturn(true);
+		given(sequenceService.current(1L)).willReturn(42L);
+		given(chatParticipantRepository.advanceReadCursor(1L, 7L, 42L)).willReturn(1);
+
+		int updated = chatService.messageRead(1L);
+
+		assertThat(updated).isEqualTo(1);
+		verify(unreadCounterService).reset(7L, 1L);
+		verify(readReceiptService).record(1L, 7L, 42L);
+		verifyNoInteractions(chatRoomRepository, memberRepository);
+	}
+
+	@Test
+	@DisplayName("messageRead(): 메시지가 없는 방은 커서를 건드리지 않는다")
+	void messageRead_empty_room() {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("user@example.com", null, Collections.emptyList()));
+
+		given(membershipService.findUserId("user@example.com")).willReturn(7L);
+		given(membershipService.isParticipant(1L, 7L)).willReturn(true);
+		given(sequenceService.current(1L)).willReturn(0L);
+
+		assertThat(chatService.messageRead(1L)).isZero();
+		verify(chatParticipantRepository, never()).advanceReadCursor(anyLong(), anyLong(), anyLong());
+		verifyNoInteractions(readReceiptService);
+	}
+
+	@Test
+	@DisplayName("messageRead(): 참여하지 않은 채팅방은 거부한다")
+	void messageRead_rejects_non_participant() {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("user@example.com", null, Collections.emptyList()));
+		given(membershipService.findUserId("user@example.com")).willReturn(7L);
+		given(membershipService.isParticipant(1L, 7L)).willReturn(false);
+
+		assertThatThrownBy(() -> chatService.messageRead(1L)).isInstanceOf(IllegalArgumentException.class);
+		verify(chatParticipantRepository, never()).advanceReadCursor(anyLong(), anyLong(), anyLong());
+	}
+
+	@Test
+	@DisplayName("saveMessage(): 세션의 사용자 id로 저장하고 사용자 조회를 하지 않는다")
+	void saveMessage_uses_session_user_id() {
+		ChatMessageDto dto = ChatMessageDto.builder().message("hi").build();
+		given(writeBehindService.isEnabled()).willReturn(true);
+		given(sequenceService.next(1L)).willReturn(5L);
+		given(writeBehindService.enqueue(1L, 7L, 5L, "hi")).willReturn(
+				new ChatMessageWriteBehindService.PendingChatMessage(100L, 1L, 7L, 5L, "hi", LocalDateTime.now()));
+
+		chatService.saveMessage(1L, 7L, dto);
+
+		assertThat(dto.getMessageId()).isEqualTo(100L);
+		assertThat(dto.getSeq()).isEqualTo(5L);
+		verify(unreadCounterService).increment(1L, 7L);
+		verifyNoInteractions(memberRepository);
+	}
+
+	@Test
+	@DisplayName("saveMessage(): sync 모드도 발급기의 id로 저장하고 보낸사람 커서를 순번으로 옮긴다")
+	void saveMessage_sync_uses_allocated_id() {
+		ChatMessageDto dto = ChatMessageDto.builder().message("hi").build();
+		given(writeBehindService.isEnabled()).willReturn(false);
+		given(sequenceService.next(1L)).willReturn(5L);
+		given(idAllocator.nextId()).willReturn(300L);
+		given(chatRoomRepository.getReferenceById(1L)).willReturn(ChatRoom.builder().id(1L).build());
+		given(memberRepository.getReferenceById(7L)).willReturn(UserEntity.builder().id(7L).build());
+		given(chatMessageRepository.save(any(ChatMessage.class))).willAnswer(invocation -> {
+			ReflectionTestUtils.setField(invocation.getArgument(0), "updatedTime", LocalDateTime.now());
+			ReflectionTestUtils.setField(invocation.getArgument(0), "createdTime", LocalDateTime.now());
+			return invocation.getArgument(0);
+		});
+
+		chatService.saveMessage(1L, 7L, dto);
+
+		assertThat(dto.getMessageId()).isEqualTo(300L);
+		verify(chatParticipantRepository).advanceReadCursor(1L, 7L, 5L);
+	}
+
+	@Test
+	@DisplayName("getChatHistoryPage(): 첫 페이지는 hot tail 캐시에서 오래된 순으로 응답한다")
+	void getChatHistoryPage_first_page_from_cache() {
+		UserEntity member = UserEntity.builder().id(7L).email("user@example.com").username("user").build();
+		given(oAuthUserService.getCurrentUserEntityFromOAuth()).willReturn(member);
+		given(chatParticipantRepository.existsByChatRoom_IdAndMember_Id(1L, 7L)).willReturn(true);
+		given(historyCacheService.covers(30)).willReturn(true);
+//		다른 노드에서 받은 메시지는 id가 작아도 순번이 뒤일 수 있고, hot tail은 전달된 순서로 쌓인다
+		given(historyCacheService.getLatest(eq(1L), eq(31), any())).willReturn(List.of(
+				ChatMessageDto.builder().messageId(5L).seq(12L).message("c").build(),
+				ChatMessageDto.builder().messageId(11L).seq(10L).message("a").build(),
+				ChatMessageDto.builder().messageId(10L).seq(11L).message("b").build()));
+
+		ChatHistoryResDto history = chatService.getChatHistoryPage(1L, null, 30);
+
+		assertThat(history.getMessages()).extracting(ChatMessageDto::getSeq).containsExactly(10L, 11L, 12L);
+		assertThat(history.isHasNext()).isFalse();
+		verifyNoInteractions(chatMessageRepository);
+	}
+
+	@Test
+	@DisplayName("getMessagesSince(): seq 이후 메시지를 순번 순으로 limit개 돌려주고 남은 메시지가 있는지 알려준다")
+	void getMessagesSince_returns_missing_range() {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("user@example.com", null, Collections.emptyList()));
+		given(membershipService.findUserId("user@example.com")).willReturn(7L);
+		given(membershipService.isParticipant(1L, 7L)).willReturn(true);
+		given(chatMessageRepository.findPageAfterSeq(1L, 10L, PageRequest.of(0, 3)))
+				.willReturn(List.of(message(111L, 11L), message(112L, 12L), message(113L, 13L)));
+
+		ChatResyncResDto resync = chatService.getMessagesSince(1L, 10L, 2);
+
+		assertThat(resync.getMessages()).extracting(ChatMessageDto::getSeq).containsExactly(11L, 12L);
+		assertThat(resync.getLastSeq()).isEqualTo(12L);
+		assertThat(resync.isHasMore()).isTrue();
+	}
+
+	@Test
+	@DisplayName("replayMessages(): 멤버십은 캐시로 확인하고, 재전송을 지원하지 않는 전송 방식이면 empty를 돌려준다")
+	void replayMessages_empty_when_transport_does_not_replay() {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("user@example.com", null, Collections.emptyList()));
+		given(membershipService.findUserId("user@example.com")).willReturn(7L);
+		given(membershipService.isParticipant(1L, 7L)).willReturn(true);
+		given(messageTransport.replay(1L, "1-0", 100)).willReturn(Optional.empty());
+
+		assertThat(chatService.replayMessages(1L, "1-0", 100)).isEmpty();
+		verify(chatParticipantRepository, never()).existsByChatRoom_IdAndMember_Id(anyLong(), anyLong());
+	}
+
+	private static ChatMessage message(Long id, Long seq) {
+		ChatMessage message = ChatMessage.builder()
+				.id(id)
+				.seq(seq)
+				.chatRoom(ChatRoom.builder().id(1L).build())
+				.member(UserEntity.builder().id(8L).email("other@example.com").username("other").build())
+				.content("m" + seq)
+				.build();
+		ReflectionTestUtils.setField(message, "updatedTime", LocalDateTime.now());
+		return message;
+	}
+
+	@Test
+	@DisplayName("searchMyChatRoomsWithPaging(): 한 번의 조회 결과로 페이지, 전체 개수, 다음 커서를 만들고 Redis에 없는 안 읽은 수는 한 쿼리로 센다")
+	void searchMyChatRooms_single_query_with_cursor() {
+		UserEntity member = UserEntity.builder().id(7L).email("user@example.com").username("user").build();
+		LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+		ChatParticipantRepository.MyChatRoomRow first = row(2L, "b_room", now, 5L);
+		ChatParticipantRepository.MyChatRoomRow second = row(1L, "a_room", now.minusMinutes(1), 3L);
+		ChatParticipantRepository.MyChatRoomRow extra = mock(ChatParticipantRepository.MyChatRoomRow.class);
+		given(first.getTotalCount()).willReturn(3L);
+
+		given(oAuthUserService.getCurrentUserEntityFromOAuth()).willReturn(member);
+		given(chatParticipantRepository.findMyChatRooms(7L, "%\\_room%", null, null, 3, 0)).willReturn(List.of(first, second, extra));
+		given(unreadCounterService.getUnreadCounts(7L, List.of(2L, 1L))).willReturn(new HashMap<>(Map.of(2L, 4L)));
+		given(chatParticipantRepository.countUnreadByRooms(7L, List.of(1L))).willReturn(List.<Object[]>of(new Object[] {1L, 1L}));
+
+		Map<String, Object> result = chatService.searchMyChatRoomsWithPaging("_room", 0, 2, null);
+
+		@SuppressWarnings("unchecked")
+		List<MyChatListResDto> rooms = (List<MyChatListResDto>) result.get("rooms");
+		assertThat(rooms).extracting(MyChatListResDto::getRoomId).containsExactly(2L, 1L);
+		assertThat(rooms).extracting(MyChatListResDto::getUnReadCount).containsExactly(4L, 1L);
+		@SuppressWarnings("unchecked")
+		Map<String, Object> pageInfo = (Map<String, Object>) result.get("pageInfo");
+		assertThat(pageInfo.get("hasNext")).isEqualTo(true);
+		assertThat(pageInfo.get("nextCursor")).isEqualTo(now.minusMinutes(1) + "_1");
+		assertThat(pageInfo.get("total")).isEqualTo(3L);
+		verify(chatParticipantRepository, never()).findAllByMember(member);
+	}
+
+	private static ChatParticipantRepository.MyChatRoomRow row(Long roomId, String name, LocalDateTime lastActivityAt, Long lastRead) {
+		ChatParticipantRepository.MyChatRoomRow row = mock(ChatParticipantRepository.MyChatRoomRow.class);
+		given(row.getRoomId()).willReturn(roomId);
+		given(row.getRoomName()).willReturn(name);
+		given(row.getIsGroupChat()).willReturn("Y");
+		given(row.getLastActivityAt()).willReturn(lastActivityAt);
+		lenient().when(row.getLastReadSeq()).thenReturn(lastRead);
+		return row;
+	}
+
+	@Test
+	@DisplayName("addParticipantToRoom(): 새 참여자의 커서는 방의 마지막 순번에서 시작한다")
+	void addParticipant_starts_at_latest_message() {
+		ChatRoom room = ChatRoom.builder().id(1L).name("room").isGroupChat("Y").build();
+		UserEntity member = UserEntity.builder().id(7L).email("user@example.com").username("user").build();
+		given(sequenceService.current(1L)).willReturn(100L);
+
+		chatService.addParticipantToRoom(room, member);
+
+		ArgumentCaptor<ChatParticipant> captor = ArgumentCaptor.forClass(ChatParticipant.class);
+		verify(chatParticipantRepository).save(captor.capture());
+		assertThat(captor.getValue().getLastReadSeq()).isEqualTo(100L);
+		verify(chatRoomRepository).addParticipantCount(1L, 1);
+		verify(membershipService).evict(1L, 7L);
+	}
+
+	@Test
+	@DisplayName("leaveGroupChatRoom(): 참여자 수 카운터가 0이 되면 채팅방을 삭제한다")
+	void leaveGroupChatRoom_deletes_empty_room_by_counter() {
+		ChatRoom room = ChatRoom.builder().id(1L).name("room").isGroupChat("Y").participantCount(1).build();
+		UserEntity member = UserEntity.builder().id(7L).email("user@example.com").username("user").build();
+		ChatParticipant participant = ChatParticipant.builder().chatRoom(room).member(member).build();
+		given(chatRoomRepository.findById(1L)).willReturn(Optional.of(room));
+		given(oAuthUserService.getCurrentUserEntityFromOAuth()).willReturn(member);
+		given(chatParticipantRepository.findByChatRoomAndMember(room, member)).willReturn(Optional.of(participant));
+		given(chatRoomRepository.findParticipantCount(1L)).willReturn(0);
+
+		chatService.leaveGroupChatRoom(1L);
+
+		verify(chatRoomRepository).addParticipantCount(1L, -1);
+		verify(chatRoomRepository).delete(room);
+		verify(chatParticipantRepository, never()).findByChatRoom(room);
+	}
+
+	@Test
+	@DisplayName("getMyChatRooms(): Redis 카운터가 없는 채팅방만 DB에서 한 쿼리로 센다")
+	void getMyChatRooms_uses_redis_counters() {
+		UserEntity member = UserEntity.builder().id(7L).email("user@example.com").username("user").build();
+		ChatRoom cached = ChatRoom.builder().id(1L).name("a").isGroupChat("Y").build();
+		ChatRoom missing = ChatRoom.builder().id(2L).name("b").isGroupChat("Y").build();
+		ChatParticipant p1 = ChatParticipant.builder().chatRoom(cached).member(member).lastReadSeq(10L).build();
+		ChatParticipant p2 = ChatParticipant.builder().chatRoom(missing).member(member).lastReadSeq(20L).build();
+
+		given(oAuthUserService.getCurrentUserEntityFromOAuth()).willReturn(member);
+		given(chatParticipantRepository.findAllByMember(member)).willReturn(List.of(p1, p2));
+		given(unreadCounterService.getUnreadCounts(7L, List.of(1L, 2L))).willReturn(new HashMap<>(Map.of(1L, 3L)));
+		given(chatParticipantRepository.countUnreadByRooms(7L, List.of(2L))).willReturn(List.<Object[]>of(new Object[] {2L, 5L}));
+
+		List<MyChatListResDto> rooms = chatService.getMyChatRooms();
+
+		assertThat(rooms).extracting(MyChatListResDto::getUnReadCount).containsExactly(3L, 5L);
+	}
+}
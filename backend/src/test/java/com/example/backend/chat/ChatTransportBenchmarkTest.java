@@ -0,0 +1,148 @@
+package com.example.backend.chat;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redis Pub/Sub 과 Redis Streams 전송 방식 비교 (./gradlew benchmark 로 실행, 일반 test 태스크에서는 제외)
+ * 같은 메시지 수를 발행해 처리량과 발행→수신 지연(p50/p99)을 출력한다.
+ */
+@Tag("benchmark")
+@Testcontainers
+class ChatTransportBenchmarkTest {
+
+	private static final int MESSAGES = 20_000;
+	private static final String PAYLOAD_PADDING = "x".repeat(200);
+
+	@Container
+	private static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+	private static LettuceConnectionFactory connectionFactory;
+	private static StringRedisTemplate template;
+
+	@BeforeAll
+	static void setUp() {
+		connectionFactory = new LettuceConnectionFactory(
+				new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+		connectionFactory.afterPropertiesSet();
+		template = new StringRedisTemplate(connectionFactory);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		connectionFactory.destroy();
+	}
+
+	@Test
+	@DisplayName("Pub/Sub 전송 처리량/지연")
+	void pubSub() throws Exception {
+		long[] latencies = new long[MESSAGES];
+		AtomicInteger received = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(MESSAGES);
+
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		container.addMessageListener((message, pattern) -> {
+			recordLatency(latencies, received, new String(message.getBody(), StandardCharsets.UTF_8));
+			done.countDown();
+		}, new ChannelTopic("chat:room:1"));
+		container.afterPropertiesSet();
+		container.start();
+		Thread.sleep(500);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < MESSAGES; i++) {
+			template.convertAndSend("chat:room:1", payload());
+		}
+		assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+		report("pubsub", start, latencies);
+		container.destroy();
+	}
+
+	@Test
+	@DisplayName("Streams 전송 처리량/지연 (consumer group + ACK, MAXLEN ~)")
+	void streams() throws Exception {
+		long[] latencies = new long[MESSAGES];
+		AtomicInteger received = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(MESSAGES);
+		String key = "chat:stream:0";
+		template.execute((RedisCallback<String>) connection ->
+				connection.streamCommands().xGroupCreate(key.getBytes(StandardCharsets.UTF_8), "node-bench", ReadOffset.latest(), true));
+
+		StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+				StreamMessageListenerContainerOptions.builder()
+						.pollTimeout(Duration.ofMillis(100))
+						.batchSize(100)
+						.build();
+		StreamMessageListenerContainer<String, MapRecord<String, String, String>> container =
+				StreamMessageListenerContainer.create(connectionFactory, options);
+		container.receive(Consumer.from("node-bench", "node-bench"), StreamOffset.create(key, ReadOffset.lastConsumed()), record -> {
+			recordLatency(latencies, received, record.getValue().get("payload"));
+			template.opsForStream().acknowledge(key, "node-bench", record.getId());
+			done.countDown();
+		});
+		container.start();
+
+		XAddOptions xAddOptions = XAddOptions.maxlen(100_000).approximateTrimming(true);
+		long start = System.nanoTime();
+		for (int i = 0; i < MESSAGES; i++) {
+			MapRecord<byte[], byte[], byte[]> record = MapRecord.create(key.getBytes(StandardCharsets.UTF_8), Map.of(
+					"roomId".getBytes(StandardCharsets.UTF_8), "0".getBytes(StandardCharsets.UTF_8),
+					"payload".getBytes(StandardCharsets.UTF_8), payload().getBytes(StandardCharsets.UTF_8)));
+			template.execute((RedisCallback<RecordId>) connection -> connection.streamCommands().xAdd(record, xAddOptions));
+		}
+		assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+		report("streams", start, latencies);
+		container.stop();
+	}
+
+	private static String payload() {
+		return System.nanoTime() + ":" + PAYLOAD_PADDING;
+	}
+
+	private static void recordLatency(long[] latencies, AtomicInteger received, String payload) {
+		long sentAt = Long.parseLong(payload.substring(0, payload.indexOf(':')));
+		int index = received.getAndIncrement();
+		if (index < latencies.length) {
+			latencies[index] = System.nanoTime() - sentAt;
+		}
+	}
+
+	private static void report(String name, long start, long[] latencies) {
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		System.out.printf("[%s] %d건, %.0f msg/s, p50=%.2fms, p99=%.2fms%n", name, MESSAGES, MESSAGES / seconds,
+				sorted[sorted.length / 2] / 1_000_000.0, sorted[(int) (sorted.length * 0.99)] / 1_000_000.0);
+	}
+}
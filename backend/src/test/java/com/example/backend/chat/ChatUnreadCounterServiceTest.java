@@ -0,0 +1,81 @@
+package com.example.backend.chat;
+
+import com.example.backend.chat.repository.ChatParticipantRepository;
+import com.example.backend.chat.service.ChatMessageWriteBehindService;
+import com.example.backend.chat.service.ChatUnreadCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChatUnreadCounterServiceTest {
+
+	@Mock
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Mock
+	private ValueOperations<String, String> valueOperations;
+
+	@Mock
+	private ChatParticipantRepository chatParticipantRepository;
+
+	@Mock
+	private ChatMessageWriteBehindService writeBehindService;
+
+	private ChatUnreadCounterService counterService;
+
+	@BeforeEach
+	void setUp() {
+		counterService = new ChatUnreadCounterService(stringRedisTemplate, chatParticipantRepository, writeBehindService, 60_000);
+		given(stringRedisTemplate.opsForValue()).willReturn(valueOperations);
+		given(valueOperations.setIfAbsent(eq("chat:unread:reconcile:lock"), anyString(), eq(Duration.ofMinutes(1)))).willReturn(true);
+	}
+
+	@Test
+	@DisplayName("reconcile(): DB 값과 다른 카운터만 미리 읽은 값 기준 compare-and-set으로 바꾸고, 저장 대기 중인 채팅방은 건너뛴 뒤 락을 푼다")
+	@SuppressWarnings("unchecked")
+	void reconcile_compare_and_sets_only_drifted_counters() {
+//		참여자 [참여자 id, 사용자 id, 채팅방 id] : 1번은 어긋남, 2번은 같음, 3번은 저장 대기 중인 채팅방, 4번은 Redis 값 없음
+		given(chatParticipantRepository.findParticipantKeysAfter(0L, PageRequest.of(0, 1000))).willReturn(List.of(
+				new Object[] {1L, 7L, 10L}, new Object[] {2L, 8L, 10L}, new Object[] {3L, 7L, 20L}, new Object[] {4L, 9L, 10L}));
+		given(chatParticipantRepository.findParticipantKeysAfter(4L, PageRequest.of(0, 1000))).willReturn(List.of());
+		given(writeBehindService.hasPending(anyLong())).willAnswer(invocation -> invocation.<Long>getArgument(0) == 20L);
+		given(stringRedisTemplate.executePipelined(any(RedisCallback.class))).willReturn(Arrays.asList("5", "2", "9", null));
+		given(chatParticipantRepository.findUnreadCountsByIds(List.of(1L, 2L, 3L, 4L))).willReturn(List.of(
+				new Object[] {1L, 3L}, new Object[] {2L, 2L}, new Object[] {3L, 0L}, new Object[] {4L, 1L}));
+		given(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).willReturn(2L, 1L);
+
+		counterService.reconcile();
+
+		ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+		verify(stringRedisTemplate, times(2)).execute(any(RedisScript.class), keys.capture(), args.capture());
+		assertThat(keys.getAllValues().get(0)).containsExactly("chat:unread:7", "chat:unread:9");
+		assertThat(args.getAllValues().get(0)).containsExactly("10", "5", "3", "10", "", "1");
+//		마지막 호출은 락 해제
+		assertThat(keys.getAllValues().get(1)).containsExactly("chat:unread:reconcile:lock");
+	}
+}
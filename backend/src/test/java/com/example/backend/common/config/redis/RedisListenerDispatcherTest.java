@@ -0,0 +1,91 @@
+package com.example.backend.common.config.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisListenerDispatcherTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private RedisListenerDispatcher dispatcher;
+
+	@AfterEach
+	void tearDown() {
+		dispatcher.destroy();
+	}
+
+	@Test
+	@DisplayName("같은 채팅방 메시지는 들어온 순서대로 처리된다")
+	void preserves_order_per_room() throws InterruptedException {
+		dispatcher = new RedisListenerDispatcher(meterRegistry, 4, 1000, 1000);
+		List<Integer> processed = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(500);
+
+		for (int i = 0; i < 500; i++) {
+			int seq = i;
+			dispatcher.dispatch(42L, () -> {
+				processed.add(seq);
+				done.countDown();
+			});
+		}
+
+		assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(processed).containsExactlyElementsOf(IntStream.range(0, 500).boxed().toList());
+		assertThat(meterRegistry.get("chat.redis.listener.queue.depth").gauges()).hasSize(4);
+	}
+
+	@Test
+	@DisplayName("레인 큐가 가득 차면 기다리지 않고 메시지를 버리고 카운터를 올린다")
+	void drops_when_lane_is_full() throws InterruptedException {
+		dispatcher = new RedisListenerDispatcher(meterRegistry, 1, 1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+
+		dispatcher.dispatch(1L, () -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(dispatcher.dispatch(1L, () -> { })).isTrue();
+		assertThat(dispatcher.dispatch(1L, () -> { })).isFalse();
+		release.countDown();
+
+		assertThat(meterRegistry.get("chat.redis.listener.dropped").counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	@DisplayName("수신 실행기 큐가 가득 차면 호출한 스레드를 막지 않고 버린다")
+	void handoff_drops_without_blocking_caller() throws InterruptedException {
+		dispatcher = new RedisListenerDispatcher(meterRegistry, 1, 1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+
+		dispatcher.handoffExecutor().execute(() -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		dispatcher.handoffExecutor().execute(() -> { });
+		dispatcher.handoffExecutor().execute(() -> { });
+		release.countDown();
+
+		assertThat(meterRegistry.get("chat.redis.listener.dropped").counter().count()).isEqualTo(1.0);
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.backend.common.config.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ChatWebSocketSessionRegistryTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ChatWebSocketSessionRegistry registry = new ChatWebSocketSessionRegistry(meterRegistry, 2);
+
+	@Test
+	@DisplayName("송신 대기 한도를 넘으면 메시지를 버리고 RESYNC_REQUIRED로 세션을 끊는다")
+	void evicts_slow_session() throws Exception {
+		WebSocketSession session = session("s1");
+		registry.register(session);
+
+		assertThat(registry.tryEnqueue("s1")).isTrue();
+		assertThat(registry.tryEnqueue("s1")).isTrue();
+		verify(session, never()).close(ChatWebSocketSessionRegistry.RESYNC_REQUIRED);
+
+		assertThat(registry.tryEnqueue("s1")).isFalse();
+		verify(session).close(ChatWebSocketSessionRegistry.RESYNC_REQUIRED);
+		assertThat(meterRegistry.get("chat.ws.outbound.dropped").counter().count()).isEqualTo(1.0);
+		assertThat(meterRegistry.get("chat.ws.outbound.pending.max").gauge().value()).isEqualTo(2.0);
+	}
+
+	@Test
+	@DisplayName("전송이 끝난 메시지는 대기 수에서 빠진다")
+	void dequeued_releases_slot() {
+		registry.register(session("s1"));
+
+		registry.tryEnqueue("s1");
+		registry.tryEnqueue("s1");
+		registry.dequeued("s1");
+
+		assertThat(registry.tryEnqueue("s1")).isTrue();
+		assertThat(meterRegistry.get("chat.ws.outbound.pending.total").gauge().value()).isEqualTo(2.0);
+	}
+
+	private static WebSocketSession session(String id) {
+		WebSocketSession session = mock(WebSocketSession.class);
+		given(session.getId()).willReturn(id);
+		given(session.isOpen()).willReturn(true);
+		return session;
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.backend.common.config.websocket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomSubscriptionRegistryTest {
+
+	private final RoomSubscriptionRegistry registry = new RoomSubscriptionRegistry();
+
+	@Test
+	@DisplayName("정확히 일치하는 목적지의 구독자만 찾는다")
+	void find_exact_destination() {
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s1", "sub-1", "/topic/1"));
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s2", "sub-1", "/topic/1"));
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s3", "sub-1", "/topic/2"));
+
+		MultiValueMap<String, String> result = registry.findSubscriptions(frame(SimpMessageType.MESSAGE, null, null, "/topic/1"));
+
+		assertThat(result.keySet()).containsExactlyInAnyOrder("s1", "s2");
+	}
+
+	@Test
+	@DisplayName("구독 해제와 세션 종료가 조회 결과에 반영된다")
+	void unsubscribe_and_disconnect() {
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s1", "sub-1", "/topic/1"));
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s2", "sub-1", "/topic/1"));
+		assertThat(registry.findSubscriptions(frame(SimpMessageType.MESSAGE, null, null, "/topic/1"))).hasSize(2);
+
+		registry.unregisterSubscription(frame(SimpMessageType.UNSUBSCRIBE, "s1", "sub-1", null));
+		registry.unregisterAllSubscriptions("s2");
+
+		assertThat(registry.findSubscriptions(frame(SimpMessageType.MESSAGE, null, null, "/topic/1"))).isEmpty();
+	}
+
+	@Test
+	@DisplayName("와일드카드 구독은 패턴 매칭으로 함께 찾는다")
+	void pattern_subscription() {
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s1", "sub-1", "/topic/1"));
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s2", "sub-1", "/topic/*"));
+
+		MultiValueMap<String, String> result = registry.findSubscriptions(frame(SimpMessageType.MESSAGE, null, null, "/topic/1"));
+
+		assertThat(result.keySet()).containsExactlyInAnyOrder("s1", "s2");
+	}
+
+	@Test
+	@DisplayName("중복 UNSUBSCRIBE나 세션 정리 후의 UNSUBSCRIBE가 와일드카드 구독을 가리지 않는다")
+	void stray_unsubscribe_keeps_pattern_subscription() {
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s1", "sub-1", "/topic/1"));
+		registry.registerSubscription(frame(SimpMessageType.SUBSCRIBE, "s2", "sub-1", "/topic/*"));
+
+		registry.unregisterSubscription(frame(SimpMessageType.UNSUBSCRIBE, "s1", "sub-1", null));
+		registry.unregisterSubscription(frame(SimpMessageType.UNSUBSCRIBE, "s1", "sub-1", null));
+		registry.unregisterAllSubscriptions("s3");
+		registry.unregisterSubscription(frame(SimpMessageType.UNSUBSCRIBE, "s3", "sub-9", null));
+
+		MultiValueMap<String, String> result = registry.findSubscriptions(frame(SimpMessageType.MESSAGE, null, null, "/topic/1"));
+		assertThat(result.keySet()).containsExactly("s2");
+
+		registry.unregisterAllSubscriptions("s2");
+		assertThat(registry.findSubscriptions(frame(SimpMessageType.MESSAGE, null, null, "/topic/1"))).isEmpty();
+	}
+
+	private static Message<byte[]> frame(SimpMessageType type, String sessionId, String subscriptionId, String destination) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+		accessor.setSessionId(sessionId);
+		accessor.setSubscriptionId(subscriptionId);
+		accessor.setDestination(destination);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+}
@@ -0,0 +1,166 @@
+package com.example.backend.common.config.websocket;
+
+import com.example.backend.chat.dto.ChatSendRejectedDto;
+import com.example.backend.chat.service.ChatMembershipService;
+import com.example.backend.chat.service.ChatSendRateLimiter;
+import com.example.backend.security.constant.TokenConstants;
+import com.example.backend.security.jwt.JWTUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+import java.time.Instant;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class StompHandlerTest {
+
+	private static final String SECRET = "dev-test-256bit-plain-secret-0123456789-ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+	@Mock
+	private ChatMembershipService membershipService;
+
+	@Mock
+	private ChatWebSocketSessionRegistry sessionRegistry;
+
+	@Mock
+	private ChatSendRateLimiter rateLimiter;
+
+	@Mock
+	private SimpMessageSendingOperations messageTemplate;
+
+	private final JWTUtil jwtUtil = new JWTUtil(SECRET);
+	private final MessageChannel channel = mock(MessageChannel.class);
+	private StompHandler stompHandler;
+
+	@BeforeEach
+	void setUp() {
+		stompHandler = new StompHandler(membershipService, jwtUtil, sessionRegistry, rateLimiter, messageTemplate);
+	}
+
+	@Test
+	@DisplayName("CONNECT: 토큰을 한 번 검증해 principal을 세션에 저장한다")
+	void connect_binds_principal() {
+		String token = jwtUtil.createJwt(TokenConstants.ACCESS_TOKEN_CATEGORY, "user@example.com", "ROLE_USER", 60_000L);
+		given(membershipService.findUserId("user@example.com")).willReturn(7L);
+		StompHeaderAccessor accessor = accessor(StompCommand.CONNECT);
+		accessor.setNativeHeader("Authorization", "Bearer " + token);
+
+		stompHandler.preSend(message(accessor), channel);
+
+		assertThat(accessor.getUser()).isInstanceOf(ChatSessionPrincipal.class);
+		ChatSessionPrincipal principal = (ChatSessionPrincipal) accessor.getUser();
+		assertThat(principal.userId()).isEqualTo(7L);
+		assertThat(principal.email()).isEqualTo("user@example.com");
+		assertThat(accessor.getSessionAttributes()).containsEntry(ChatSessionPrincipal.SESSION_ATTRIBUTE, principal);
+		verify(sessionRegistry).authenticate("s1", principal);
+	}
+
+	@Test
+	@DisplayName("CONNECT: 토큰이 없으면 거부한다")
+	void connect_without_token_rejected() {
+		StompHeaderAccessor accessor = accessor(StompCommand.CONNECT);
+
+		assertThatThrownBy(() -> stompHandler.preSend(message(accessor), channel))
+				.isInstanceOf(AuthenticationServiceException.class);
+	}
+
+	@Test
+	@DisplayName("SUBSCRIBE: 세션 principal로 참여 여부만 확인하고, 참여자가 아니면 거부한다")
+	void subscribe_uses_session_principal() {
+		StompHeaderAccessor accessor = accessor(StompCommand.SUBSCRIBE);
+		accessor.setUser(new ChatSessionPrincipal(7L, "user@example.com", "ROLE_USER", Instant.now().plusSeconds(60)));
+		accessor.setDestination("/topic/3");
+		given(membershipService.isParticipant(3L, 7L)).willReturn(false);
+
+		assertThatThrownBy(() -> stompHandler.preSend(message(accessor), channel))
+				.isInstanceOf(AccessDeniedException.class);
+	}
+
+	@Test
+	@DisplayName("SUBSCRIBE: 채팅방 토픽이 아닌 개인 목적지는 참여 여부를 확인하지 않는다")
+	void subscribe_user_queue_skips_membership() {
+		StompHeaderAccessor accessor = accessor(StompCommand.SUBSCRIBE);
+		accessor.setUser(new ChatSessionPrincipal(7L, "user@example.com", "ROLE_USER", Instant.now().plusSeconds(60)));
+		accessor.setDestination("/user/queue/ack");
+
+		stompHandler.preSend(message(accessor), channel);
+
+		verifyNoInteractions(membershipService);
+	}
+
+	@Test
+	@DisplayName("SEND: 참여자가 전송 속도 제한을 넘으면 프레임을 버리고 보낸 사람에게 알린다")
+	void send_over_rate_limit_dropped() {
+		StompHeaderAccessor accessor = accessor(StompCommand.SEND);
+		accessor.setUser(new ChatSessionPrincipal(7L, "user@example.com", "ROLE_USER", Instant.now().plusSeconds(60)));
+		accessor.setDestination("/publish/3");
+		accessor.setReceipt("r-1");
+		given(membershipService.isParticipant(3L, 7L)).willReturn(true);
+		given(rateLimiter.tryAcquire(7L, 3L)).willReturn(new ChatSendRateLimiter.Rejection(ChatSendRateLimiter.SCOPE_USER, 200L));
+
+		assertThat(stompHandler.preSend(message(accessor), channel)).isNull();
+
+		ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+		verify(messageTemplate).convertAndSendToUser(eq("user@example.com"), eq("/queue/errors"), payload.capture());
+		assertThat(payload.getValue()).isEqualTo(new ChatSendRejectedDto("RATE_LIMITED", "user", 3L, 200L, "r-1", null));
+	}
+
+	@Test
+	@DisplayName("SEND: 참여자가 아니면 전송 속도 제한 버킷을 쓰지 않고 거부한다")
+	void send_from_non_member_skips_rate_limiter() {
+		StompHeaderAccessor accessor = accessor(StompCommand.SEND);
+		accessor.setUser(new ChatSessionPrincipal(7L, "user@example.com", "ROLE_USER", Instant.now().plusSeconds(60)));
+		accessor.setDestination("/publish/3");
+		given(membershipService.isParticipant(3L, 7L)).willReturn(false);
+
+		assertThatThrownBy(() -> stompHandler.preSend(message(accessor), channel))
+				.isInstanceOf(AccessDeniedException.class);
+		verifyNoInteractions(rateLimiter);
+	}
+
+	@Test
+	@DisplayName("SEND: 전송 속도 제한 안이면 참여 여부를 확인하고 그대로 통과시킨다")
+	void send_within_rate_limit_passes() {
+		StompHeaderAccessor accessor = accessor(StompCommand.SEND);
+		accessor.setUser(new ChatSessionPrincipal(7L, "user@example.com", "ROLE_USER", Instant.now().plusSeconds(60)));
+		accessor.setDestination("/publish/3");
+		given(membershipService.isParticipant(3L, 7L)).willReturn(true);
+		Message<byte[]> message = message(accessor);
+
+		assertThat(stompHandler.preSend(message, channel)).isSameAs(message);
+		verifyNoInteractions(messageTemplate);
+	}
+
+	private static StompHeaderAccessor accessor(StompCommand command) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+		accessor.setSessionId("s1");
+		accessor.setSessionAttributes(new HashMap<>());
+		accessor.setLeaveMutable(true);
+		return accessor;
+	}
+
+	private static Message<byte[]> message(StompHeaderAccessor accessor) {
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+}
@@ -16,8 +16,12 @@ import {
 } from "@mui/material";
 import fetchChatHistory from "../services/fetchChatHistory";
 import markChatAsRead from "../services/markChatAsRead";
+import fetchMessagesSince from "../services/fetchMessagesSince";
 
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL;
+// 순번이 건너뛴 메시지를 빠진 것으로 보기 전에 기다리는 시간
+// (서버는 여러 스레드에서 순번을 발급하므로 N+1이 N보다 조금 먼저 도착할 수 있다)
+const GAP_GRACE_MS = 300;
 
 export default function StompChatPage() {
   const { roomId } = useParams();
@@ -30,6 +34,8 @@ export default function StompChatPage() {
   const [loading, setLoading] = useState(false);
   const [connected, setConnected] = useState(false);
   const [connectionFailed, setConnectionFailed] = useState(false);
+  // 전송 속도 제한으로 서버가 버린 메시지 안내
+  const [sendWarning, setSendWarning] = useState(null);
 
   const [serverStatus, setServerStatus] = useState("checking");
   const [reconnectAttempt, setReconnectAttempt] = useState(0);
@@ -39,6 +45,13 @@ export default function StompChatPage() {
   const senderEmail = localStorage.getItem("email");
   const stompClient = useRef(null);
   const chatBoxRef = useRef(null);
+  // 마지막으로 받은 메시지 순번(seq) - 건너뛴 순번이 보이거나 재연결하면 그 이후만 다시 받는다
+  const lastSeqRef = useRef(null);
+  const resyncingRef = useRef(false);
+  const pendingRef = useRef([]);
+  // 순번이 건너뛰어 잠시 보류한 실시간 메시지와 대기 타이머
+  const outOfOrderRef = useRef([]);
+  const gapTimerRef = useRef(null);
 
   /**
    * 컴포넌트 마운트 시점에 서버 상태 확인
@@ -123,6 +136,10 @@ export default function StompChatPage() {
       if (data && Array.isArray(data)) {
         console.log(`📥 불러온 채팅 기록: ${data.length}개 메시지`);
         setMessages(data);
+        lastSeqRef.current = data.reduce(
+          (max, msg) => (msg.seq != null && msg.seq > (max ?? 0) ? msg.seq : max),
+          null
+        );
       } else {
         console.error("❌ 채팅 기록 데이터가 올바르지 않습니다.");
         setMessages([]);
@@ -135,6 +152,101 @@ export default function StompChatPage() {
     }
   };
 
+  /**
+   * 받은 메시지를 순번 순으로 이어 붙인다 (이미 받은 순번은 건너뜀)
+   */
+  const appendMessages = (incoming) => {
+    const fresh = incoming
+      .filter(
+        (msg) =>
+          msg.seq == null ||
+          lastSeqRef.current == null ||
+          msg.seq > lastSeqRef.current
+      )
+      .sort((a, b) => (a.seq ?? 0) - (b.seq ?? 0));
+    if (fresh.length === 0) return;
+
+    fresh.forEach((msg) => {
+      if (msg.seq != null) {
+        lastSeqRef.current = Math.max(lastSeqRef.current ?? 0, msg.seq);
+      }
+    });
+    setMessages((prev) => [...prev, ...fresh]);
+    scrollToBottom();
+  };
+
+  /**
+   * 마지막으로 받은 순번 이후 빠진 메시지를 다시 받아온다
+   * 재조회 중에 도착한 실시간 메시지는 모아 두었다가 재조회가 끝난 뒤 붙인다.
+   */
+  const resyncMessages = async () => {
+    if (lastSeqRef.current == null || resyncingRef.current) return;
+    resyncingRef.current = true;
+    try {
+      let hasMore = true;
+      while (hasMore) {
+        const data = await fetchMessagesSince(roomId, lastSeqRef.current);
+        appendMessages(data.messages);
+        hasMore = data.hasMore && data.messages.length > 0;
+      }
+    } finally {
+      resyncingRef.current = false;
+      const pending = pendingRef.current;
+      pendingRef.current = [];
+      appendMessages(pending);
+    }
+  };
+
+  /**
+   * 실시간 메시지 수신 - 순번이 건너뛰었으면 GAP_GRACE_MS 동안 보류하고,
+   * 그 사이 빈 순번이 도착하지 않으면 빠진 구간을 재조회
+   */
+  const receiveMessage = (message) => {
+    if (resyncingRef.current) {
+      pendingRef.current.push(message);
+      return;
+    }
+    if (
+      message.seq != null &&
+      lastSeqRef.current != null &&
+      message.seq > lastSeqRef.current + 1
+    ) {
+      outOfOrderRef.current.push(message);
+      if (!gapTimerRef.current) {
+        gapTimerRef.current = setTimeout(resyncAfterGap, GAP_GRACE_MS);
+      }
+      return;
+    }
+    appendMessages([message]);
+    drainOutOfOrder();
+  };
+
+  /**
+   * 보류한 메시지 중 순번이 이어지는 것부터 붙이고, 모두 붙었으면 대기 타이머를 취소
+   */
+  const drainOutOfOrder = () => {
+    const held = outOfOrderRef.current.sort((a, b) => a.seq - b.seq);
+    while (held.length > 0 && held[0].seq <= lastSeqRef.current + 1) {
+      appendMessages([held.shift()]);
+    }
+    if (held.length === 0 && gapTimerRef.current) {
+      clearTimeout(gapTimerRef.current);
+      gapTimerRef.current = null;
+    }
+  };
+
+  const resyncAfterGap = () => {
+    gapTimerRef.current = null;
+    const held = outOfOrderRef.current.sort((a, b) => a.seq - b.seq);
+    if (held.length === 0) return;
+    outOfOrderRef.current = [];
+    console.warn(
+      `⚠️ 메시지 순번 건너뜀 (${lastSeqRef.current} → ${held[0].seq}), 빠진 메시지 재조회`
+    );
+    pendingRef.current.push(...held);
+    resyncMessages();
+  };
+
   /**
    * WebSocket 연결 - CONNECT 시점에만 JWT 전송
    */
@@ -193,18 +305,64 @@ export default function StompChatPage() {
         setReconnectAttempt(0);
 
         // 이제 SUBSCRIBE는 헤더 없이
+        // 묶음 수신 목적지 : 항상 메시지 배열이 오고, 바쁜 채팅방은 여러 메시지가 배열 하나로 묶여 온다
+        // (/topic/{roomId} 를 구독하면 메시지 한 건씩 객체로 온다)
         stompClient.current.subscribe(
-          `/topic/${roomId}`,
+          `/topic/${roomId}/batch`,
           (message) => {
             console.log("📩 받은 메시지:", message.body);
-            const parsedMessage = JSON.parse(message.body);
-            setMessages((prev) => [...prev, parsedMessage]);
-            scrollToBottom();
+            JSON.parse(message.body).forEach(receiveMessage);
+          },
+          { Authorization: `Bearer ${token}` }
+        );
+
+        // 전송 확인 응답 (중복 전송이면 duplicate: true)
+        stompClient.current.subscribe("/user/queue/ack", (message) => {
+          const ack = JSON.parse(message.body);
+          console.log(
+            `✅ 전송 확인: ${ack.clientMessageId} → seq ${ack.seq}${
+              ack.duplicate ? " (중복 전송)" : ""
+            }`
+          );
+        });
+
+        // 전송 거부 알림 (RATE_LIMITED : 너무 빠르게 보내 서버가 메시지를 버린 경우,
+        //               PERSISTENCE_BUSY : 서버 저장 대기열이 가득 차서 메시지를 버린 경우)
+        stompClient.current.subscribe("/user/queue/errors", (message) => {
+          const error = JSON.parse(message.body);
+          console.warn("⚠️ 전송 거부:", error);
+          if (error.code === "RATE_LIMITED") {
+            setSendWarning(
+              `메시지를 너무 빠르게 보내고 있습니다. ${Math.ceil(
+                error.retryAfterMs / 1000
+              )}초 후에 다시 시도해 주세요.`
+            );
+            setTimeout(() => setSendWarning(null), error.retryAfterMs);
+          } else if (error.code === "PERSISTENCE_BUSY") {
+            setSendWarning(
+              "서버가 바빠 메시지를 보내지 못했습니다. 잠시 후 다시 보내 주세요."
+            );
+            setTimeout(() => setSendWarning(null), error.retryAfterMs);
+          }
+        });
+
+        // 다른 참여자의 읽음 알림 (짧은 간격으로 모아 사용자별 마지막 읽은 순번만 온다)
+        stompClient.current.subscribe(
+          `/topic/${roomId}/receipts`,
+          (message) => {
+            JSON.parse(message.body).forEach((receipt) =>
+              console.log(
+                `👀 읽음: 사용자 ${receipt.userId} → 순번 ${receipt.lastReadSeq}`
+              )
+            );
           },
           { Authorization: `Bearer ${token}` }
         );
 
-        console.log(`📌 구독한 경로: /topic/${roomId}`);
+        // 재연결인 경우 끊겨 있던 동안의 메시지를 받아온다
+        resyncMessages();
+
+        console.log(`📌 구독한 경로: /topic/${roomId}/batch`);
       },
 
       onStompError: (frame) => {
@@ -219,6 +377,11 @@ export default function StompChatPage() {
         setConnected(false);
         setConnectionFailed(true);
 
+        // 4409(RESYNC_REQUIRED) : 메시지를 제때 받지 못해 서버가 끊은 경우 → 놓친 메시지를 다시 불러온다
+        if (evt?.code === 4409) {
+          loadChatHistory();
+        }
+
         const nextAttempt = reconnectAttempt + 1;
         setReconnectAttempt(nextAttempt);
         if (nextAttempt < maxReconnectAttempts) {
@@ -251,9 +414,13 @@ export default function StompChatPage() {
 
     // 원본 이메일 사용 (변환하지 않음)
     // 서버 측에서 정규화된 형식으로 처리할 것임
+    // clientMessageId : 같은 전송이 다시 들어가도 서버가 한 번만 처리한다
     const messageBody = {
       senderEmail: senderEmail,
       message: newMessage,
+      clientMessageId:
+        crypto.randomUUID?.() ??
+        `${Date.now()}-${Math.random().toString(36).slice(2)}`,
     };
 
     console.log("📤 전송할 메시지:", messageBody);
@@ -283,6 +450,8 @@ export default function StompChatPage() {
       console.error("❌ 읽음 처리 실패:", error);
     }
 
+    clearTimeout(gapTimerRef.current);
+    gapTimerRef.current = null;
     stompClient.current.deactivate();
     setConnected(false);
   };
@@ -473,6 +642,11 @@ export default function StompChatPage() {
                 </Box>
               ) : (
                 <>
+                  {sendWarning && (
+                    <Alert severity="warning" sx={{ mt: 2 }}>
+                      {sendWarning}
+                    </Alert>
+                  )}
                   <TextField
                     fullWidth
                     label="메시지 입력"
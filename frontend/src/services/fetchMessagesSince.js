@@ -0,0 +1,28 @@
+import axiosInstance from "../utils/axios";
+
+/**
+ * 빠진 메시지 재조회 서비스 (axios 버전)
+ * @param {string} roomId - 채팅방 ID
+ * @param {number} seq - 마지막으로 받은 메시지 순번 (이 값보다 큰 메시지를 받는다)
+ * @returns {Promise<{messages: Array, lastSeq: number, hasMore: boolean}>} - 순번 순 메시지
+ */
+const fetchMessagesSince = async (roomId, seq) => {
+  try {
+    console.log(`📥 채팅방 ${roomId} 순번 ${seq} 이후 메시지 재조회`);
+
+    // axios 인스턴스 사용 (인터셉터에서 토큰 만료 처리)
+    const response = await axiosInstance.get(
+      `/api/chat/room/${roomId}/since/${seq}`
+    );
+
+    console.log(
+      `✅ 채팅방 ${roomId} 재조회 성공: ${response.data.messages.length}개 메시지`
+    );
+    return response.data;
+  } catch (error) {
+    console.error("❌ 빠진 메시지 재조회 중 오류 발생:", error);
+    return { messages: [], lastSeq: seq, hasMore: false };
+  }
+};
+
+export default fetchMessagesSince;